@@ -0,0 +1,77 @@
+package org.cis1200.Battleship;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks making boards: a new Battleship, reset() to a new board,
+ * placeShipsRandomly() on an existing game, the copy constructor, and
+ * getCopyOfBoard(). Each runs on the classic board and on the tiled
+ * GameConfigs, where placement takes the random-draw path of ShipPlacer.
+ *
+ * Run with -prof gc (the default in the jmh profile) to see the bytes each
+ * operation allocates as well as its time: reset() reuses the game's arrays,
+ * so it should allocate far less than a new Battleship.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    /** Number of times the classic board is tiled across: 1 is the classic game. */
+    @Param({ "1", "2", "5" })
+    public int tiles;
+
+    private GameConfig config;
+    private SplittableRandom random;
+    private Battleship game;
+
+    @Setup
+    public void setUp() {
+        config = tiles == 1 ? GameConfig.STANDARD : GameConfig.tiled(tiles);
+        random = new SplittableRandom(1L);
+        game = new Battleship(config, 1L);
+    }
+
+    @Benchmark
+    public Battleship newBattleship() {
+        return new Battleship(config, random.nextLong());
+    }
+
+    @Benchmark
+    public Battleship reset() {
+        game.reset(random.nextLong());
+        return game;
+    }
+
+    @Benchmark
+    public Battleship placeShipsRandomly() {
+        game.placeShipsRandomly(random);
+        return game;
+    }
+
+    @Benchmark
+    public Battleship copy() {
+        return new Battleship(game);
+    }
+
+    @Benchmark
+    public String[][] getCopyOfBoard() {
+        return game.getCopyOfBoard();
+    }
+}
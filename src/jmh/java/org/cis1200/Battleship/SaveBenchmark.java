@@ -0,0 +1,80 @@
+package org.cis1200.Battleship;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks saving and loading a game halfway through, the work behind
+ * BattleshipBoard.saveGame and loadGame: encoding it in the SaveFile
+ * format and applying the bytes to another game, which replays the shots on
+ * the board generated from the seed, both in memory and through a file.
+ * The file round trip includes the atomic rename of SaveFile.write, so it
+ * mostly measures the file system; the in-memory one is the part the game
+ * controls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveBenchmark {
+
+    private static final int SHOTS = 40;
+
+    private GameEngine engine;
+    private GameEngine loaded;
+    private Path dir;
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        engine = new GameEngine(3L);
+        for (int i = 0; i < SHOTS; i++) {
+            int cell = i * 37 % 100; // 37 is prime to 100, so the shots are all different
+            engine.shoot(cell % 10, cell / 10);
+        }
+        loaded = new GameEngine(4L);
+        dir = Files.createTempDirectory("battleship-bench");
+        file = dir.resolve("bench.dat");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        return engine.save();
+    }
+
+    @Benchmark
+    public GameEngine roundTrip() throws IOException {
+        loaded.load(engine.save());
+        return loaded;
+    }
+
+    @Benchmark
+    public GameEngine fileRoundTrip() throws IOException {
+        SaveFile.write(file, engine.save());
+        loaded.load(SaveFile.read(file));
+        return loaded;
+    }
+}
@@ -0,0 +1,156 @@
+package org.cis1200.Battleship;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks Battleship.takeShot() on each kind of shot: a miss, a hit that
+ * doesn't sink its ship, and the hit that sinks it and borders it with
+ * misses. A single shot takes a few nanoseconds, and every board can only
+ * be shot once, so a pool of BOARDS fresh copies of one board is made
+ * before each iteration, outside the timing. An iteration is a single
+ * invocation that takes every shot of its kind on every board in the pool,
+ * and the time is divided by the number of shots.
+ *
+ * The board's cells are sorted into the three kinds once, from the cell
+ * names: the first cell of a ship longer than one is a plain hit, and the
+ * last cell of every ship sinks it once the cells before it are hit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 20)
+@Fork(1)
+public class ShotBenchmark {
+
+    private static final int BOARDS = 10_000; // boards shot per iteration
+
+    private static final int SIZE = 10;
+    private static final int MISSES = SIZE * SIZE - 20; // water cells on the classic board
+    private static final int HITS = 6; // ships longer than one in the classic fleet
+    private static final int SINKS = 10; // ships in the classic fleet
+
+    private final Battleship template = new Battleship(GameConfig.STANDARD, 7L);
+    private final int[] misses = new int[MISSES];
+    private final int[] hits = new int[HITS];
+    private final int[] sinks = new int[SINKS];
+    private final int[] beforeSinks = new int[SIZE * SIZE - MISSES - SINKS];
+    private final Battleship[] boards = new Battleship[BOARDS];
+
+    public ShotBenchmark() {
+        int m = 0;
+        int h = 0;
+        int s = 0;
+        int b = 0;
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            int r = cell / SIZE;
+            int c = cell % SIZE;
+            String name = template.getCell(c, r);
+            if (!isShip(c, r)) {
+                misses[m++] = cell;
+                continue;
+            }
+            boolean vertical = name.startsWith("V");
+            boolean first = vertical ? !isShip(c, r - 1) : !isShip(c - 1, r);
+            boolean last = vertical ? !isShip(c, r + 1) : !isShip(c + 1, r);
+            if (first && !last) {
+                hits[h++] = cell;
+            }
+            if (last) {
+                sinks[s++] = cell;
+            } else {
+                beforeSinks[b++] = cell;
+            }
+        }
+    }
+
+    private boolean isShip(int c, int r) {
+        if (c < 0 || c >= SIZE || r < 0 || r >= SIZE) {
+            return false;
+        }
+        String name = template.getCell(c, r);
+        return !name.equals("_") && !name.equals(".");
+    }
+
+    /**
+     * Makes a board in a pool a fresh copy of the template, reusing its arrays.
+     */
+    private Battleship fresh(Battleship[] pool, int i) {
+        if (pool[i] == null) {
+            pool[i] = new Battleship(template);
+        } else {
+            pool[i].restore(template);
+        }
+        pool[i].setNumShots(SIZE * SIZE); // enough to shoot every cell
+        return pool[i];
+    }
+
+    @Setup(Level.Iteration)
+    public void freshBoards() {
+        for (int i = 0; i < BOARDS; i++) {
+            fresh(boards, i);
+        }
+    }
+
+    /** Fresh boards with every ship one hit from sinking, for sinks(). */
+    @State(Scope.Thread)
+    public static class Wounded {
+        private final Battleship[] boards = new Battleship[BOARDS];
+
+        @Setup(Level.Iteration)
+        public void woundFleets(ShotBenchmark shots) {
+            for (int i = 0; i < BOARDS; i++) {
+                Battleship game = shots.fresh(boards, i);
+                for (int cell : shots.beforeSinks) {
+                    game.takeShot(cell % SIZE, cell / SIZE);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MISSES * BOARDS)
+    public Battleship[] misses() {
+        for (Battleship game : boards) {
+            for (int cell : misses) {
+                game.takeShot(cell % SIZE, cell / SIZE);
+            }
+        }
+        return boards;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HITS * BOARDS)
+    public Battleship[] hits() {
+        for (Battleship game : boards) {
+            for (int cell : hits) {
+                game.takeShot(cell % SIZE, cell / SIZE);
+            }
+        }
+        return boards;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SINKS * BOARDS)
+    public Battleship[] sinks(Wounded wounded) {
+        for (Battleship game : wounded.boards) {
+            for (int cell : sinks) {
+                game.takeShot(cell % SIZE, cell / SIZE);
+            }
+        }
+        return wounded.boards;
+    }
+}
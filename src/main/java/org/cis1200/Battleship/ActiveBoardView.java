@@ -0,0 +1,341 @@
+package org.cis1200.Battleship;
+
+import java.awt.BasicStroke;
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Toolkit;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+/**
+ * This class draws the game board with active rendering, for animated
+ * effects: a splash when a shot misses, an explosion when it hits, and a
+ * bigger one when it sinks a ship. Instead of waiting for Swing to ask for
+ * a paint on the event thread, it draws on a render thread of its own,
+ * through a BufferStrategy, so an animation never waits for the event
+ * thread and the event thread never waits for an animation.
+ *
+ * The render thread never touches the game. BattleshipBoard publishes an
+ * immutable BoardSnapshot after every change, and the thread draws the
+ * latest one it has seen; a snapshot made by a shot starts that shot's
+ * effect. The loop runs on a FrameClock: effects advance in fixed ticks of
+ * 1/TICKS_PER_SECOND of a second, frames are due every 1/FRAMES_PER_SECOND
+ * of a second, and frames that overrun their budget are counted as dropped.
+ * When nothing moves and nothing changed, the thread draws nothing until
+ * the next snapshot.
+ *
+ * Clicks are handled on the event thread, as with BattleshipBoard: a click
+ * on a cell is passed to the listener given to the constructor.
+ *
+ * The view times its frames and clicks for the board's PerformanceHud, and
+ * draws the HUD over the board while it is shown. It redraws once per new
+ * sample of the HUD too, so the overlay stays current while nothing else
+ * moves.
+ */
+@SuppressWarnings("serial")
+class ActiveBoardView extends Canvas implements Runnable {
+
+    static final int TICKS_PER_SECOND = 60;
+    static final int FRAMES_PER_SECOND = 60;
+    static final int MAX_UPDATES = 5; // ticks run before a frame; the rest are skipped
+
+    // effects, and how many ticks they last
+    private static final int SPLASH = 0;
+    private static final int BLAST = 1;
+    private static final int BIG_BLAST = 2;
+    private static final int[] DURATION = { 30, 36, 60 };
+    private static final int MAX_EFFECTS = 32;
+
+    // effect colors at ALPHAS levels of opacity, made once so that frames allocate none
+    private static final int ALPHAS = 16;
+    private static final Color[] SPRAY = fade(new Color(240, 250, 255));
+    private static final Color[] FIRE = fade(new Color(255, 140, 0));
+    private static final Color[] SMOKE = fade(new Color(90, 40, 20));
+
+    private final IntConsumer clicks; // gets the cell of every click
+    private final PerformanceHud hud; // measures frames, and is drawn over them when shown
+    private volatile BoardSnapshot snapshot; // the latest picture of the game
+    private volatile boolean running;
+    private volatile boolean resized = true;
+    private volatile FrameClock clock;
+    private Thread thread;
+
+    // used by the render thread only
+    private BoardRenderer renderer;
+    private GraphicsConfiguration screen;
+    private double scale = 1;
+    private int cellSize;
+    private BasicStroke stroke;
+    private byte[] marks = new byte[0];
+    private long drawn = -1; // version of the last snapshot drawn
+    private long hudDrawn = -1; // HUD sample last drawn, or -1 if it was hidden
+    private final int[] effectCell = new int[MAX_EFFECTS];
+    private final int[] effectKind = new int[MAX_EFFECTS];
+    private final long[] effectStart = new long[MAX_EFFECTS];
+    private int effects;
+
+    /**
+     * Creates a view that isn't drawing yet; it starts drawing when it is added to a window
+     * that is showing, and stops when it is removed.
+     *
+     * @param clicks gets the cell, numbered row * columns + col, of every click on the board
+     * @param hud the HUD to record frames in
+     */
+    ActiveBoardView(IntConsumer clicks, PerformanceHud hud) {
+        this.clicks = clicks;
+        this.hud = hud;
+        setIgnoreRepaint(true);
+        setFocusable(false); // leaves the keys to the board
+        setBackground(BattleshipBoard.WATER);
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                hud.clicked(e);
+                clicked(e.getX(), e.getY());
+            }
+        });
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                resized = true;
+                LockSupport.unpark(thread);
+            }
+        });
+    }
+
+    private static Color[] fade(Color color) {
+        Color[] colors = new Color[ALPHAS];
+        for (int a = 0; a < ALPHAS; a++) {
+            colors[a] = new Color(color.getRed(), color.getGreen(), color.getBlue(),
+                    (a + 1) * 255 / ALPHAS);
+        }
+        return colors;
+    }
+
+    private void clicked(int x, int y) {
+        BoardSnapshot s = snapshot;
+        if (s == null) {
+            return;
+        }
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        double sc = gc == null ? 1 : gc.getDefaultTransform().getScaleX();
+        int size = BoardRenderer.fitCellSize(getWidth(), getHeight(), sc, s.getColumns(),
+                s.getRows());
+        int col = Math.floorDiv((int) (x * sc), size);
+        int row = Math.floorDiv((int) (y * sc), size);
+        if (col >= 0 && row >= 0 && col < s.getColumns() && row < s.getRows()) {
+            clicks.accept(row * s.getColumns() + col);
+        }
+    }
+
+    /**
+     * Hands the render thread a new picture of the game. Never blocks.
+     */
+    void publish(BoardSnapshot s) {
+        snapshot = s;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Returns the clock of the render loop, with its frame counters, or null if the view has
+     * never drawn.
+     */
+    FrameClock getClock() {
+        return clock;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        createBufferStrategy(2);
+        running = true;
+        thread = new Thread(this, "board-render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1000); // the thread must stop drawing before the buffers go away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        super.removeNotify();
+    }
+
+    /**
+     * The render loop.
+     */
+    @Override
+    public void run() {
+        FrameClock c = new FrameClock(1_000_000_000L / TICKS_PER_SECOND,
+                1_000_000_000L / FRAMES_PER_SECOND, MAX_UPDATES, System.nanoTime());
+        clock = c;
+        hud.watch(Thread.currentThread());
+        while (running) {
+            long start = System.nanoTime();
+            c.ticksDue(start);
+            BoardSnapshot s = snapshot;
+            boolean changed = s != null && s.getVersion() != drawn;
+            if (changed && s.getShot() >= 0 && s.getResult() != null) {
+                startEffect(s, c.getTicks());
+            }
+            expireEffects(c.getTicks());
+            long sample = hud.isShown() ? hud.getSamples() : -1;
+            BufferStrategy strategy = getBufferStrategy();
+            if (s != null && strategy != null && (changed || effects > 0 || resized
+                    || sample != hudDrawn || strategy.contentsLost())) {
+                resized = false;
+                drawn = s.getVersion();
+                hudDrawn = sample;
+                draw(strategy, s, c.getTicks());
+                long end = System.nanoTime();
+                c.frameDone(start, end);
+                hud.painted(start, end);
+            } else {
+                c.frameSkipped(start);
+            }
+            long wait = c.getNextFrame() - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+        hud.unwatch(Thread.currentThread());
+    }
+
+    private void startEffect(BoardSnapshot s, long tick) {
+        int kind = switch (s.getResult()) {
+            case MISS -> SPLASH;
+            case HIT -> BLAST;
+            case SINK -> BIG_BLAST;
+            default -> -1;
+        };
+        if (kind < 0) {
+            return;
+        }
+        if (effects == MAX_EFFECTS) {
+            removeEffect(0); // the oldest
+        }
+        effectCell[effects] = s.getShot();
+        effectKind[effects] = kind;
+        effectStart[effects] = tick;
+        effects++;
+    }
+
+    private void expireEffects(long tick) {
+        for (int i = effects - 1; i >= 0; i--) {
+            if (tick - effectStart[i] >= DURATION[effectKind[i]]) {
+                removeEffect(i);
+            }
+        }
+    }
+
+    private void removeEffect(int i) {
+        effects--;
+        System.arraycopy(effectCell, i + 1, effectCell, i, effects - i);
+        System.arraycopy(effectKind, i + 1, effectKind, i, effects - i);
+        System.arraycopy(effectStart, i + 1, effectStart, i, effects - i);
+    }
+
+    /**
+     * Works out the cell size for the view's size and screen, and makes a renderer for it if
+     * it changed.
+     */
+    private void layOut(BoardSnapshot s) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc != screen) {
+            screen = gc;
+            scale = gc == null ? 1 : gc.getDefaultTransform().getScaleX();
+        }
+        int size = BoardRenderer.fitCellSize(getWidth(), getHeight(), scale, s.getColumns(),
+                s.getRows());
+        int cells = s.getColumns() * s.getRows();
+        if (renderer == null || size != cellSize || marks.length != cells) {
+            if (renderer != null) {
+                renderer.flush();
+            }
+            cellSize = size;
+            renderer = new BoardRenderer(size, s.getColumns(), s.getRows());
+            stroke = new BasicStroke(Math.max(size / 12f, 1));
+            marks = new byte[cells];
+        }
+    }
+
+    private void draw(BufferStrategy strategy, BoardSnapshot s, long tick) {
+        layOut(s);
+        s.copyMarks(marks);
+        do {
+            do {
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    if (scale != 1) {
+                        g.scale(1 / scale, 1 / scale); // draw in device pixels
+                    }
+                    g.setColor(BattleshipBoard.WATER);
+                    g.fillRect(0, 0, (int) Math.ceil(getWidth() * scale),
+                            (int) Math.ceil(getHeight() * scale));
+                    renderer.paint(g, this, marks, s.getHint());
+                    drawEffects(g, s.getColumns(), tick);
+                    if (hud.isShown()) {
+                        if (scale != 1) {
+                            g.scale(scale, scale); // the HUD is in panel pixels
+                        }
+                        hud.draw(g, BattleshipBoard.HUD_MARGIN, BattleshipBoard.HUD_MARGIN);
+                    }
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    /**
+     * Draws every effect as it is at the given tick. An effect grows and fades out over its
+     * duration.
+     */
+    private void drawEffects(Graphics2D g, int columns, long tick) {
+        g.setStroke(stroke);
+        for (int i = 0; i < effects; i++) {
+            int kind = effectKind[i];
+            float t = (float) (tick - effectStart[i]) / DURATION[kind]; // 0 to 1
+            int alpha = Math.min((int) ((1 - t) * ALPHAS), ALPHAS - 1);
+            int cx = (effectCell[i] % columns) * cellSize + cellSize / 2;
+            int cy = (effectCell[i] / columns) * cellSize + cellSize / 2;
+            if (kind == SPLASH) {
+                ring(g, SPRAY[alpha], cx, cy, cellSize * (0.1f + 0.4f * t));
+                ring(g, SPRAY[alpha], cx, cy, cellSize * (0.3f * t));
+            } else {
+                float reach = kind == BIG_BLAST ? 1.5f : 0.5f; // radius at the end, in cells
+                disc(g, SMOKE[alpha], cx, cy, cellSize * reach * t);
+                disc(g, FIRE[alpha], cx, cy, cellSize * reach * t * (1 - t) * 2);
+                if (kind == BIG_BLAST) {
+                    ring(g, FIRE[alpha], cx, cy, cellSize * (0.5f + 1.5f * t));
+                }
+            }
+        }
+    }
+
+    private static void ring(Graphics2D g, Color color, int cx, int cy, float radius) {
+        int r = Math.round(radius);
+        g.setColor(color);
+        g.drawOval(cx - r, cy - r, 2 * r, 2 * r);
+    }
+
+    private static void disc(Graphics2D g, Color color, int cx, int cy, float radius) {
+        int r = Math.round(radius);
+        g.setColor(color);
+        g.fillOval(cx - r, cy - r, 2 * r, 2 * r);
+    }
+}
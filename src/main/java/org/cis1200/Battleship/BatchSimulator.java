@@ -0,0 +1,302 @@
+package org.cis1200.Battleship;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * This class plays a shooting Strategy against many random boards, on every
+ * core at once, and reports how well it does: how often it sinks the fleet
+ * within the game's shot limit, and how many shots it needs to sink it.
+ *
+ * The games are split into chunks of CHUNK games, and the chunks are run as
+ * a parallel stream on the common ForkJoin pool. Each chunk has its own
+ * random number generator, board and Strategy, which it reuses for
+ * every game it plays, so the games share nothing and allocate next to
+ * nothing. A chunk's generator is derived from the run's seed and the
+ * chunk's number, so a run gives the same results however many cores it
+ * runs on. Boards are made by BoardModel.create, so huge boards are
+ * SparseBattleships.
+ *
+ * Games are played with the real Battleship rules, except that the shot
+ * limit is lifted so that every game goes on until the fleet is sunk. That
+ * way the report has the whole distribution of shots needed; a game counts
+ * as won if the fleet was sunk within the shots of its GameConfig,
+ * SHOT_LIMIT in the classic game.
+ *
+ * Run it from the command line as
+ *
+ * <pre>
+ *   java org.cis1200.Battleship.BatchSimulator [games] [tiles] [strategy ...]
+ * </pre>
+ *
+ * to compare the strategies in STRATEGIES, on the classic board or, given a
+ * number of tiles, on GameConfig.tiled(tiles). With no strategies named, it
+ * plays every one that can play the board (see Strategy.canPlay); a named
+ * strategy that can't is reported and skipped. Every strategy plays the same
+ * boards, so when random fire is played first, the difference in mean
+ * shots is the number of shots a strategy saves over it.
+ */
+public class BatchSimulator {
+
+    public static final int SHOT_LIMIT = 65;
+    public static final int CHUNK = 4096;
+
+    /** The strategies that can be named on the command line. */
+    public static final Map<String, Supplier<Strategy>> STRATEGIES = new LinkedHashMap<>();
+
+    static {
+        STRATEGIES.put("random", RandomStrategy::new);
+        STRATEGIES.put("hunt-target", HuntTargetStrategy::new);
+        STRATEGIES.put("density", ProbabilityStrategy::new);
+    }
+
+    private BatchSimulator() {
+    }
+
+    /**
+     * The results of a run.
+     */
+    public static final class Report {
+        private final String name;
+        private final long[] shotsNeeded; // shotsNeeded[n] is the number of games that took n
+        private final int shotLimit;
+        private long games;
+        private long totalShots;
+        private long elapsedNanos;
+
+        private Report(String name, int cells, int shotLimit) {
+            this.name = name;
+            this.shotLimit = shotLimit;
+            shotsNeeded = new long[cells + 1];
+        }
+
+        private void add(int shots) {
+            shotsNeeded[shots]++;
+            games++;
+            totalShots += shots;
+        }
+
+        private Report merge(Report other) {
+            for (int i = 0; i < shotsNeeded.length; i++) {
+                shotsNeeded[i] += other.shotsNeeded[i];
+            }
+            games += other.games;
+            totalShots += other.totalShots;
+            return this;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        /** Returns the number of games won, i.e. with the fleet sunk within the shot limit. */
+        public long getWins() {
+            long wins = 0;
+            for (int i = 0; i <= shotLimit && i < shotsNeeded.length; i++) {
+                wins += shotsNeeded[i];
+            }
+            return wins;
+        }
+
+        public double getWinRate() {
+            return games == 0 ? 0 : (double) getWins() / games;
+        }
+
+        /** Returns the mean number of shots needed to sink the fleet. */
+        public double getMeanShots() {
+            return games == 0 ? 0 : (double) totalShots / games;
+        }
+
+        /**
+         * Returns the least number of shots within which the given fraction of games sank the
+         * fleet.
+         *
+         * @param p fraction of games, between 0 and 1
+         */
+        public int getPercentileShots(double p) {
+            long rank = (long) Math.ceil(p * games);
+            long seen = 0;
+            for (int i = 0; i < shotsNeeded.length; i++) {
+                seen += shotsNeeded[i];
+                if (seen >= Math.max(rank, 1)) {
+                    return i;
+                }
+            }
+            return shotsNeeded.length - 1;
+        }
+
+        /** Returns the number of games that took exactly the given number of shots. */
+        public long getGamesTaking(int shots) {
+            return shotsNeeded[shots];
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getGamesPerSecond() {
+            return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-12s %,12d games  win rate %6.2f%%  shots mean %6.2f"
+                    + "  p50 %3d  p90 %3d  p99 %3d  max %3d  %,12.0f games/s",
+                    name, games, 100 * getWinRate(), getMeanShots(),
+                    getPercentileShots(0.5), getPercentileShots(0.9),
+                    getPercentileShots(0.99), getPercentileShots(1), getGamesPerSecond());
+        }
+    }
+
+    /**
+     * Plays a strategy on many random boards across all cores.
+     *
+     * @param name name of the strategy, for the report
+     * @param strategy makes a new instance of the strategy for each chunk of games
+     * @param games number of games to play
+     * @param seed seed from which every board and random choice is derived
+     * @return the results
+     */
+    public static Report run(String name, Supplier<Strategy> strategy, long games, long seed) {
+        return run(GameConfig.STANDARD, name, strategy, games, seed);
+    }
+
+    /**
+     * Plays a strategy on many random boards of a variant of the game across all cores. A game
+     * counts as won if the fleet was sunk within the variant's shots.
+     *
+     * @param config the board size, fleet and shots of the games
+     * @param name name of the strategy, for the report
+     * @param strategy makes a new instance of the strategy for each chunk of games
+     * @param games number of games to play
+     * @param seed seed from which every board and random choice is derived
+     * @return the results
+     * @throws IllegalArgumentException if the strategy can't play games of config
+     */
+    public static Report run(GameConfig config, String name, Supplier<Strategy> strategy,
+            long games, long seed) {
+        if (!strategy.get().canPlay(config)) {
+            throw new IllegalArgumentException(name + " can't play games of " + config);
+        }
+        int cells = config.getCells();
+        long chunks = (games + CHUNK - 1) / CHUNK;
+        long start = System.nanoTime();
+        final int n = cells;
+        Report report = LongStream.range(0, chunks).parallel()
+                .mapToObj(c -> runChunk(config, name, strategy.get(),
+                        Math.min(CHUNK, games - c * CHUNK), seed, c))
+                .reduce(Report::merge)
+                .orElseGet(() -> new Report(name, n, config.getShots()));
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    /**
+     * Plays one chunk of games.
+     */
+    private static Report runChunk(GameConfig config, String name, Strategy strategy,
+            long games, long seed, long chunk) {
+        SplittableRandom random = new SplittableRandom(seed ^ (chunk * 0x9E3779B97F4A7C15L));
+        BoardModel board = BoardModel.create(config, random.split());
+        Report report = new Report(name, config.getCells(), config.getShots());
+        for (long g = 0; g < games; g++) {
+            board.reset();
+            report.add(play(board, strategy, random));
+        }
+        return report;
+    }
+
+    /**
+     * Plays a strategy on a board until the fleet is sunk.
+     *
+     * @return the number of shots it took
+     * @throws IllegalStateException if the strategy keeps shooting cells that were shot
+     */
+    static int play(BoardModel board, Strategy strategy, SplittableRandom random) {
+        int width = board.getWidth();
+        int cells = width * board.getHeight();
+        board.setNumShots(cells);
+        strategy.newGame(board, random);
+        int shots = 0;
+        int wasted = 0;
+        while (!board.didWin()) {
+            int cell = strategy.nextShot();
+            int col = cell % width;
+            int row = cell / width;
+            int sunk = board.getSunkenShips();
+            int left = board.getNumShots();
+            board.takeShot(col, row);
+            GameEngine.ShotResult result;
+            if (board.getNumShots() == left) {
+                result = GameEngine.ShotResult.IGNORED;
+                if (++wasted > cells) {
+                    throw new IllegalStateException("strategy keeps shooting cells that were "
+                            + "already shot");
+                }
+            } else {
+                if (!board.isHit(cell)) {
+                    result = GameEngine.ShotResult.MISS;
+                } else if (board.getSunkenShips() > sunk) {
+                    result = GameEngine.ShotResult.SINK;
+                } else {
+                    result = GameEngine.ShotResult.HIT;
+                }
+                shots++;
+            }
+            strategy.shotTaken(cell, result);
+        }
+        return shots;
+    }
+
+    /**
+     * Compares strategies from the command line.
+     *
+     * @param args the number of games, optionally the number of 10x10 tiles along each side of
+     *            the board, then the names of the strategies to play (all of them if none are
+     *            named)
+     */
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0].replace("_", "")) : 1_000_000;
+        int first = 1;
+        GameConfig config = GameConfig.STANDARD;
+        if (args.length > 1 && args[1].matches("\\d+")) {
+            config = GameConfig.tiled(Integer.parseInt(args[1]));
+            first = 2;
+        }
+        boolean named = args.length > first;
+        String[] names = named
+                ? java.util.Arrays.copyOfRange(args, first, args.length)
+                : STRATEGIES.keySet().toArray(new String[0]);
+        System.out.println(Runtime.getRuntime().availableProcessors() + " cores, "
+                + games + " games per strategy, " + config);
+        Report baseline = null; // random fire, if it was played first
+        for (String name : names) {
+            Supplier<Strategy> strategy = STRATEGIES.get(name);
+            if (strategy == null) {
+                System.out.println("no strategy named " + name + "; try one of "
+                        + STRATEGIES.keySet());
+                continue;
+            }
+            if (!strategy.get().canPlay(config)) {
+                System.out.println((named ? "" : "skipping ") + name + ": it can't play "
+                        + "games of " + config + (named ? "; try it without tiles" : ""));
+                continue;
+            }
+            Report report = run(config, name, strategy, games, 1L);
+            System.out.println(report);
+            if (baseline == null && name.equals("random")) {
+                baseline = report;
+            } else if (baseline != null) {
+                System.out.printf("%-12s saves %.2f shots a game over random fire%n", name,
+                        baseline.getMeanShots() - report.getMeanShots());
+            }
+        }
+    }
+}
@@ -1,21 +1,39 @@
 package org.cis1200.Battleship;
 
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * This class is the model for a 1-player Battleship game. This model
- * is similar to Game Pigeon's model for Battleship. It holds 10 ships,
- * including 4 submarines, 3 cruisers, 2 battleships, and 1 carrier.
- * The submarine occupies one space, a cruiser occupies two, a
- * battleship occupies three, and a carrier occupies four. All the
+ * is similar to Game Pigeon's model for Battleship. By default it holds 10
+ * ships on a 10x10 board, including 4 submarines, 3 cruisers, 2
+ * battleships, and 1 carrier. The submarine occupies one space, a cruiser
+ * occupies two, a battleship occupies three, and a carrier occupies four.
+ * A GameConfig can give the board another width and height, and the game
+ * another fleet and number of shots. All the
  * positions of the ships are fully randomized during each reset of
  * the board, and each type of ship is given an equal probability of
  * having a vertical orientation or a horizontal orientation. The
- * contents of the game are stored in a 2d array of strings, where "_"
- * represents water, "." represents a border around a ship, "x" represent
- * the border of a destroyed ship, "1" represents a submarine, "H2" and
- * "V2" represent a cruiser, "H3" and "V3" represent a battleship, "H4"
- * and "V4" represent a carrier. No ship can overlap another ship or a
- * border surrounding a ship.
+ * contents of the game are stored in a flat array of byte codes, one
+ * per cell, indexed by row * width + col. The codes map onto the
+ * strings returned by getCell, where "_" represents water, "."
+ * represents a border around a ship, "x" represent the border of a
+ * destroyed ship, "1" represents a submarine, "H2" and "V2" represent
+ * a cruiser, "H3" and "V3" represent a battleship, "H4" and "V4"
+ * represent a carrier. No ship can overlap another ship or a border
+ * surrounding a ship.
+ *
+ * Every board is generated from a 64-bit seed, so a game can be replayed
+ * exactly from getSeed(). The seeds of successive boards come from a
+ * RandomGenerator owned by the game, which can be supplied by the caller so
+ * that each thread generating boards has a generator of its own.
+ *
+ * Besides the cells, the model keeps a table of its ships (first cell,
+ * length, orientation and cells not yet hit) and, for every cell, the ship
+ * occupying it, and the number of ships of each length still afloat. A hit
+ * looks its ship up directly, so finding out whether the ship sank doesn't
+ * depend on the shape or size of the ship, and neither shots nor the check
+ * for a win ever scan the board.
  *
  * The player is given a limited amount of shots. If all ships are
  * destroyed before running out of shots, the player wins the game.
@@ -23,21 +41,116 @@ package org.cis1200.Battleship;
  * the player loses.
  *
  */
-public class Battleship {
+public class Battleship implements BoardModel {
+
+    // Cell codes. A ship code carries the SHIP flag, the ship's length in
+    // the low nibble and the VERTICAL flag; a hit sets the HIT flag on top
+    // so the ship's kind is never lost.
+    static final byte WATER = 0;
+    static final byte BORDER = 1;
+    static final byte MISS = 2;
+    static final byte SUNK_BORDER = 3;
+    static final byte SHIP = 0x10;
+    static final byte VERTICAL = 0x20;
+    static final byte HIT = 0x40;
+    static final byte LENGTH_MASK = 0x0F;
+
+    private static final long COPY_SEED = 0x9E3779B97F4A7C15L; // sets copies' generators apart
 
-    private String[][] board;
-    private int size;
+    // getCell() strings for every code, built once
+    private static final String[] NAMES = new String[128];
+
+    static {
+        for (int code = 0; code < NAMES.length; code++) {
+            if ((code & SHIP) == 0) {
+                NAMES[code] = switch (code) {
+                    case BORDER -> ".";
+                    case MISS -> "O";
+                    case SUNK_BORDER -> "x";
+                    default -> "_";
+                };
+            } else if ((code & HIT) != 0) {
+                NAMES[code] = "X";
+            } else if ((code & LENGTH_MASK) == 1) {
+                NAMES[code] = "1";
+            } else {
+                NAMES[code] = ((code & VERTICAL) != 0 ? "V" : "H") + (code & LENGTH_MASK);
+            }
+        }
+    }
+
+    private byte[] cells;
+    private GameConfig config; // board size, fleet and shots of every new board
+    private int width;
+    private int height;
     private int numShots; // player only has limited amount of shots
     private int sunkenShips; // keeps track of the number of ships that have been sunk
-    private int countSubs; // board should start off with 4 submarines
-    private int countCruisers; // board should start off with 3 cruisers
-    private int countBattleships; // board should start off with 2 battleships
-    private int countCarriers; // board should start off with 1 carrier
+    private int[] afloat = new int[LENGTH_MASK + 1]; // ships afloat, by length
+    private int shipsAfloat;
+    private ShipPlacer placer; // created on first use, then reused by every reset
+
+    // ship table: ship i starts at cell shipStart[i] and has shipLeft[i] cells not yet hit
+    private int shipCount;
+    private int[] shipStart = new int[ShipPlacer.FLEET.length];
+    private int[] shipLength = new int[ShipPlacer.FLEET.length];
+    private boolean[] shipVertical = new boolean[ShipPlacer.FLEET.length];
+    private int[] shipLeft = new int[ShipPlacer.FLEET.length];
+    private int[] shipAt; // id of the ship on each cell, or -1 for none
+
+    GameHistory recorder; // told about every cell a shot changes, while set
+    private RandomGenerator rng; // source of the seed for each new board
+    private long seed; // seed the current board was generated from
 
     /**
      * Constructor sets up game state.
      */
     public Battleship() {
+        this(GameConfig.STANDARD, new SplittableRandom());
+    }
+
+    /**
+     * Constructor sets up a game whose board is generated from the given seed. Later boards,
+     * after a reset, are generated from seeds that are also determined by it.
+     *
+     * @param seed seed of the first board
+     */
+    public Battleship(long seed) {
+        this(GameConfig.STANDARD, seed);
+    }
+
+    /**
+     * Constructor sets up a game of the given variant whose board is generated from the given
+     * seed, like Battleship(long).
+     *
+     * @param config the board size, fleet and shots of the game
+     * @param seed seed of the first board
+     */
+    public Battleship(GameConfig config, long seed) {
+        this.config = config;
+        this.rng = new SplittableRandom(seed);
+        reset(seed);
+    }
+
+    /**
+     * Constructor sets up a game that draws the seed of every board from rng. The generator is
+     * used only by this game and isn't shared with other threads.
+     *
+     * @param rng source of board seeds
+     */
+    public Battleship(RandomGenerator rng) {
+        this(GameConfig.STANDARD, rng);
+    }
+
+    /**
+     * Constructor sets up a game of the given variant that draws the seed of every board from
+     * rng, like Battleship(RandomGenerator).
+     *
+     * @param config the board size, fleet and shots of the game
+     * @param rng source of board seeds
+     */
+    public Battleship(GameConfig config, RandomGenerator rng) {
+        this.config = config;
+        this.rng = rng;
         reset();
     }
 
@@ -45,26 +158,132 @@ public class Battleship {
      * reset (re-)sets the game state to start a new game.
      */
     public void reset() {
-        size = 10;
-        board = new String[size][size];
-        numShots = 65;
-        sunkenShips = 0;
+        reset(rng.nextLong());
+    }
 
-        for (int r = 0; r < 10; r++) {
-            for (int c = 0; c < 10; c++) {
-                board[r][c] = "_"; // initialize all cells to water, denoted by "_"
-            }
+    /**
+     * reset (re-)sets the game state to start a new game whose board is generated from the
+     * given seed. Two games reset with the same seed have the same board.
+     *
+     * @param seed seed of the new board
+     */
+    public void reset(long seed) {
+        width = config.getWidth();
+        height = config.getHeight();
+        if (cells == null || cells.length != width * height) {
+            cells = new byte[width * height];
+            shipAt = new int[width * height];
         }
-        placeShipsRandomly(); // places ships in random positions on the board
+        numShots = config.getShots();
+        sunkenShips = 0;
+        this.seed = seed;
+        // places ships in random positions on the board
+        placeShipsRandomly(new SplittableRandom(seed));
     }
 
     /**
-     * Returns a copy of a Battleship object
+     * Returns a copy of a Battleship object. The copy draws the seeds of its next boards from a
+     * generator of its own, seeded from the board it copies, so the two can be reset on
+     * different threads, and making the copy leaves the original's next boards as they were,
+     * e.g. when GameHistory takes a checkpoint.
      */
     public Battleship(Battleship b) {
+        this.config = b.config;
+        this.width = b.width;
+        this.height = b.height;
+        this.cells = b.cells.clone();
         this.numShots = b.getNumShots();
         this.sunkenShips = b.getSunkenShips();
-        this.board = b.getCopyOfBoard();
+        this.afloat = b.afloat.clone();
+        this.shipsAfloat = b.shipsAfloat;
+        this.shipCount = b.shipCount;
+        this.shipStart = b.shipStart.clone();
+        this.shipLength = b.shipLength.clone();
+        this.shipVertical = b.shipVertical.clone();
+        this.shipLeft = b.shipLeft.clone();
+        this.shipAt = b.shipAt.clone();
+        this.rng = new SplittableRandom(b.seed ^ COPY_SEED);
+        this.seed = b.seed;
+    }
+
+    /**
+     * Makes this game an exact copy of another one, reusing this game's arrays where it can.
+     * Used to roll a game back to a checkpoint.
+     *
+     * @param b the game to copy
+     */
+    void restore(Battleship b) {
+        if (cells.length != b.cells.length || shipStart.length != b.shipStart.length) {
+            cells = b.cells.clone();
+            shipAt = b.shipAt.clone();
+            shipStart = b.shipStart.clone();
+            shipLength = b.shipLength.clone();
+            shipVertical = b.shipVertical.clone();
+            shipLeft = b.shipLeft.clone();
+        } else {
+            System.arraycopy(b.cells, 0, cells, 0, cells.length);
+            System.arraycopy(b.shipAt, 0, shipAt, 0, shipAt.length);
+            System.arraycopy(b.shipStart, 0, shipStart, 0, shipStart.length);
+            System.arraycopy(b.shipLength, 0, shipLength, 0, shipLength.length);
+            System.arraycopy(b.shipVertical, 0, shipVertical, 0, shipVertical.length);
+            System.arraycopy(b.shipLeft, 0, shipLeft, 0, shipLeft.length);
+        }
+        config = b.config;
+        width = b.width;
+        height = b.height;
+        numShots = b.numShots;
+        sunkenShips = b.sunkenShips;
+        System.arraycopy(b.afloat, 0, afloat, 0, afloat.length);
+        shipsAfloat = b.shipsAfloat;
+        shipCount = b.shipCount;
+        seed = b.seed;
+    }
+
+    /**
+     * Replaces the whole game with one given as raw cell codes, e.g. from a save file.
+     *
+     * @param width number of columns of the board
+     * @param height number of rows of the board
+     * @param codes cell codes, row by row; see isValidCode
+     * @param numShots shots remaining
+     * @param sunkenShips ships sunk so far
+     * @param seed seed the board was generated from
+     */
+    void load(int width, int height, byte[] codes, int numShots, int sunkenShips, long seed) {
+        this.width = width;
+        this.height = height;
+        this.cells = codes.clone();
+        this.numShots = numShots;
+        this.sunkenShips = sunkenShips;
+        this.seed = seed;
+        indexShips();
+    }
+
+    /**
+     * Returns whether a byte is one of the cell codes a board can hold.
+     */
+    static boolean isValidCode(byte code) {
+        if ((code & SHIP) == 0) {
+            return code >= WATER && code <= SUNK_BORDER;
+        }
+        int length = code & LENGTH_MASK;
+        return (code & ~(SHIP | VERTICAL | HIT | LENGTH_MASK)) == 0 && length > 0
+                && (length > 1 || (code & VERTICAL) == 0);
+    }
+
+    /**
+     * Creates a game from raw cell codes, such as ones built by BitBoard. The ship counts are
+     * worked out from the ships on the board that are still afloat.
+     */
+    Battleship(int size, byte[] codes, int numShots, int sunkenShips) {
+        this.config = GameConfig.STANDARD;
+        this.width = size;
+        this.height = size;
+        this.cells = codes;
+        this.numShots = numShots;
+        this.sunkenShips = sunkenShips;
+        this.rng = new SplittableRandom();
+        indexShips();
     }
 
     /**
@@ -73,284 +292,125 @@ public class Battleship {
      * @return a 2D array of Strings.
      */
     public String[][] getCopyOfBoard() {
-        String[][] board = new String[size][size];
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-                board[r][c] = this.board[r][c];
+        String[][] board = new String[height][width];
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                board[r][c] = NAMES[cells[r * width + c]];
             }
         }
         return board;
     }
 
     /**
-     * Randomizes the positions of the ships on the board. The placeShipsRandomly() method places
-     * each type of ship separately, making sure that none of ships overlap with other ships or
-     * the borders of other ships. This ensures that there are minimal biases in the patterns of the
-     * ships' position placements. It also makes the game more interesting and less predictable by
-     * creating unique placements whenever the board is reset.
+     * Randomizes the positions of the ships on the board. The placeShipsRandomly() method asks a
+     * ShipPlacer for a position for every ship, largest first. The placer only ever picks among
+     * the positions where a ship doesn't overlap or touch the ships placed before it, so a
+     * board is always generated in bounded time. This ensures that there are minimal biases in
+     * the patterns of the ships' position placements. It also makes the game more interesting
+     * and less predictable by creating unique placements whenever the board is reset.
      *
      * @return n/a
      */
     public void placeShipsRandomly() {
-        // place submarines
-        countSubs = 0; // board should have 4 submarines
-        while (countSubs < 4) {
-            boolean subNotInBorder = true;
-            int row = (int) (Math.random() * 10); // generates a number from 0 to 9
-            int col = (int) (Math.random() * 10);
-            // checks that the randomly-generated row and column are in bounds
-            if ((row < board.length) && (row >= 0) && (col < board.length) &&
-                    (col >= 0)) {
-                // verify that the sub and its border does not overlap any ship
-                // or any borders of other ships
-                for (int i = Math.max(row - 1, 0); i <
-                        Math.min(row + 1, board.length - 1); i++) {
-                    for (int j = Math.max(col - 1, 0); j <
-                            Math.min(col + 1, board.length - 1); j++) {
-                        if (board[i][j].equals(".") || (board[i][j].equals("1")) ||
-                                (board[i][j].equals("H2")) || (board[i][j].equals("V2")) ||
-                                (board[i][j].equals("H3")) || (board[i][j].equals("V3")) ||
-                                (board[i][j].equals("H4")) || (board[i][j].equals("V4"))) {
-                            subNotInBorder = false;
-                        }
-                    }
-                }
-                if (subNotInBorder) {
-                    // creates a border around each ship
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 1, board.length - 1); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 1, board.length - 1); j++) {
-                            board[i][j] = ".";
-                        }
-                    }
-                    board[row][col] = "1"; // place submarine in the center of the border
-                    countSubs++;
-                }
-            }
-        }
+        seed = rng.nextLong();
+        placeShipsRandomly(new SplittableRandom(seed));
+    }
 
-        // place cruisers
-        countCruisers = 0; // board should have 3 cruisers
-        while (countCruisers < 3) {
-            boolean cruiserNotInBorder = true;
-            int row = (int) (Math.random() * 10);
-            int col = (int) (Math.random() * 10);
-
-            // simulates a coin flip - a number less than 50 is analogous to
-            // heads, which indicates that the ship is oriented horizontally;
-            // otherwise, it is oriented vertically.
-            if (((int) (Math.random() * 100)) < 50) {
-                if ((row < board.length) && (row >= 0) && (col + 1 < board.length) &&
-                        (col >= 0)) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 1, board.length - 1); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 2, board.length - 1); j++) {
-                            if (board[i][j].equals(".") || (board[i][j].equals("1")) ||
-                                    (board[i][j].equals("H2")) || (board[i][j].equals("V2")) ||
-                                    (board[i][j].equals("H3")) || (board[i][j].equals("V3")) ||
-                                    (board[i][j].equals("H4")) || (board[i][j].equals("V4"))) {
-                                cruiserNotInBorder = false;
-                            }
-                        }
-                    }
-                    if (cruiserNotInBorder) {
-                        for (int i = Math.max(row - 1, 0); i <
-                                Math.min(row + 1, board.length - 1); i++) {
-                            for (int j = Math.max(col - 1, 0); j <
-                                    Math.min(col + 2, board.length - 1); j++) {
-                                board[i][j] = ".";
-                            }
-                        }
-                        board[row][col] = "H2";
-                        board[row][col + 1] = "H2";
-                        countCruisers++;
-                    }
-                }
-            } else { // vertical orientation
-                if ((row < board.length) && (row - 1 >= 0) && (col < board.length)
-                        && (col >= 0)) {
-                    for (int i = Math.max(row - 2, 0); i <
-                            Math.min(row + 1, board.length - 1); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 1, board.length - 1); j++) {
-                            if (board[i][j].equals(".") || (board[i][j].equals("1")) ||
-                                    (board[i][j].equals("H2")) || (board[i][j].equals("V2")) ||
-                                    (board[i][j].equals("H3")) || (board[i][j].equals("V3")) ||
-                                    (board[i][j].equals("H4")) || (board[i][j].equals("V4"))) {
-                                cruiserNotInBorder = false;
-                            }
-                        }
-                    }
-                    if (cruiserNotInBorder) {
-                        for (int i = Math.max(row - 2, 0); i <
-                                Math.min(row + 1, board.length - 1); i++) {
-                            for (int j = Math.max(col - 1, 0); j <
-                                    Math.min(col + 1, board.length - 1); j++) {
-                                board[i][j] = ".";
-                            }
-                        }
-                        board[row][col] = "V2";
-                        board[row - 1][col] = "V2";
-                        countCruisers++;
-                    }
-                }
-            }
+    /**
+     * Randomizes the positions of the ships on the board, drawing every random choice from the
+     * given generator. See placeShipsRandomly().
+     *
+     * @param random source of randomness for this board
+     */
+    public void placeShipsRandomly(RandomGenerator random) {
+        if (placer == null) {
+            placer = new ShipPlacer(config);
         }
+        java.util.Arrays.fill(cells, WATER);
+        clearShips();
+        for (int p : placer.placeFleet(random)) {
+            int length = ShipPlacer.length(p);
+            boolean vertical = ShipPlacer.isVertical(p) && length > 1;
+            int top = ShipPlacer.cell(p) / width;
+            int left = ShipPlacer.cell(p) % width;
+            int bottom = vertical ? top + length - 1 : top;
+            int right = vertical ? left : left + length - 1;
 
-        // place battleships
-        countBattleships = 0; // board should have 2 battleships
-        while (countBattleships < 2) {
-            boolean battleshipNotInBorder = true;
-            int row = (int) (Math.random() * 10);
-            int col = (int) (Math.random() * 10);
-
-            // horizontal orientation
-            if (((int) (Math.random() * 100)) < 50) {
-                if ((row < board.length) && (row >= 0) && (col + 1 < board.length)
-                        && (col - 1 >= 0)) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 1, board.length - 1); i++) {
-                        for (int j = Math.max(col - 2, 0); j <
-                                Math.min(col + 2, board.length - 1); j++) {
-                            if (board[i][j].equals(".") || (board[i][j].equals("1")) ||
-                                    (board[i][j].equals("H2")) || (board[i][j].equals("V2")) ||
-                                    (board[i][j].equals("H3")) || (board[i][j].equals("V3")) ||
-                                    (board[i][j].equals("H4")) || (board[i][j].equals("V4"))) {
-                                battleshipNotInBorder = false;
-                            }
-                        }
-                    }
-                    if (battleshipNotInBorder) {
-                        for (int i = Math.max(row - 1, 0); i <
-                                Math.min(row + 1, board.length - 1); i++) {
-                            for (int j = Math.max(col - 2, 0); j <
-                                    Math.min(col + 2, board.length - 1); j++) {
-                                board[i][j] = ".";
-                            }
-                        }
-                        board[row][col] = "H3";
-                        board[row][col + 1] = "H3";
-                        board[row][col - 1] = "H3";
-                        countBattleships++;
+            // creates a border around the ship
+            for (int i = Math.max(top - 1, 0); i <= Math.min(bottom + 1, height - 1); i++) {
+                for (int j = Math.max(left - 1, 0); j <= Math.min(right + 1, width - 1); j++) {
+                    if (cells[i * width + j] == WATER) {
+                        cells[i * width + j] = BORDER;
                     }
                 }
-            } else { // vertical orientation
-                if ((row + 1 < board.length) && (row - 1 >= 0) && (col < board.length)
-                        && (col >= 0)) {
-                    for (int i = Math.max(row - 2, 0); i <
-                            Math.min(row + 2, board.length - 1); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 3, board.length - 1); j++) {
-                            if (board[i][j].equals(".") || (board[i][j].equals("1")) ||
-                                    (board[i][j].equals("H2")) || (board[i][j].equals("V2")) ||
-                                    (board[i][j].equals("H3")) || (board[i][j].equals("V3")) ||
-                                    (board[i][j].equals("H4")) || (board[i][j].equals("V4"))) {
-                                battleshipNotInBorder = false;
-                            }
-                        }
-                    }
-                    if (battleshipNotInBorder) {
-                        for (int i = Math.max(row - 2, 0); i <
-                                Math.min(row + 2, board.length - 1); i++) {
-                            for (int j = Math.max(col - 1, 0); j <
-                                    Math.min(col + 3, board.length - 1); j++) {
-                                board[i][j] = ".";
-                            }
-                        }
-                        board[row][col] = "V3";
-                        board[row - 1][col] = "V3";
-                        board[row + 1][col] = "V3";
-                        countBattleships++;
-                    }
+            }
+            byte code = (byte) (SHIP | (vertical ? VERTICAL : 0) | length);
+            for (int i = top; i <= bottom; i++) {
+                for (int j = left; j <= right; j++) {
+                    cells[i * width + j] = code;
                 }
             }
+            addShip(top * width + left, length, vertical, length);
         }
+    }
 
-        // place carriers
-        countCarriers = 0; // board should have 1 carrier
-        while (countCarriers < 1) {
-            boolean carrierNotInBorder = true;
-            int row = (int) (Math.random() * 10);
-            int col = (int) (Math.random() * 10);
-
-            // horizontal orientation
-            if (((int) (Math.random() * 100)) < 50) {
-                if ((row < board.length) && (row >= 0) && (col + 2 < board.length)
-                        && (col - 1 >= 0)) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 1, board.length - 1); i++) {
-                        for (int j = Math.max(col - 2, 0); j <
-                                Math.min(col + 3, board.length - 1); j++) {
-                            if (board[i][j].equals(".") || (board[i][j].equals("1")) ||
-                                    (board[i][j].equals("H2")) || (board[i][j].equals("V2")) ||
-                                    (board[i][j].equals("H3")) || (board[i][j].equals("V3")) ||
-                                    (board[i][j].equals("H4")) || (board[i][j].equals("V4"))) {
-                                carrierNotInBorder = false;
-                            }
-                        }
-                    }
-                    if (carrierNotInBorder) {
-                        for (int i = Math.max(row - 1, 0); i <
-                                Math.min(row + 1, board.length - 1); i++) {
-                            for (int j = Math.max(col - 2, 0); j <
-                                    Math.min(col + 3, board.length - 1); j++) {
-                                board[i][j] = ".";
-                            }
-                        }
-                        board[row][col - 1] = "H4";
-                        board[row][col] = "H4";
-                        board[row][col + 1] = "H4";
-                        board[row][col + 2] = "H4";
-                        countCarriers++;
-                    }
-                }
-            } else { // vertical orientation
-                if ((row + 1 < board.length) && (row - 2 >= 0) && (col < board.length)
-                        && (col >= 0)) {
-                    for (int i = Math.max(row - 3, 0); i <
-                            Math.min(row + 2, board.length - 1); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 1, board.length - 1); j++) {
-                            if (board[i][j].equals(".") || (board[i][j].equals("1")) ||
-                                    (board[i][j].equals("H2")) || (board[i][j].equals("V2")) ||
-                                    (board[i][j].equals("H3")) || (board[i][j].equals("V3")) ||
-                                    (board[i][j].equals("H4")) || (board[i][j].equals("V4"))) {
-                                carrierNotInBorder = false;
-                            }
-                        }
-                    }
-                    if (carrierNotInBorder) {
-                        for (int i = Math.max(row - 3, 0); i <
-                                Math.min(row + 2, board.length - 1); i++) {
-                            for (int j = Math.max(col - 1, 0); j <
-                                    Math.min(col + 1, board.length - 1); j++) {
-                                board[i][j] = ".";
-                            }
-                        }
-                        board[row - 2][col] = "V4";
-                        board[row - 1][col] = "V4";
-                        board[row][col] = "V4";
-                        board[row + 1][col] = "V4";
-                        countCarriers++;
-                    }
-                }
-            }
+    /**
+     * Empties the ship table.
+     */
+    private void clearShips() {
+        shipCount = 0;
+        java.util.Arrays.fill(shipAt, -1);
+        java.util.Arrays.fill(afloat, 0);
+        shipsAfloat = 0;
+    }
+
+    /**
+     * Adds a ship to the ship table and marks its cells as belonging to it. The cells must
+     * already hold the ship's code.
+     *
+     * @param start index of the ship's first cell
+     * @param length number of cells the ship occupies
+     * @param vertical whether the ship runs down from its first cell instead of right
+     * @param left number of the ship's cells that haven't been hit
+     */
+    private void addShip(int start, int length, boolean vertical, int left) {
+        if (shipCount == shipStart.length) {
+            int capacity = 2 * shipCount;
+            shipStart = java.util.Arrays.copyOf(shipStart, capacity);
+            shipLength = java.util.Arrays.copyOf(shipLength, capacity);
+            shipVertical = java.util.Arrays.copyOf(shipVertical, capacity);
+            shipLeft = java.util.Arrays.copyOf(shipLeft, capacity);
         }
-        if (countSubs + countCruisers + countBattleships + countCarriers != 10) {
-            placeShipsRandomly();
+        int id = shipCount++;
+        shipStart[id] = start;
+        shipLength[id] = length;
+        shipVertical[id] = vertical;
+        shipLeft[id] = left;
+        int step = vertical ? width : 1;
+        for (int k = 0; k < length; k++) {
+            shipAt[start + k * step] = id;
+        }
+        if (left > 0) {
+            changeShipCount(length, 1);
         }
     }
 
+    /**
+     * Adds delta to the number of ships of the given length that are afloat.
+     */
+    private void changeShipCount(int length, int delta) {
+        afloat[length] += delta;
+        shipsAfloat += delta;
+    }
+
     /**
      * Simulate a player taking a shot. Player is able to take a shot as long as the number of
-     * shots remaining is greater than 0. When a shot is taken, the method goes through various
-     * cases to determine if a ship was hit successfully or not. If a ship is successfully
-     * hit, then the corresponding cell's value is updated to "X". If a ship is sunken, then
-     * the sunken ship is enclosed by a border and the value of sunkenShips is incremented by 1.
-     * If a ship is not hit, then the corresponding cell is updated to an "O". For each shot,
-     * numShots is decremented by one.
+     * shots remaining is greater than 0. When a shot is taken, the method checks whether a ship
+     * was hit successfully or not. If a ship is successfully hit, then the corresponding cell's
+     * value is updated to "X". If every cell of that ship has now been hit, the sunken ship is
+     * enclosed by a border and the value of sunkenShips is incremented by 1. If a ship is not
+     * hit, then the corresponding cell is updated to an "O". For each shot, numShots is
+     * decremented by one.
      *
      * @param row is the row that the specified cell is located
      * @param col is the column that the specified cell is located
@@ -358,340 +418,93 @@ public class Battleship {
      */
     public void takeShot(int col, int row) {
         if (numShots > 0 && !didWin()) {
-            // checks if a submarine was successfully hit
-            if (board[row][col].equals("1")) {
-                // this encloses the ship with a border
-                for (int i = Math.max(row - 1, 0); i <
-                        Math.min(row + 2, board.length); i++) {
-                    for (int j = Math.max(col - 1, 0); j <
-                            Math.min(col + 2, board.length); j++) {
-                        if (!board[i][j].equals("X")) {
-                            board[i][j] = "x";
-                        }
-                    }
-                }
-                board[row][col] = "X";
+            int idx = row * width + col;
+            byte code = cells[idx];
+            if ((code & SHIP) != 0 && (code & HIT) == 0) {
+                setCode(idx, (byte) (code | HIT));
                 numShots--;
-                countSubs--;
-                sunkenShips++;
-            } else if (board[row][col].equals("H2")) { // checks if a horizontal cruiser is hit
-                if (board[row][Math.min(col + 1, board.length - 1)].equals("X")) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 2, board.length); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 3, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countCruisers--;
-                    numShots--;
-                } else if (board[row][Math.max(col - 1, 0)].equals("X")) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 2, board.length); i++) {
-                        for (int j = Math.max(col - 2, 0); j <
-                                Math.min(col + 2, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countCruisers--;
-                    numShots--;
-                } else {
-                    board[row][col] = "X";
-                    numShots--;
-                }
-            } else if (board[row][col].equals("V2")) { // checks if a vertical cruiser is hit
-                if (board[Math.max(row - 1, 0)][col].equals("X")) {
-                    for (int i = Math.max(row - 2, 0); i <
-                            Math.min(row + 2, board.length); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 2, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countCruisers--;
-                    numShots--;
-                } else if (board[Math.min(row + 1, board.length - 1)][col].equals("X")) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 3, board.length); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 2, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countCruisers--;
-                    numShots--;
-                } else {
-                    board[row][col] = "X";
-                    numShots--;
-                }
-            } else if (board[row][col].equals("H3")) { // checks if a horizontal battleship is hit
-                if (board[row][Math.min(col + 1, board.length - 1)].equals("X") &&
-                        board[row][Math.min(col + 2, board.length - 1)].equals("X")) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 2, board.length); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 4, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countBattleships--;
-                    numShots--;
-                } else if (board[row][Math.max(col - 1, 0)].equals("X") &&
-                        board[row][Math.min(col + 1, board.length - 1)].equals("X")) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 2, board.length); i++) {
-                        for (int j = Math.max(col - 2, 0); j <
-                                Math.min(col + 3, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countBattleships--;
-                    numShots--;
-                } else if (board[row][Math.max(col - 2, 0)].equals("X") &&
-                        board[row][Math.max(col - 1, 0)].equals("X")) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 2, board.length); i++) {
-                        for (int j = Math.max(col - 3, 0); j <
-                                Math.min(col + 2, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countBattleships--;
-                    numShots--;
-                } else {
-                    board[row][col] = "X";
-                    numShots--;
-                }
-            } else if (board[row][col].equals("V3")) { // checks if a vertical battleship is hit
-                if (board[Math.min(row + 1, board.length - 1)][col].equals("X") &&
-                        board[Math.min(row + 2, board.length - 1)][col].equals("X")) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 4, board.length); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 2, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countBattleships--;
-                    numShots--;
-                } else if (board[Math.max(row - 1, 0)][col].equals("X") &&
-                        board[Math.min(row + 1, board.length - 1)][col].equals("X")) {
-                    for (int i = Math.max(row - 2, 0); i <
-                            Math.min(row + 3, board.length); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 2, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countBattleships--;
-                    numShots--;
-                } else if (board[Math.max(row - 2, 0)][col].equals("X") &&
-                        board[Math.max(row - 1, 0)][col].equals("X")) {
-                    for (int i = Math.max(row - 3, 0); i <
-                            Math.min(row + 2, board.length); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 2, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countBattleships--;
-                    numShots--;
-                } else {
-                    board[row][col] = "X";
-                    numShots--;
-                }
-            } else if (board[row][col].equals("H4")) { // checks if a horizontal carrier is hit
-                if (board[row][Math.min(col + 1, board.length - 1)].equals("X") &&
-                        board[row][Math.min(col + 2, board.length - 1)].equals("X") &&
-                        board[row][Math.min(col + 3, board.length - 1)].equals("X")) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 2, board.length); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 5, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countCarriers--;
-                    numShots--;
-                } else if (board[row][Math.max(col - 1, 0)].equals("X") &&
-                        board[row][Math.min(col + 1, board.length - 1)].equals("X") &&
-                        board[row][Math.min(col + 2, board.length - 1)].equals("X")) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 2, board.length); i++) {
-                        for (int j = Math.max(col - 2, 0); j <
-                                Math.min(col + 4, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countCarriers--;
-                    numShots--;
-                } else if (board[row][Math.max(col - 2, 0)].equals("X") &&
-                        board[row][Math.max(col - 1, 0)].equals("X") &&
-                        board[row][Math.min(col + 1, board.length - 1)].equals("X")) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 2, board.length); i++) {
-                        for (int j = Math.max(col - 3, 0); j <
-                                Math.min(col + 3, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countCarriers--;
-                    numShots--;
-                } else if (board[row][Math.max(col - 3, 0)].equals("X") &&
-                        board[row][Math.max(col - 2, 0)].equals("X") &&
-                        board[row][Math.max(col - 1, 0)].equals("X")) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 2, board.length); i++) {
-                        for (int j = Math.max(col - 4, 0); j <
-                                Math.min(col + 2, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
+                int ship = shipAt[idx];
+                if (--shipLeft[ship] == 0) {
+                    int start = shipStart[ship];
+                    int end = start + (shipLength[ship] - 1) * (shipVertical[ship] ? width : 1);
+                    encloseSunkShip(start / width, start % width, end / width, end % width);
                     sunkenShips++;
-                    countCarriers--;
-                    numShots--;
-                } else {
-                    board[row][col] = "X";
-                    numShots--;
+                    changeShipCount(shipLength[ship], -1);
                 }
-            } else if (board[row][col].equals("V4")) { // checks if a vertical carrier is hit
-                if (board[Math.min(row + 1, board.length - 1)][col].equals("X") &&
-                        board[Math.min(row + 2, board.length - 1)][col].equals("X") &&
-                        board[Math.min(row + 3, board.length - 1)][col].equals("X")) {
-                    for (int i = Math.max(row - 1, 0); i <
-                            Math.min(row + 5, board.length); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 2, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countCarriers--;
-                    numShots--;
-                } else if (board[Math.max(row - 1, 0)][col].equals("X") &&
-                        board[Math.min(row + 1, board.length - 1)][col].equals("X") &&
-                        board[Math.min(row + 2, board.length - 1)][col].equals("X")) {
-                    for (int i = Math.max(row - 2, 0); i <
-                            Math.min(row + 4, board.length); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 2, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countCarriers--;
-                    numShots--;
-                } else if (board[Math.max(row - 2, 0)][col].equals("X") &&
-                        board[Math.max(row - 1, 0)][col].equals("X") &&
-                        board[Math.min(row + 1, board.length - 1)][col].equals("X")) {
-                    for (int i = Math.max(row - 3, 0); i <
-                            Math.min(row + 3, board.length); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 2, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countCarriers--;
-                    numShots--;
-                } else if (board[Math.max(row - 3, 0)][col].equals("X") &&
-                        board[Math.max(row - 2, 0)][col].equals("X") &&
-                        board[Math.max(row - 1, 0)][col].equals("X")) {
-                    for (int i = Math.max(row - 4, 0); i <
-                            Math.min(row + 2, board.length); i++) {
-                        for (int j = Math.max(col - 1, 0); j <
-                                Math.min(col + 2, board.length); j++) {
-                            if (!board[i][j].equals("X")) {
-                                board[i][j] = "x";
-                            }
-                        }
-                    }
-                    board[row][col] = "X";
-                    sunkenShips++;
-                    countCarriers--;
-                    numShots--;
-                } else {
-                    board[row][col] = "X";
-                    numShots--;
-                }
-            } else if (board[row][col].equals(".") || board[row][col].equals("_")) {
-                board[row][col] = "O";
+            } else if (code == BORDER || code == WATER) {
+                setCode(idx, MISS);
                 numShots--;
             }
         }
     }
 
+    /**
+     * Encloses a destroyed ship with a border of "x" cells. Cells holding a ship are left as
+     * they are.
+     */
+    private void encloseSunkShip(int top, int left, int bottom, int right) {
+        for (int i = Math.max(top - 1, 0); i < Math.min(bottom + 2, height); i++) {
+            for (int j = Math.max(left - 1, 0); j < Math.min(right + 2, width); j++) {
+                if ((cells[i * width + j] & SHIP) == 0) {
+                    setCode(i * width + j, SUNK_BORDER);
+                }
+            }
+        }
+    }
+
+    /**
+     * Changes a cell during a shot, letting the recorder know what the cell held before.
+     */
+    private void setCode(int idx, byte code) {
+        if (cells[idx] != code) {
+            if (recorder != null) {
+                recorder.record(idx, cells[idx]);
+            }
+            cells[idx] = code;
+        }
+    }
+
+    /**
+     * Undoes the shot at cell idx, given the changes it made to the board as logged by a
+     * GameHistory. The shot must be the last one taken that hasn't been undone yet.
+     *
+     * @param idx index of the shot's cell
+     * @param changes log of (cell index << 8) | previous code entries
+     * @param from first entry of the shot's changes
+     * @param to one past the last entry of the shot's changes
+     */
+    void revertShot(int idx, int[] changes, int from, int to) {
+        for (int k = to - 1; k >= from; k--) {
+            cells[changes[k] >>> 8] = (byte) changes[k];
+        }
+        numShots++;
+        if ((cells[idx] & SHIP) != 0) {
+            int ship = shipAt[idx];
+            if (shipLeft[ship]++ == 0) {
+                sunkenShips--;
+                changeShipCount(shipLength[ship], 1);
+            }
+        }
+    }
+
+    @Override
+    public boolean isShot(int cell) {
+        byte code = cells[cell];
+        return code == MISS || code == SUNK_BORDER || (code & HIT) != 0;
+    }
+
+    @Override
+    public boolean isHit(int cell) {
+        return (cells[cell] & HIT) != 0;
+    }
+
     /**
      * Checks if the player has won yet
      *
      * @return a boolean that represents true if player has won; false otherwise
      */
     public boolean didWin() {
-        return (getSunkenShips() == 10);
+        return shipCount > 0 && getSunkenShips() == shipCount;
     }
 
     /**
@@ -712,10 +525,10 @@ public class Battleship {
      * @return an int representing sunkenShips
      */
     public int getSunkenShips() {
-        if (sunkenShips >= 0 && sunkenShips <= 10) {
+        if (sunkenShips >= 0 && sunkenShips <= shipCount) {
             return sunkenShips;
         }
-        return 10;
+        return shipCount;
     }
 
     /**
@@ -724,7 +537,17 @@ public class Battleship {
      * @return an int representing the number of ships.
      */
     public int getNumShips() {
-        return (getCountSubs() + getCountCruisers() + getCountBattleships() + getCountCarriers());
+        return shipsAfloat;
+    }
+
+    /**
+     * Returns the number of ships of the given length still afloat.
+     *
+     * @param length length of the ships, from 1 to GameConfig.MAX_LENGTH
+     * @return an int representing the number of such ships.
+     */
+    public int getCountShips(int length) {
+        return length >= 1 && length < afloat.length ? afloat[length] : 0;
     }
 
     /**
@@ -733,10 +556,7 @@ public class Battleship {
      * @return an int representing the number of sub.
      */
     public int getCountSubs() {
-        if (countSubs > 0) {
-            return countSubs;
-        }
-        return 0;
+        return afloat[1];
     }
 
     /**
@@ -745,10 +565,7 @@ public class Battleship {
      * @return an int representing the number of cruisers.
      */
     public int getCountCruisers() {
-        if (countCruisers > 0) {
-            return countCruisers;
-        }
-        return 0;
+        return afloat[2];
     }
 
     /**
@@ -757,22 +574,31 @@ public class Battleship {
      * @return an int representing the number of battleships.
      */
     public int getCountBattleships() {
-        if (countBattleships > 0) {
-            return countBattleships;
-        }
-        return 0;
+        return afloat[3];
     }
 
     /**
-     * Returns the current number of carriers on the board.
+     * Returns the current number of carriers on the board, counting every ship of length 4 or
+     * more as a carrier.
      *
      * @return an int representing the number of carriers.
      */
     public int getCountCarriers() {
-        if (countCarriers > 0) {
-            return countCarriers;
+        int carriers = 0;
+        for (int len = 4; len < afloat.length; len++) {
+            carriers += afloat[len];
         }
-        return 0;
+        return carriers;
+    }
+
+    /**
+     * Returns the seed the current board was generated from. A Battleship constructed with
+     * this seed starts with the same board.
+     *
+     * @return the board's seed
+     */
+    public long getSeed() {
+        return seed;
     }
 
     /**
@@ -780,7 +606,103 @@ public class Battleship {
      *
      */
     public void setBoard(String[][] b) {
-        this.board = b;
+        height = b.length;
+        width = b[0].length;
+        cells = new byte[width * height];
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                cells[r * width + c] = parseCell(b[r][c]);
+            }
+        }
+        // "X" doesn't say which ship was hit, so recover it from the ship's other cells
+        for (int idx = 0; idx < cells.length; idx++) {
+            if (cells[idx] == (SHIP | HIT)) {
+                restoreHitShip(idx);
+            }
+        }
+        indexShips();
+    }
+
+    /**
+     * Rebuilds the ship table, and the number of ships of each type that are still afloat,
+     * from the ship codes on the board.
+     */
+    private void indexShips() {
+        if (shipAt == null || shipAt.length != cells.length) {
+            shipAt = new int[cells.length];
+        }
+        clearShips();
+        for (int idx = 0; idx < cells.length; idx++) {
+            byte kind = (byte) (cells[idx] & ~HIT);
+            if ((kind & SHIP) == 0 || shipAt[idx] >= 0) {
+                continue;
+            }
+            // idx is the first cell of a ship we haven't seen yet
+            boolean vertical = (kind & VERTICAL) != 0;
+            int step = vertical ? width : 1;
+            int length = 0;
+            int left = 0;
+            while (length < (kind & LENGTH_MASK) && idx + length * step < cells.length
+                    && (vertical || (idx % width) + length < width)
+                    && (cells[idx + length * step] & ~HIT) == kind) {
+                if ((cells[idx + length * step] & HIT) == 0) {
+                    left++;
+                }
+                length++;
+            }
+            addShip(idx, length, vertical, left);
+        }
+    }
+
+    /**
+     * Converts one of the strings returned by getCell back into its cell code.
+     */
+    private static byte parseCell(String s) {
+        switch (s) {
+            case ".":
+                return BORDER;
+            case "O":
+                return MISS;
+            case "x":
+                return SUNK_BORDER;
+            case "X":
+                return SHIP | HIT;
+            case "1":
+                return SHIP | 1;
+            case "H2", "H3", "H4", "V2", "V3", "V4":
+                return (byte) (SHIP | (s.charAt(0) == 'V' ? VERTICAL : 0) | (s.charAt(1) - '0'));
+            default:
+                return WATER;
+        }
+    }
+
+    /**
+     * Gives a hit cell loaded from a String board the code of the ship it belongs to. The ship
+     * is the run of ship cells through idx, which is horizontal unless a ship cell sits above or
+     * below idx.
+     */
+    private void restoreHitShip(int idx) {
+        int row = idx / width;
+        int col = idx % width;
+        boolean vertical = (row > 0 && (cells[idx - width] & SHIP) != 0)
+                || (row < height - 1 && (cells[idx + width] & SHIP) != 0);
+        int step = vertical ? width : 1;
+        int pos = vertical ? row : col;
+        int first = pos;
+        while (first > 0 && (cells[idx - (pos - first + 1) * step] & SHIP) != 0) {
+            first--;
+        }
+        int last = pos;
+        while (last < (vertical ? height : width) - 1
+                && (cells[idx + (last - pos + 1) * step] & SHIP) != 0) {
+            last++;
+        }
+        int length = Math.min(last - first + 1, LENGTH_MASK);
+        byte kind = (byte) (SHIP | (length > 1 && vertical ? VERTICAL : 0) | length);
+        for (int p = first; p <= last; p++) {
+            int i = idx + (p - pos) * step;
+            cells[i] = (byte) (kind | (cells[i] & HIT));
+        }
     }
 
     public void setNumShots(int shots) {
@@ -801,6 +723,56 @@ public class Battleship {
      *         game board. 0 = empty, 1 = Player 1, 2 = Player 2
      */
     public String getCell(int c, int r) {
-        return board[r][c];
+        return NAMES[cells[r * width + c]];
+    }
+
+    /**
+     * Returns the getCell string for a cell code.
+     */
+    static String name(byte code) {
+        return NAMES[code];
+    }
+
+    /**
+     * Returns the raw code of the cell specified by the method arguments.
+     *
+     * @param c column to retrieve
+     * @param r row to retrieve
+     * @return the cell's code, one of the code constants of this class
+     */
+    byte getCode(int c, int r) {
+        return cells[r * width + c];
+    }
+
+    /**
+     * Returns the length of a side of the board. For a board that isn't square, this is its
+     * width.
+     *
+     * @return an int representing the board size
+     */
+    public int getSize() {
+        return width;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int[] getFleet() {
+        return config.getFleet();
+    }
+
+    /**
+     * Returns the variant new boards are generated for.
+     */
+    public GameConfig getConfig() {
+        return config;
     }
 }
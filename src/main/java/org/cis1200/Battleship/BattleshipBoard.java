@@ -2,226 +2,642 @@ package org.cis1200.Battleship;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.*;
-import java.util.LinkedList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * This class instantiates a Battleship object, which is the model for the game.
- * As the user clicks the game board, the model is updated. Whenever the model
- * is updated, the game board repaints itself and updates its status JLabel to
- * reflect the current state of the model.
+ * This class instantiates a GameEngine, which runs the game and owns its
+ * model. As the user clicks the game board, the clicks are turned into
+ * shots on the engine. Whenever the game changes, the engine tells the
+ * board, which repaints itself and updates its status JLabel to reflect the
+ * current state of the model.
  *
- * In a Model-View-Controller framework, BattleshipBoard stores the model as a field
+ * In a Model-View-Controller framework, BattleshipBoard stores the engine as a field
  * and acts as both the controller (with a MouseListener) and the view (with
  * its paintComponent method and the status JLabel).
+ *
+ * The view only repaints what changed. It remembers the mark it last showed
+ * in every cell (nothing, a dot or a cross), and after each change to the
+ * game it compares them with the game and asks Swing to repaint just the
+ * cells whose mark changed, which after a sinking shot includes the dots
+ * bordering the ship. The drawing itself is done by a BoardRenderer, from
+ * images it renders ahead of time, for the cells inside the clip.
+ *
+ * Nothing about the board's geometry is fixed: the cells are squares as big
+ * as fit in the panel, for any board size. They are measured in device
+ * pixels, i.e. with the display's scale (2 on a Retina or a 4K screen at
+ * 200%) applied, and the board is drawn in device pixels from images
+ * rendered for that cell size, so it is sharp at any scale and never
+ * stretched. The renderers of the last few cell sizes are kept, so moving
+ * the window between screens or back to a size it had doesn't render the
+ * images again.
+ *
+ * With active rendering on, the board is drawn instead by an
+ * ActiveBoardView laid over it, which animates shots on a render thread of
+ * its own. The board keeps tracking changes as before and hands the view an
+ * immutable BoardSnapshot after each one.
+ *
+ * Pressing HUD_KEY shows a PerformanceHud over the board, with the frame
+ * rate, paint times, click latency and allocation rate of whichever view is
+ * drawing, to diagnose jank; pressing it again hides it.
  */
 @SuppressWarnings("serial")
 public class BattleshipBoard extends JPanel {
 
-    private Battleship model; // model for the game
+    private GameEngine engine; // runs the game
+    private GameEngine.Listener changes; // updates the view after every change to the game
+    private ShotJournal journal; // journals the game, or null if the journal can't be opened
     private JLabel status; // current status text
-    private LinkedList<Battleship> gameState; // Collection for undo
+    private final SaveService saves = new SaveService(Paths.get(SAVE_DIR)); // off the EDT
+    private final Strategy hinter = new ProbabilityStrategy(); // suggests shots
+    private final Strategy otherHinter = new HuntTargetStrategy(); // on boards hinter can't play
+    private int hint = -1; // cell suggested by the last hint, or -1 if none is shown
+    private byte[] shown; // mark shown in every cell, as of the last change to the game
+    private BoardRenderer renderer; // draws the board at the current cell size
+    private final Map<Integer, BoardRenderer> renderers = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, BoardRenderer> eldest) {
+            if (size() > RENDERERS) {
+                eldest.getValue().flush();
+                return true;
+            }
+            return false;
+        }
+    }; // renderers of recent cell sizes, least recently used first
+    private GraphicsConfiguration screen; // screen whose scale is in use
+    private double scale = 1; // device pixels per panel pixel
+    private int cellSize; // side of a cell, in device pixels
+    private ActiveBoardView active; // draws the board while active rendering is on
+    private long snapshots; // number of BoardSnapshots made
+    private final PerformanceHud hud = new PerformanceHud(); // measures painting
+    private final Timer hudTimer = new Timer(PerformanceHud.SAMPLE_MILLIS, e -> sampleHud());
 
     // Game constants
     public static final int BOARD_WIDTH = 500;
     public static final int BOARD_HEIGHT = 500;
+    public static final int MIN_CELL_SIZE = 4; // preferred cell size of boards too big to fit
+    public static final int RENDERERS = 4; // cell sizes whose images are kept
+    public static final int HUD_KEY = KeyEvent.VK_F3; // shows and hides the PerformanceHud
+    public static final int HUD_MARGIN = 8; // between the HUD and the top left corner
+    public static final Color WATER = new Color(173, 216, 230);
+    public static final String SAVE_DIR = "."; // where the save slots are kept
+    public static final String JOURNAL_FILE = "journal.dat";
 
     /**
-     * Initializes the game board.
+     * Initializes the game board for the classic game.
      */
     public BattleshipBoard(JLabel statusInit) {
+        this(statusInit, GameConfig.STANDARD);
+    }
+
+    /**
+     * Initializes the game board for a variant of the game.
+     *
+     * @param statusInit label to show the status of the game in
+     * @param config the board size, fleet and shots of every game
+     */
+    public BattleshipBoard(JLabel statusInit, GameConfig config) {
         // creates border around the court area, JComponent method
         setBorder(BorderFactory.createLineBorder(Color.BLACK));
+        setBackground(WATER);
 
         // Enable keyboard focus on the court area. When this component has the
         // keyboard focus, key events are handled by its key listener.
         setFocusable(true);
 
-        model = new Battleship(); // initializes model for the game
+        // initializes the engine and its model
+        engine = new GameEngine(config, new SplittableRandom().nextLong());
         status = statusInit; // initializes the status JLabel
-        gameState = new LinkedList<>(); // initializes the gameState
-        gameState.add(new Battleship(model));
+        shown = new byte[engine.getWidth() * engine.getHeight()];
+
+        // every change to the game, whoever made it, updates the view
+        changes = new GameEngine.Listener() {
+            @Override
+            public void gameStarted(GameEngine e) {
+                gameChanged(-1, null);
+            }
+
+            @Override
+            public void shotTaken(GameEngine e, int col, int row,
+                    GameEngine.ShotResult result) {
+                gameChanged(row * e.getWidth() + col, result);
+            }
+
+            @Override
+            public void historyMoved(GameEngine e) {
+                gameChanged(-1, null);
+            }
+        };
+        engine.addListener(changes);
+
+        // every change to the game is journaled, for crash recovery
+        try {
+            journal = new ShotJournal(Paths.get(SAVE_DIR, JOURNAL_FILE));
+            engine.addListener(journal);
+        } catch (IOException e) {
+            // play on without crash recovery
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
 
         /*
-         * Listens for mouseclicks. Updates the model, then updates the game
-         * board based off of the updated model.
+         * Listens for mouseclicks. Turns the click into a shot at the cell under
+         * the mouse; the engine then tells the board to update.
          */
         addMouseListener(new MouseAdapter() {
             @Override
             public void mouseReleased(MouseEvent e) {
                 Point p = e.getPoint();
-                // only take shot if cell hasn't already been hit yet
-                if (!model.getCell(p.x / 50, p.y / 50).equals("X")
-                    && !model.getCell(p.x / 50, p.y / 50).equals("x")
-                    && !model.getCell(p.x / 50, p.y / 50).equals("O")) {
-                    model.takeShot(p.x / 50, p.y / 50); // X for hit, O for miss
-                    gameState.add(new Battleship(model));
-                    updateStatus(); // updates the status JLabel
-                    repaint(); // repaints the game board
-                }
+                hud.clicked(e);
+                layOut();
+                // floorDiv, so a release just off the top or left edge isn't rounded onto the board
+                shoot(Math.floorDiv((int) (p.x * scale), cellSize),
+                        Math.floorDiv((int) (p.y * scale), cellSize));
+            }
+        });
+
+        // the HUD key works whichever component in the window has the focus
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(HUD_KEY, 0), "hud");
+        getActionMap().put("hud", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                setHudShown(!isHudShown());
             }
         });
     }
 
+    /**
+     * Shoots at a cell that was clicked.
+     */
+    private void shoot(int col, int row) {
+        // only take shot if cell is on the board and hasn't already been hit yet
+        if (col >= 0 && row >= 0 && col < engine.getWidth() && row < engine.getHeight()
+                && !engine.isShot(col, row)) {
+            engine.shoot(col, row); // X for hit, O for miss
+        } else {
+            hud.clickIgnored(); // nothing to paint, so no latency to measure
+        }
+    }
+
+    /**
+     * Shows or hides the performance HUD. It starts measuring afresh every time it is shown.
+     *
+     * @param on whether the HUD should be shown
+     */
+    public void setHudShown(boolean on) {
+        if (on == hud.isShown()) {
+            return;
+        }
+        hud.setShown(on);
+        if (on) {
+            hud.watch(Thread.currentThread()); // the event thread, which paints the board
+            hud.setClock(active == null ? null : active.getClock());
+            hudTimer.start();
+        } else {
+            hudTimer.stop();
+        }
+        repaint(hudBounds());
+    }
+
+    public boolean isHudShown() {
+        return hud.isShown();
+    }
+
+    /**
+     * Updates what the HUD shows, once a second while it is shown. An active view notices
+     * the new sample and draws it; otherwise the HUD's part of the panel is repainted.
+     */
+    private void sampleHud() {
+        hud.setClock(active == null ? null : active.getClock());
+        hud.sample(System.nanoTime());
+        if (active == null) {
+            repaint(hudBounds());
+        }
+    }
+
+    /**
+     * Returns the area of the panel the HUD covers.
+     */
+    private static Rectangle hudBounds() {
+        return new Rectangle(HUD_MARGIN, HUD_MARGIN, PerformanceHud.WIDTH, PerformanceHud.HEIGHT);
+    }
+
+    /**
+     * Turns active rendering, with animated shots, on or off.
+     *
+     * @param on whether the board should be drawn by an ActiveBoardView
+     */
+    public void setActiveRendering(boolean on) {
+        if (on && active == null) {
+            active = new ActiveBoardView(cell -> shoot(cell % engine.getWidth(),
+                    cell / engine.getWidth()), hud);
+            setLayout(new BorderLayout());
+            add(active, BorderLayout.CENTER);
+            publish(-1, null);
+        } else if (!on && active != null) {
+            remove(active);
+            active = null;
+        }
+        revalidate();
+        repaint();
+        requestFocusInWindow();
+    }
+
+    public boolean isActiveRendering() {
+        return active != null;
+    }
+
+    /**
+     * Hands the active view, if there is one, a snapshot of what the board shows.
+     *
+     * @param shot cell of the shot that made the change, or -1 if it wasn't a shot
+     * @param result what the shot did, or null if it wasn't a shot
+     */
+    private void publish(int shot, GameEngine.ShotResult result) {
+        if (active != null) {
+            active.publish(new BoardSnapshot(++snapshots, engine.getWidth(), engine.getHeight(),
+                    shown, hint, shot, result));
+        }
+    }
+
     /**
      * (Re-)sets the game to its initial state.
      */
     public void reset() {
-        model.reset();
-        updateStatus();
-        repaint();
+        engine.newGame();
         requestFocusInWindow();
     }
 
     /**
-     * Undoes the game state.
+     * Undoes the last shot.
      */
     public void undo() {
-        if (gameState.getLast() != null && model.getNumShots() != 0) {
-            gameState.removeLast();
-            model = gameState.getLast();
-            updateStatus();
-            repaint();
+        if (engine.getShotsLeft() != 0 && engine.undo()) {
             requestFocusInWindow();
         }
     }
 
     /**
-     * Saves the game's contents. Used for File/IO.
+     * Redoes the last shot that was undone.
+     */
+    public void redo() {
+        if (engine.redo()) {
+            requestFocusInWindow();
+        }
+    }
+
+    /**
+     * Shows the game as it was after the given number of shots, e.g. for a replay. Undone
+     * shots can be reached too, until a new shot is taken.
      *
+     * @param shot number of shots, from 0 to the number of shots in the history
      */
-    public void saveGame() {
-        try {
-            File file = new File("file.txt");
-            FileWriter writer = new FileWriter(file);
-            BufferedWriter bufferedWriter = new BufferedWriter(writer);
-            for (int i = 0; i < 10; i++) {
-                for (int j = 0; j < 10; j++) {
-                    bufferedWriter.write(model.getCopyOfBoard()[i][j] + " ");
-                }
-                bufferedWriter.newLine();
-            }
-            bufferedWriter.write(model.getSunkenShips() + " ");
-            bufferedWriter.write(model.getNumShots() + "");
-            bufferedWriter.close();
-            updateStatus();
-        } catch (IOException e) {
+    public void seek(int shot) {
+        engine.seek(shot);
+    }
+
+    /**
+     * Highlights the cell the probability-density AI would shoot next, or the hunt-target AI
+     * on boards the probability-density AI can't play. The hint disappears as soon as the
+     * game changes.
+     */
+    public void hint() {
+        if (engine.isOver()) {
+            return;
         }
+        clearHint();
+        Strategy s = hinter.canPlay(engine.getConfig()) ? hinter : otherHinter;
+        s.newGame(engine, new SplittableRandom());
+        hint = s.nextShot();
+        repaint(cellBounds(hint));
+        publish(-1, null);
+        requestFocusInWindow();
     }
 
     /**
-     * Loads the game's contents. Used for File/IO.
+     * Saves the game's contents in a slot. Used for File/IO. The game is copied right away,
+     * and stored in the background; the status JLabel says when it's done.
      *
+     * @param slot name of the slot, replaced if it exists
      */
-    public void loadGame() {
-        try {
-            File file = new File("file.txt");
-            FileReader fr = new FileReader(file);
-            BufferedReader br = new BufferedReader(fr);
-            String nextLine = br.readLine();
-            String[][] arr = new String[10][10];
-            int r = 0;
-            while (r < 10) {
-                String[] elements = nextLine.split(" ");
-                if (r < 10) {
-                    for (int c = 0; c < 10; c++) {
-                        arr[r][c] = elements[c];
+    public void saveGame(String slot) {
+        status.setText("Saving...");
+        saves.save(slot, engine).whenComplete(
+                (done, failure) -> SwingUtilities.invokeLater(() -> {
+                    if (failure == null) {
+                        status.setText("Game saved as \"" + slot + "\".");
+                    } else {
+                        status.setText("Couldn't save the game: "
+                                + SaveService.cause(failure).getMessage());
+                    }
+                }));
+    }
+
+    /**
+     * Loads the game saved in a slot. Used for File/IO. The slot is looked up in the
+     * background and loaded into the game back on the event thread.
+     *
+     * @param slot name of the slot
+     */
+    public void loadGame(String slot) {
+        status.setText("Loading...");
+        saves.load(slot).whenComplete(
+                (contents, failure) -> SwingUtilities.invokeLater(() -> {
+                    try {
+                        if (failure != null) {
+                            throw SaveService.cause(failure);
+                        }
+                        engine.load(contents);
+                        requestFocusInWindow();
+                    } catch (Throwable e) {
+                        status.setText("Couldn't load the game: " + e.getMessage());
                     }
-                }
-                r++;
-                nextLine = br.readLine();
+                }));
+    }
+
+    /**
+     * Returns the saved games, most recently saved first.
+     *
+     * @return a future holding the slots, completed in the background
+     */
+    public CompletableFuture<List<SaveStore.Slot>> listSaves() {
+        return saves.slots();
+    }
+
+    /**
+     * Looks in the journal, in the background, for a game that was interrupted, e.g. by a
+     * crash, before it was won or lost. The journal is read and replayed on the save thread,
+     * so a long game doesn't hold up the event thread.
+     *
+     * @return a future holding the interrupted game, to be passed to recover, or null if
+     *         there isn't one or the journal can't be read
+     */
+    public CompletableFuture<GameEngine> findInterrupted() {
+        return saves.recover(Paths.get(SAVE_DIR, JOURNAL_FILE))
+                .handle((e, failure) -> e == null || e.isOver() ? null : e);
+    }
+
+    /**
+     * Picks up a game found by findInterrupted where it was interrupted. The board switches
+     * to the interrupted game's config if it was another variant than this board's.
+     *
+     * @param interrupted the engine holding the interrupted game
+     */
+    public void recover(GameEngine interrupted) {
+        setEngine(interrupted);
+        changes.gameStarted(engine);
+        if (journal != null) {
+            journal.gameStarted(engine); // the game goes on in a fresh journal
+        }
+        requestFocusInWindow();
+    }
+
+    /**
+     * Writes the last shots to the journal and finishes the saves still being written, then
+     * closes the save store. Runs as the game exits.
+     */
+    private void shutdown() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                // too late to tell anyone
             }
-            String[] elements = nextLine.split(" ");
-            model.setNumSunkenShips(Integer.parseInt(elements[0]));
-            model.setNumShots(Integer.parseInt(elements[1]));
-            br.close();
-            model.setBoard(arr);
-            updateStatus();
+        }
+        saves.shutdown();
+    }
+
+    /**
+     * Moves the view and the journal over to another engine, e.g. one for another config.
+     */
+    private void setEngine(GameEngine e) {
+        engine.removeListener(changes);
+        e.addListener(changes);
+        if (journal != null) {
+            engine.removeListener(journal);
+            e.addListener(journal);
+        }
+        engine = e;
+        shown = new byte[engine.getWidth() * engine.getHeight()];
+        hint = -1;
+        dropRenderers();
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Brings the view up to date after any change to the game.
+     */
+    private void gameChanged(int shot, GameEngine.ShotResult result) {
+        clearHint();
+        updateStatus();
+        if (shot >= 0 && shown.length == engine.getWidth() * engine.getHeight()) {
+            repaintShot(shot, result);
+        } else {
+            repaintChangedCells();
+        }
+        publish(shot, result);
+    }
+
+    /**
+     * Removes the hint, if one is shown.
+     */
+    private void clearHint() {
+        if (hint >= 0) {
+            repaint(cellBounds(hint));
+            hint = -1;
+        }
+    }
+
+    /**
+     * Repaints the cells a shot can have changed: the cell shot at, and after a sinking shot
+     * the ship through it and the border around the ship. The ship is the run of ship cells
+     * through the shot cell, since ships never touch.
+     */
+    private void repaintShot(int shot, GameEngine.ShotResult result) {
+        int width = engine.getWidth();
+        int col = shot % width;
+        int row = shot / width;
+        int left = col;
+        int right = col;
+        int top = row;
+        int bottom = row;
+        if (result == GameEngine.ShotResult.SINK) {
+            while (left > 0 && isShip(left - 1, row)) {
+                left--;
+            }
+            while (right < width - 1 && isShip(right + 1, row)) {
+                right++;
+            }
+            while (top > 0 && isShip(col, top - 1)) {
+                top--;
+            }
+            while (bottom < engine.getHeight() - 1 && isShip(col, bottom + 1)) {
+                bottom++;
+            }
+            left = Math.max(left - 1, 0);
+            right = Math.min(right + 1, width - 1);
+            top = Math.max(top - 1, 0);
+            bottom = Math.min(bottom + 1, engine.getHeight() - 1);
+        }
+        for (int r = top; r <= bottom; r++) {
+            for (int c = left; c <= right; c++) {
+                showCell(r * width + c);
+            }
+        }
+    }
+
+    private boolean isShip(int col, int row) {
+        return (engine.getCode(col, row) & Battleship.SHIP) != 0;
+    }
+
+    /**
+     * Repaints the cells whose mark differs from the one last shown. Comparing every cell
+     * costs a byte per cell, far less than repainting them; it is only done for changes that
+     * can touch any number of cells, like an undo, a seek or loading a game.
+     */
+    private void repaintChangedCells() {
+        int width = engine.getWidth();
+        int height = engine.getHeight();
+        int cells = width * height;
+        if (shown.length != cells) {
+            shown = new byte[cells];
+            dropRenderers();
+            revalidate();
             repaint();
-            requestFocusInWindow();
-        } catch (IOException e) {
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            showCell(cell);
+        }
+    }
 
+    /**
+     * Repaints a cell if its mark differs from the one last shown.
+     */
+    private void showCell(int cell) {
+        int width = engine.getWidth();
+        byte mark = BoardRenderer.mark(engine.getCode(cell % width, cell / width));
+        if (mark != shown[cell]) {
+            shown[cell] = mark;
+            repaint(cellBounds(cell));
         }
     }
 
+    /**
+     * Returns the area of the panel a cell covers, in panel pixels, rounded out to whole
+     * pixels.
+     */
+    private Rectangle cellBounds(int cell) {
+        layOut();
+        int width = engine.getWidth();
+        int left = (int) Math.floor((cell % width) * cellSize / scale);
+        int top = (int) Math.floor((cell / width) * cellSize / scale);
+        int right = (int) Math.ceil((cell % width + 1) * cellSize / scale);
+        int bottom = (int) Math.ceil((cell / width + 1) * cellSize / scale);
+        return new Rectangle(left, top, right - left, bottom - top);
+    }
+
+    /**
+     * Works out the cell size for the panel's size and screen, and picks the renderer for
+     * it.
+     */
+    private void layOut() {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc != screen) {
+            screen = gc;
+            scale = gc == null ? 1 : gc.getDefaultTransform().getScaleX();
+        }
+        int width = getWidth() > 0 ? getWidth() : getPreferredSize().width;
+        int height = getHeight() > 0 ? getHeight() : getPreferredSize().height;
+        int size = BoardRenderer.fitCellSize(width, height, scale, engine.getWidth(),
+                engine.getHeight());
+        if (renderer == null || size != cellSize) {
+            cellSize = size;
+            renderer = renderers.get(size);
+            if (renderer == null) {
+                renderer = new BoardRenderer(size, engine.getWidth(), engine.getHeight());
+                renderers.put(size, renderer);
+            }
+        }
+    }
+
+    /**
+     * Forgets the renderers, e.g. when the board changes size.
+     */
+    private void dropRenderers() {
+        for (BoardRenderer r : renderers.values()) {
+            r.flush();
+        }
+        renderers.clear();
+        renderer = null;
+    }
+
     /**
      * Updates the JLabel to reflect the current state of the game.
      *
      */
     private void updateStatus() {
-        if (!model.didWin()) {
-            status.setText("Shots left: " + model.getNumShots() + "     " + "\n" +
-                    "Ships sunken: " + model.getSunkenShips() + " / 10" + "\n" + "     ");
+        if (!engine.isWon()) {
+            status.setText("Shots left: " + engine.getShotsLeft() + "     " + "\n" +
+                    "Ships sunken: " + engine.getSunkenShips() + " / "
+                    + engine.getConfig().getShips() + "\n" + "     ");
         }
-        if (model.didWin()) {
+        if (engine.isWon()) {
             status.setText("You've won!");
         }
-        if (model.getNumShots() == 0 && !model.didWin()) {
+        if (engine.getShotsLeft() == 0 && !engine.isWon()) {
             status.setText("No more shots remaining! Game over :(");
         }
     }
 
     /**
-     * Draws the game board.
+     * Draws the part of the game board inside the clip, and the HUD if it is shown.
      *
      */
     @Override
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
-
-        // Draw vertical lines
-        g.setColor(Color.BLACK);
-        g.drawLine(50, 0, 50, 500);
-        g.drawLine(100, 0, 100, 500);
-        g.drawLine(150, 0, 150, 500);
-        g.drawLine(200, 0, 200, 500);
-        g.drawLine(250, 0, 250, 500);
-        g.drawLine(300, 0, 300, 500);
-        g.drawLine(350, 0, 350, 500);
-        g.drawLine(400, 0, 400, 500);
-        g.drawLine(450, 0, 450, 500);
-
-        // Draw horizontal lines
-        g.drawLine(0, 50, 500, 50);
-        g.drawLine(0, 100, 500, 100);
-        g.drawLine(0, 150, 500, 150);
-        g.drawLine(0, 200, 500, 200);
-        g.drawLine(0, 250, 500, 250);
-        g.drawLine(0, 300, 500, 300);
-        g.drawLine(0, 350, 500, 350);
-        g.drawLine(0, 400, 500, 400);
-        g.drawLine(0, 450, 500, 450);
-
-        // draw shots
-        setBackground(new java.awt.Color(173, 216, 230));
-        for (int i = 0; i < 10; i++) {
-            for (int j = 0; j < 10; j++) {
-                String state = model.getCell(j, i);
-                if (state.equals("X")) {
-                    g.setColor(Color.BLACK);
-                    g.drawLine(11 + 50 * j, 11 + 50 * i, 42 + 50 * j, 42 + 50 * i);
-                    g.drawLine(11 + 50 * j, 42 + 50 * i, 42 + 50 * j, 11 + 50 * i);
-                } else if (state.equals("x")) {
-                    g.setColor(Color.BLACK);
-                    g.fillOval(22 + 50 * j, 22 + 50 * i, 10, 10);
-                } else if (state.equals("O")) {
-                    g.setColor(Color.BLACK);
-                    g.fillOval(22 + 50 * j, 22 + 50 * i, 10, 10);
-                } else {
-                    g.setColor(new java.awt.Color(173, 216, 230));
-                    g.fillRect(j * 50 + 2, i * 50 + 2, 47, 47);
-                }
+        if (active != null) {
+            return; // the active view draws the board
+        }
+        long start = System.nanoTime();
+        layOut();
+        // draw in device pixels, with the images rendered for them, on a copy of g so that
+        // g's transform is left exactly as it was
+        Graphics2D device = (Graphics2D) g.create();
+        try {
+            if (scale != 1) {
+                device.scale(1 / scale, 1 / scale);
             }
+            renderer.paint(device, this, shown, hint);
+        } finally {
+            device.dispose();
+        }
+        if (hud.isShown()) {
+            hud.painted(start, System.nanoTime());
+            hud.draw(g, HUD_MARGIN, HUD_MARGIN);
         }
     }
 
     /**
-     * Returns the size of the game board.
+     * Returns the size of the game board: BOARD_WIDTH by BOARD_HEIGHT for the classic game,
+     * and as close to it as cells of at least MIN_CELL_SIZE allow for other boards.
      */
     @Override
     public Dimension getPreferredSize() {
-        return new Dimension(BOARD_WIDTH, BOARD_HEIGHT);
+        int columns = engine.getWidth();
+        int rows = engine.getHeight();
+        int size = Math.max(Math.min(BOARD_WIDTH / columns, BOARD_HEIGHT / rows),
+                MIN_CELL_SIZE);
+        return new Dimension(columns * size, rows * size);
     }
 }
@@ -0,0 +1,398 @@
+package org.cis1200.Battleship;
+
+/**
+ * This class is a bitboard version of the Battleship model. The 10x10 grid
+ * has 100 cells, so any set of cells fits in two longs: bit i of the pair
+ * is the cell at row i / 10, column i % 10, with bits 0-63 in the "lo" word
+ * and bits 64-99 in the "hi" word. Ship occupancy, vertical ships, hits,
+ * misses and the "x" borders of sunken ships are each kept as one of these
+ * masks, so the neighbour and overlap checks that Battleship does with
+ * nested loops become a handful of shifts and ANDs.
+ *
+ * A BitBoard follows the same rules as Battleship: a ship can't overlap
+ * another ship or the cells around it, a ship is sunk once all of its cells
+ * have been hit, and a sunken ship is enclosed by a border of "x" cells. It
+ * can be converted to and from a Battleship, which makes it the board of
+ * choice for solvers and simulations that play many games.
+ */
+public class BitBoard {
+
+    public static final int SIZE = 10;
+    public static final int CELLS = SIZE * SIZE;
+
+    // the hi word only holds cells 64 to 99
+    static final long HI_MASK = (1L << (CELLS - 64)) - 1;
+    static final long COL0_LO;
+    static final long COL0_HI;
+    static final long COL9_LO;
+    static final long COL9_HI;
+
+    static {
+        long col0Lo = 0;
+        long col0Hi = 0;
+        long col9Lo = 0;
+        long col9Hi = 0;
+        for (int r = 0; r < SIZE; r++) {
+            int first = r * SIZE;
+            int last = first + SIZE - 1;
+            col0Lo |= lo(first);
+            col0Hi |= hi(first);
+            col9Lo |= lo(last);
+            col9Hi |= hi(last);
+        }
+        COL0_LO = col0Lo;
+        COL0_HI = col0Hi;
+        COL9_LO = col9Lo;
+        COL9_HI = col9Hi;
+    }
+
+    private long shipsLo;
+    private long shipsHi;
+    private long verticalLo; // cells of vertical ships
+    private long verticalHi;
+    private long hitsLo;
+    private long hitsHi;
+    private long missesLo;
+    private long missesHi;
+    private long sunkBorderLo; // "x" cells around sunken ships
+    private long sunkBorderHi;
+    private int numShots;
+    private int sunkenShips;
+    private int shipsPlaced;
+    private final int[] remaining = new int[5]; // ships afloat, indexed by length
+    private long foundLo; // result of the last findShip
+    private long foundHi;
+
+    /**
+     * Creates an empty board with the full 65 shots.
+     */
+    public BitBoard() {
+        clear();
+    }
+
+    /**
+     * Removes every ship and shot from the board.
+     */
+    public void clear() {
+        shipsLo = 0;
+        shipsHi = 0;
+        verticalLo = 0;
+        verticalHi = 0;
+        hitsLo = 0;
+        hitsHi = 0;
+        missesLo = 0;
+        missesHi = 0;
+        sunkBorderLo = 0;
+        sunkBorderHi = 0;
+        numShots = 65;
+        sunkenShips = 0;
+        shipsPlaced = 0;
+        java.util.Arrays.fill(remaining, 0);
+    }
+
+    /**
+     * Creates a BitBoard holding the same ships and shots as a Battleship.
+     *
+     * @param b a 10x10 Battleship
+     * @return the equivalent BitBoard
+     */
+    public static BitBoard fromBattleship(Battleship b) {
+        if (b.getWidth() != SIZE || b.getHeight() != SIZE) {
+            throw new IllegalArgumentException("BitBoard only holds " + SIZE + "x" + SIZE
+                    + " boards");
+        }
+        BitBoard bb = new BitBoard();
+        for (int i = 0; i < CELLS; i++) {
+            byte code = b.getCode(i % SIZE, i / SIZE);
+            long l = lo(i);
+            long h = hi(i);
+            if ((code & Battleship.SHIP) != 0) {
+                bb.shipsLo |= l;
+                bb.shipsHi |= h;
+                if ((code & Battleship.VERTICAL) != 0) {
+                    bb.verticalLo |= l;
+                    bb.verticalHi |= h;
+                }
+                if ((code & Battleship.HIT) != 0) {
+                    bb.hitsLo |= l;
+                    bb.hitsHi |= h;
+                }
+            } else if (code == Battleship.MISS) {
+                bb.missesLo |= l;
+                bb.missesHi |= h;
+            } else if (code == Battleship.SUNK_BORDER) {
+                bb.sunkBorderLo |= l;
+                bb.sunkBorderHi |= h;
+            }
+        }
+        bb.numShots = b.getNumShots();
+        bb.sunkenShips = b.getSunkenShips();
+        bb.shipsPlaced = b.getSunkenShips() + b.getNumShips();
+        bb.remaining[1] = b.getCountSubs();
+        bb.remaining[2] = b.getCountCruisers();
+        bb.remaining[3] = b.getCountBattleships();
+        bb.remaining[4] = b.getCountCarriers();
+        return bb;
+    }
+
+    /**
+     * Creates a Battleship holding the same ships and shots as this board. Water next to a
+     * ship becomes a "." border, as it would on a board placed by Battleship.
+     *
+     * @return the equivalent Battleship
+     */
+    public Battleship toBattleship() {
+        long borderLo = dilateLo(shipsLo, shipsHi);
+        long borderHi = dilateHi(shipsLo, shipsHi);
+        byte[] codes = new byte[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            if (test(shipsLo, shipsHi, i)) {
+                boolean vertical = test(verticalLo, verticalHi, i);
+                findShip(i, vertical);
+                int length = Long.bitCount(foundLo) + Long.bitCount(foundHi);
+                byte code = (byte) (Battleship.SHIP | (vertical ? Battleship.VERTICAL : 0)
+                        | length);
+                codes[i] = test(hitsLo, hitsHi, i) ? (byte) (code | Battleship.HIT) : code;
+            } else if (test(missesLo, missesHi, i)) {
+                codes[i] = Battleship.MISS;
+            } else if (test(sunkBorderLo, sunkBorderHi, i)) {
+                codes[i] = Battleship.SUNK_BORDER;
+            } else if (test(borderLo, borderHi, i)) {
+                codes[i] = Battleship.BORDER;
+            }
+        }
+        return new Battleship(SIZE, codes, numShots, sunkenShips);
+    }
+
+    /**
+     * Checks whether a ship fits on the board without touching another ship.
+     *
+     * @param length number of cells the ship occupies
+     * @param vertical whether the ship runs down from its first cell instead of right
+     * @param row row of the ship's first cell
+     * @param col column of the ship's first cell
+     * @return true if the ship can be placed
+     */
+    public boolean canPlace(int length, boolean vertical, int row, int col) {
+        if (row < 0 || col < 0 || (vertical ? row + length : col + length) > SIZE
+                || (vertical ? col : row) >= SIZE) {
+            return false;
+        }
+        long blockedLo = dilateLo(shipsLo, shipsHi);
+        long blockedHi = dilateHi(shipsLo, shipsHi);
+        return (footprintLo(length, vertical, row, col) & blockedLo) == 0
+                && (footprintHi(length, vertical, row, col) & blockedHi) == 0;
+    }
+
+    /**
+     * Places a ship if it fits, see canPlace.
+     *
+     * @return true if the ship was placed
+     */
+    public boolean place(int length, boolean vertical, int row, int col) {
+        if (length < 1 || length >= remaining.length || !canPlace(length, vertical, row, col)) {
+            return false;
+        }
+        long l = footprintLo(length, vertical, row, col);
+        long h = footprintHi(length, vertical, row, col);
+        shipsLo |= l;
+        shipsHi |= h;
+        if (vertical && length > 1) {
+            verticalLo |= l;
+            verticalHi |= h;
+        }
+        remaining[length]++;
+        shipsPlaced++;
+        return true;
+    }
+
+    /**
+     * Simulate a player taking a shot, with the same rules as Battleship.takeShot. A hit
+     * that completes a ship sinks it and encloses it with "x" cells.
+     *
+     * @param col column of the shot
+     * @param row row of the shot
+     */
+    public void takeShot(int col, int row) {
+        int i = row * SIZE + col;
+        if (numShots <= 0 || didWin() || isShot(i)) {
+            return;
+        }
+        numShots--;
+        long l = lo(i);
+        long h = hi(i);
+        if (!test(shipsLo, shipsHi, i)) {
+            missesLo |= l;
+            missesHi |= h;
+            return;
+        }
+        hitsLo |= l;
+        hitsHi |= h;
+        boolean vertical = test(verticalLo, verticalHi, i);
+        findShip(i, vertical);
+        long shipLo = foundLo;
+        long shipHi = foundHi;
+        if ((shipLo & ~hitsLo) == 0 && (shipHi & ~hitsHi) == 0) {
+            // sunk: everything around the ship that isn't a ship becomes "x"
+            sunkBorderLo |= dilateLo(shipLo, shipHi) & ~shipsLo;
+            sunkBorderHi |= dilateHi(shipLo, shipHi) & ~shipsHi;
+            missesLo &= ~sunkBorderLo;
+            missesHi &= ~sunkBorderHi;
+            remaining[Long.bitCount(shipLo) + Long.bitCount(shipHi)]--;
+            sunkenShips++;
+        }
+    }
+
+    /**
+     * Finds the cells of the ship through cell i by growing i along the ship's axis while the
+     * cells are occupied, and leaves them in foundLo and foundHi.
+     */
+    private void findShip(int i, boolean vertical) {
+        long axisLo = vertical ? shipsLo & verticalLo : shipsLo & ~verticalLo;
+        long axisHi = vertical ? shipsHi & verticalHi : shipsHi & ~verticalHi;
+        int step = vertical ? SIZE : 1;
+        long l = lo(i);
+        long h = hi(i);
+        while (true) {
+            long nextLo;
+            long nextHi;
+            if (vertical) {
+                nextLo = l | (l << step) | shrLo(l, h, step);
+                nextHi = h | shlHi(l, h, step) | (h >>> step);
+            } else {
+                nextLo = l | ((l << 1) & ~COL0_LO) | (shrLo(l, h, 1) & ~COL9_LO);
+                nextHi = h | (shlHi(l, h, 1) & ~COL0_HI) | ((h >>> 1) & ~COL9_HI);
+            }
+            nextLo &= axisLo;
+            nextHi &= axisHi;
+            if (nextLo == l && nextHi == h) {
+                foundLo = l;
+                foundHi = h;
+                return;
+            }
+            l = nextLo;
+            h = nextHi;
+        }
+    }
+
+    /**
+     * Checks if the player has won yet
+     *
+     * @return true once every ship placed on the board has been sunk
+     */
+    public boolean didWin() {
+        return shipsPlaced > 0 && sunkenShips == shipsPlaced;
+    }
+
+    /**
+     * Returns whether cell i has already been shot, either directly or by being part of the
+     * border of a sunken ship.
+     */
+    public boolean isShot(int i) {
+        return test(hitsLo | missesLo | sunkBorderLo, hitsHi | missesHi | sunkBorderHi, i);
+    }
+
+    public int getNumShots() {
+        return Math.max(numShots, 0);
+    }
+
+    public int getSunkenShips() {
+        return sunkenShips;
+    }
+
+    /**
+     * Returns the number of ships of the given length still afloat.
+     */
+    public int getRemaining(int length) {
+        return remaining[length];
+    }
+
+    /**
+     * Returns the contents of a cell as the same string Battleship.getCell would.
+     *
+     * @param c column to retrieve
+     * @param r row to retrieve
+     */
+    public String getCell(int c, int r) {
+        int i = r * SIZE + c;
+        if (test(hitsLo, hitsHi, i)) {
+            return "X";
+        } else if (test(missesLo, missesHi, i)) {
+            return "O";
+        } else if (test(sunkBorderLo, sunkBorderHi, i)) {
+            return "x";
+        } else if (test(shipsLo, shipsHi, i)) {
+            boolean vertical = test(verticalLo, verticalHi, i);
+            findShip(i, vertical);
+            int length = Long.bitCount(foundLo) + Long.bitCount(foundHi);
+            return length == 1 ? "1" : (vertical ? "V" : "H") + length;
+        } else if (test(dilateLo(shipsLo, shipsHi), dilateHi(shipsLo, shipsHi), i)) {
+            return ".";
+        }
+        return "_";
+    }
+
+    // ---- 128-bit mask helpers ----
+
+    /** Returns the lo word of the mask holding only cell i. */
+    static long lo(int i) {
+        return i < 64 ? 1L << i : 0;
+    }
+
+    /** Returns the hi word of the mask holding only cell i. */
+    static long hi(int i) {
+        return i < 64 ? 0 : 1L << (i - 64);
+    }
+
+    /** Returns whether cell i is in the mask (lo, hi). */
+    static boolean test(long lo, long hi, int i) {
+        return i < 64 ? (lo >>> i & 1) != 0 : (hi >>> (i - 64) & 1) != 0;
+    }
+
+    /** Returns the hi word of (lo, hi) shifted left by 0 < n < 64 cells. */
+    static long shlHi(long lo, long hi, int n) {
+        return ((hi << n) | (lo >>> (64 - n))) & HI_MASK;
+    }
+
+    /** Returns the lo word of (lo, hi) shifted right by 0 < n < 64 cells. */
+    static long shrLo(long lo, long hi, int n) {
+        return (lo >>> n) | (hi << (64 - n));
+    }
+
+    /**
+     * Returns the lo word of the mask grown by one cell in all eight directions, without
+     * wrapping around the edges of the board.
+     */
+    static long dilateLo(long lo, long hi) {
+        long rowLo = lo | ((lo << 1) & ~COL0_LO) | (shrLo(lo, hi, 1) & ~COL9_LO);
+        long rowHi = hi | (shlHi(lo, hi, 1) & ~COL0_HI) | ((hi >>> 1) & ~COL9_HI);
+        return rowLo | (rowLo << SIZE) | shrLo(rowLo, rowHi, SIZE);
+    }
+
+    /** Returns the hi word of the mask grown by one cell, see dilateLo. */
+    static long dilateHi(long lo, long hi) {
+        long rowLo = lo | ((lo << 1) & ~COL0_LO) | (shrLo(lo, hi, 1) & ~COL9_LO);
+        long rowHi = hi | (shlHi(lo, hi, 1) & ~COL0_HI) | ((hi >>> 1) & ~COL9_HI);
+        return (rowHi | shlHi(rowLo, rowHi, SIZE) | (rowHi >>> SIZE)) & HI_MASK;
+    }
+
+    /** Returns the lo word of the cells a ship covers. The ship must fit on the board. */
+    static long footprintLo(int length, boolean vertical, int row, int col) {
+        long mask = 0;
+        int step = vertical ? SIZE : 1;
+        for (int k = 0, i = row * SIZE + col; k < length; k++, i += step) {
+            mask |= lo(i);
+        }
+        return mask;
+    }
+
+    /** Returns the hi word of the cells a ship covers, see footprintLo. */
+    static long footprintHi(int length, boolean vertical, int row, int col) {
+        long mask = 0;
+        int step = vertical ? SIZE : 1;
+        for (int k = 0, i = row * SIZE + col; k < length; k++, i += step) {
+            mask |= hi(i);
+        }
+        return mask;
+    }
+}
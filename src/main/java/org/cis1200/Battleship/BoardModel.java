@@ -0,0 +1,72 @@
+package org.cis1200.Battleship;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This interface is the model of a game as the rules see it: a board
+ * generated from a seed for a GameConfig, shots that hit, miss or sink, and
+ * the count of shots and ships left. Battleship implements it with a dense
+ * array of cells, which is what the view, the history and save files work
+ * with; SparseBattleship implements it with only the cells that hold a ship
+ * or were touched, for boards too big to store cell by cell. Code that only
+ * plays games, such as BatchSimulator, works with either.
+ *
+ * Cells are numbered row * width + col, as in PlayerView.
+ */
+public interface BoardModel extends PlayerView {
+
+    /** Boards with more cells than this are sparse when made by create(), if their fleet is. */
+    int SPARSE_CELLS = 1 << 18;
+
+    /** A fleet is sparse if its footprint is at most 1 / SPARSE_SHARE of the board. */
+    int SPARSE_SHARE = 8;
+
+    /**
+     * Makes a model for a config: a SparseBattleship if the board has more than SPARSE_CELLS
+     * cells and a sparse fleet, and a Battleship otherwise. SparseBattleship only finds room
+     * for ships while most of the board is free, so crowded fleets, like the tiled configs',
+     * get a Battleship at any size.
+     *
+     * @param config the board size, fleet and shots of the game
+     * @param rng source of board seeds, used only by the new model
+     */
+    static BoardModel create(GameConfig config, RandomGenerator rng) {
+        if (config.getCells() > SPARSE_CELLS
+                && config.getFootprint() * SPARSE_SHARE <= config.getCells()) {
+            return new SparseBattleship(config, rng);
+        }
+        return new Battleship(config, rng);
+    }
+
+    /** Starts a new game on a board drawn from the model's generator. */
+    void reset();
+
+    /** Starts a new game on the board generated from a seed. */
+    void reset(long seed);
+
+    /** Returns the variant the model plays. */
+    GameConfig getConfig();
+
+    /** Returns the seed the current board was generated from. */
+    long getSeed();
+
+    /**
+     * Takes a shot. A shot at a cell that was already shot, or once the game is over, does
+     * nothing.
+     */
+    void takeShot(int col, int row);
+
+    /** Returns the contents of a cell as one of the strings of Battleship.getCell. */
+    String getCell(int col, int row);
+
+    boolean didWin();
+
+    int getNumShots();
+
+    void setNumShots(int shots);
+
+    int getSunkenShips();
+
+    /** Returns the number of ships still afloat. */
+    int getNumShips();
+}
@@ -0,0 +1,221 @@
+package org.cis1200.Battleship;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * This class draws the game board for BattleshipBoard. Everything it draws
+ * is made ahead of time: the water and the grid lines are rendered once into
+ * a background image, and the marks a cell can show (a dot, a cross, the
+ * hint) are rendered once into a sprite atlas, one cell-sized sprite per
+ * mark. Painting a frame is then one blit of the background, clipped to the
+ * area being repainted, plus one blit from the atlas for every cell inside
+ * the clip that shows a mark. Nothing is allocated while painting.
+ *
+ * The background lives in a VolatileImage when the component has a
+ * GraphicsConfiguration, so that it can stay in video memory; the contents
+ * of a VolatileImage can be lost at any time, e.g. when the display mode
+ * changes, so it is validated before every blit and redrawn when needed. The
+ * background is also kept in a BufferedImage, which is what gets drawn
+ * where there is no screen, e.g. when painting to an image.
+ *
+ * The images are rendered for one cell size, in whatever pixels the caller
+ * paints in; BattleshipBoard paints in device pixels and keeps a renderer
+ * per cell size. Lines get thicker with the cells, one pixel for every 50
+ * pixels of cell, so the board looks the same at any size.
+ */
+final class BoardRenderer {
+
+    // marks a cell can show, which are also the sprites' places in the atlas
+    static final byte NONE = 0;
+    static final byte DOT = 1;
+    static final byte CROSS = 2;
+    static final byte HINT = 3;
+    private static final int SPRITES = 4;
+
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    private final BufferedImage atlas;
+    private final BufferedImage background;
+    private VolatileImage accelerated; // copy of background in video memory, if there is one
+    private final Rectangle clip = new Rectangle(); // reused by every paint
+
+    /**
+     * Renders the background and the sprites for a board.
+     *
+     * @param cellSize length in pixels of a side of a cell
+     * @param columns columns of the board
+     * @param rows rows of the board
+     */
+    BoardRenderer(int cellSize, int columns, int rows) {
+        this.cellSize = cellSize;
+        this.columns = columns;
+        this.rows = rows;
+        background = new BufferedImage(columns * cellSize, rows * cellSize,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics g = background.getGraphics();
+        drawBackground(g);
+        g.dispose();
+        atlas = new BufferedImage(SPRITES * cellSize, cellSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D a = atlas.createGraphics();
+        drawSprites(a);
+        a.dispose();
+    }
+
+    /**
+     * Returns the mark the player sees on a cell with the given code, one of NONE, DOT and
+     * CROSS.
+     */
+    static byte mark(byte code) {
+        if ((code & Battleship.HIT) != 0) {
+            return CROSS;
+        }
+        if (code == Battleship.MISS || code == Battleship.SUNK_BORDER) {
+            return DOT;
+        }
+        return NONE;
+    }
+
+    /**
+     * Returns the side of the biggest square cells with which a board fits in an area, at
+     * least 1.
+     *
+     * @param width width of the area, in panel pixels
+     * @param height height of the area, in panel pixels
+     * @param scale device pixels per panel pixel
+     * @param columns columns of the board
+     * @param rows rows of the board
+     * @return the side of a cell, in device pixels
+     */
+    static int fitCellSize(int width, int height, double scale, int columns, int rows) {
+        int size = (int) Math.min(width * scale / columns, height * scale / rows);
+        return Math.max(size, 1);
+    }
+
+    private int lineWidth() {
+        return Math.max(cellSize / 50, 1);
+    }
+
+    private void drawBackground(Graphics g) {
+        int width = columns * cellSize;
+        int height = rows * cellSize;
+        g.setColor(BattleshipBoard.WATER);
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.BLACK);
+        for (int c = 1; c < columns; c++) {
+            g.fillRect(c * cellSize, 0, lineWidth(), height);
+        }
+        for (int r = 1; r < rows; r++) {
+            g.fillRect(0, r * cellSize, width, lineWidth());
+        }
+    }
+
+    /**
+     * Draws every sprite in its place in the atlas, which starts out transparent. The
+     * proportions are those of the original 50-pixel cells.
+     */
+    private void drawSprites(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        g.setColor(Color.BLACK);
+        g.setStroke(new BasicStroke(lineWidth()));
+        int dot = DOT * cellSize;
+        g.fillOval(dot + scale(22), scale(22), scale(10), scale(10));
+        int cross = CROSS * cellSize;
+        g.drawLine(cross + scale(11), scale(11), cross + scale(42), scale(42));
+        g.drawLine(cross + scale(11), scale(42), cross + scale(42), scale(11));
+        g.setColor(Color.ORANGE);
+        g.fillRect(HINT * cellSize + scale(2), scale(2), scale(47), scale(47));
+    }
+
+    private int scale(int pixels) {
+        return pixels * cellSize / 50;
+    }
+
+    /**
+     * Paints the part of the board inside the graphics' clip.
+     *
+     * @param g the graphics to paint with
+     * @param component the component painted on, whose GraphicsConfiguration decides where
+     *            the background is kept
+     * @param marks mark shown in every cell, indexed row * columns + col
+     * @param hint cell to show the hint on, or -1 for none
+     */
+    void paint(Graphics g, Component component, byte[] marks, int hint) {
+        clip.setBounds(0, 0, columns * cellSize, rows * cellSize);
+        g.getClipBounds(clip);
+        g.drawImage(background(component.getGraphicsConfiguration()), 0, 0, null);
+
+        int firstCol = Math.max(clip.x / cellSize, 0);
+        int firstRow = Math.max(clip.y / cellSize, 0);
+        int lastCol = Math.min((clip.x + clip.width - 1) / cellSize, columns - 1);
+        int lastRow = Math.min((clip.y + clip.height - 1) / cellSize, rows - 1);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                int cell = r * columns + c;
+                if (marks[cell] != NONE) {
+                    blit(g, marks[cell], c, r);
+                }
+                if (cell == hint) {
+                    blit(g, HINT, c, r);
+                }
+            }
+        }
+    }
+
+    private void blit(Graphics g, int sprite, int col, int row) {
+        int x = col * cellSize;
+        int y = row * cellSize;
+        int sx = sprite * cellSize;
+        g.drawImage(atlas, x, y, x + cellSize, y + cellSize, sx, 0, sx + cellSize, cellSize,
+                null);
+    }
+
+    /**
+     * Returns the background to blit: the one in video memory, restored if its contents were
+     * lost, or the BufferedImage if there is no screen to keep it for.
+     */
+    private Image background(GraphicsConfiguration gc) {
+        if (gc == null) {
+            return background;
+        }
+        int state = accelerated == null ? VolatileImage.IMAGE_INCOMPATIBLE
+                : accelerated.validate(gc);
+        if (state == VolatileImage.IMAGE_INCOMPATIBLE) {
+            flush();
+            accelerated = gc.createCompatibleVolatileImage(background.getWidth(),
+                    background.getHeight(), Transparency.OPAQUE);
+            restore();
+        } else if (state == VolatileImage.IMAGE_RESTORED) {
+            restore();
+        }
+        return accelerated;
+    }
+
+    private void restore() {
+        Graphics g = accelerated.getGraphics();
+        g.drawImage(background, 0, 0, null);
+        g.dispose();
+    }
+
+    /**
+     * Frees the video memory of the background. The renderer can still be used; it makes a
+     * new copy on the next paint.
+     */
+    void flush() {
+        if (accelerated != null) {
+            accelerated.flush();
+            accelerated = null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.cis1200.Battleship;
+
+/**
+ * This class is an immutable picture of what the player sees of a game: the
+ * mark shown in every cell, the hint, and the shot that last changed the
+ * game, if a shot did. BattleshipBoard makes one after every change to the
+ * game, on the event thread, and hands it to the render thread of an
+ * ActiveBoardView, which draws from it while the game goes on. Since a
+ * snapshot never changes, handing it over is a single volatile write, and
+ * neither thread ever waits for the other.
+ *
+ * Snapshots are numbered in the order they were made, so the render thread
+ * can tell a new one from the one it last drew.
+ */
+final class BoardSnapshot {
+
+    private final long version;
+    private final int columns;
+    private final int rows;
+    private final byte[] marks;
+    private final int hint;
+    private final int shot;
+    private final GameEngine.ShotResult result;
+
+    /**
+     * Makes a snapshot.
+     *
+     * @param version number of the snapshot, higher than that of every earlier one
+     * @param columns columns of the board
+     * @param rows rows of the board
+     * @param marks mark shown in every cell, as in BoardRenderer; copied
+     * @param hint cell the hint is shown on, or -1 for none
+     * @param shot cell of the shot that made this change, or -1 if it wasn't a shot
+     * @param result what the shot did, or null if it wasn't a shot
+     */
+    BoardSnapshot(long version, int columns, int rows, byte[] marks, int hint, int shot,
+            GameEngine.ShotResult result) {
+        if (marks.length != columns * rows) {
+            throw new IllegalArgumentException(marks.length + " marks for a " + columns + "x"
+                    + rows + " board");
+        }
+        this.version = version;
+        this.columns = columns;
+        this.rows = rows;
+        this.marks = marks.clone();
+        this.hint = hint;
+        this.shot = shot;
+        this.result = result;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    int getColumns() {
+        return columns;
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    /** Returns the mark shown in a cell. */
+    byte getMark(int cell) {
+        return marks[cell];
+    }
+
+    /**
+     * Copies the marks into an array the caller owns, e.g. to hand to a BoardRenderer
+     * without letting it see this snapshot's own array.
+     */
+    void copyMarks(byte[] into) {
+        System.arraycopy(marks, 0, into, 0, marks.length);
+    }
+
+    int getHint() {
+        return hint;
+    }
+
+    /** Returns the cell of the shot that made this change, or -1 if it wasn't a shot. */
+    int getShot() {
+        return shot;
+    }
+
+    /** Returns what the shot that made this change did, or null if it wasn't a shot. */
+    GameEngine.ShotResult getResult() {
+        return result;
+    }
+}
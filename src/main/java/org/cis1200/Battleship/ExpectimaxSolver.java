@@ -0,0 +1,510 @@
+package org.cis1200.Battleship;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * This class estimates the best win probability a player can reach from a
+ * position, given the shots they have left, by an expectimax search over
+ * what the player can see. A player's node takes the best of its moves; a
+ * move is a chance node whose outcomes are a miss, a hit, or a hit that
+ * sinks a ship, each with the probability the live ship positions give it.
+ *
+ * Searching to the end of the game is out of reach, so the search is cut
+ * off after a given number of shots and only tries the most likely cells at
+ * each node. At the cut-off, a position is scored with the chance that
+ * random fire finds every remaining ship cell with the shots left, which a
+ * good player should beat, so a deeper search tends to give a higher
+ * estimate. The results are estimates, not bounds, because of the
+ * approximation below.
+ *
+ * A position is the set of cells known to be empty, the hits on ships not
+ * yet sunk, the ships still afloat of each length, and the shots left.
+ * Positions reached by the same shots in a different order are the same,
+ * so results are kept in a transposition table keyed by a Zobrist hash of
+ * the position: a random 64-bit key for every empty cell, every hit cell,
+ * every count of ships afloat of each length and every number of shots
+ * left, XORed together. The table is a LinkedHashMap in access order that
+ * drops its least recently used entry once it holds as many entries as fit
+ * in the memory it was given.
+ *
+ * Probabilities are worked out as if each ship afloat sat uniformly at
+ * random on its live positions, independently of the others, which is an
+ * approximation: it ignores that ships can't touch each other, so the
+ * chances of the outcomes of a shot, and hence every result, can be off in
+ * either direction.
+ */
+public class ExpectimaxSolver {
+
+    private static final PlacementTable TABLE = PlacementTable.STANDARD;
+    private static final int SIZE = BitBoard.SIZE;
+    private static final int CELLS = BitBoard.CELLS;
+    private static final int MAX_LENGTH = TABLE.getMaxLength();
+    private static final int MAX_SHOTS = CELLS;
+
+    /** Rough size of one table entry on the heap, used to size the table. */
+    public static final int ENTRY_BYTES = 96;
+
+    // Zobrist keys
+    private static final long[] EMPTY_KEYS = new long[CELLS];
+    private static final long[] HIT_KEYS = new long[CELLS];
+    private static final long[][] FLEET_KEYS = new long[MAX_LENGTH + 1][CELLS + 1];
+    private static final long[] SHOT_KEYS = new long[MAX_SHOTS + 1];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED);
+        for (int c = 0; c < CELLS; c++) {
+            EMPTY_KEYS[c] = random.nextLong();
+            HIT_KEYS[c] = random.nextLong();
+        }
+        for (long[] keys : FLEET_KEYS) {
+            for (int k = 0; k < keys.length; k++) {
+                keys[k] = random.nextLong();
+            }
+        }
+        for (int s = 0; s <= MAX_SHOTS; s++) {
+            SHOT_KEYS[s] = random.nextLong();
+        }
+    }
+
+    /**
+     * An entry of the transposition table: the value of a position, searched to some depth.
+     */
+    private static final class Entry {
+        final double value;
+        final int depth;
+        final int move;
+
+        Entry(double value, int depth, int move) {
+            this.value = value;
+            this.depth = depth;
+            this.move = move;
+        }
+    }
+
+    private final int depth;
+    private final int branching;
+    private final Map<Long, Entry> table;
+    private long lookups;
+    private long hits;
+    private long nodes;
+
+    /**
+     * Creates a solver.
+     *
+     * @param depth number of shots to search ahead
+     * @param branching number of cells tried at each node, the most likely first
+     * @param cacheBytes memory the transposition table may take, roughly
+     */
+    public ExpectimaxSolver(int depth, int branching, long cacheBytes) {
+        if (depth < 0 || branching < 1) {
+            throw new IllegalArgumentException("depth must be at least 0 and branching 1");
+        }
+        this.depth = depth;
+        this.branching = branching;
+        int capacity = (int) Math.max(16, Math.min(Integer.MAX_VALUE / 2,
+                cacheBytes / ENTRY_BYTES));
+        table = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Estimates the best chance of winning from what a player can see of a board.
+     *
+     * @param board the board
+     * @param shotsLeft the shots the player has left
+     * @return an estimate of the best win probability
+     */
+    public double winProbability(PlayerView board, int shotsLeft) {
+        State s = State.of(board);
+        return value(s, Math.min(shotsLeft, MAX_SHOTS), depth);
+    }
+
+    /**
+     * Returns the cell the search thinks is the best to shoot next.
+     *
+     * @param board the board
+     * @param shotsLeft the shots the player has left
+     * @return the cell, as row * size + col, or -1 if the game is already over
+     */
+    public int bestShot(PlayerView board, int shotsLeft) {
+        State s = State.of(board);
+        int shots = Math.min(shotsLeft, MAX_SHOTS);
+        value(s, shots, Math.max(depth, 1));
+        Entry e = table.get(s.hash(shots));
+        return e == null ? -1 : e.move;
+    }
+
+    /** Returns the number of positions searched so far. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** Returns the fraction of table lookups that found the position. */
+    public double getHitRate() {
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /** Returns the number of positions in the table. */
+    public int getTableSize() {
+        return table.size();
+    }
+
+    /**
+     * Returns the value of a position searched to the given depth.
+     */
+    private double value(State s, int shots, int depthLeft) {
+        int needed = s.cellsToHit();
+        if (needed == 0) {
+            return 1;
+        }
+        if (shots < needed) {
+            return 0;
+        }
+        if (depthLeft == 0) {
+            return s.randomFireWinProbability(shots);
+        }
+
+        long key = s.hash(shots);
+        lookups++;
+        Entry cached = table.get(key);
+        if (cached != null && cached.depth >= depthLeft) {
+            hits++;
+            return cached.value;
+        }
+        nodes++;
+
+        Probabilities p = s.probabilities();
+        int[] moves = p.best(branching);
+        double best = 0;
+        int bestMove = -1;
+        for (int c : moves) {
+            if (c < 0) {
+                break;
+            }
+            double hit = p.hit[c];
+            double v = (1 - hit) * value(s.miss(c), shots - 1, depthLeft - 1);
+            if (hit > 0) {
+                double sink = p.sink[c];
+                if (sink < 1) {
+                    v += hit * (1 - sink) * value(s.hit(c), shots - 1, depthLeft - 1);
+                }
+                if (sink > 0) {
+                    v += hit * sink * value(s.sink(c), shots - 1, depthLeft - 1);
+                }
+            }
+            if (v > best || bestMove < 0) {
+                best = v;
+                bestMove = c;
+            }
+        }
+        table.put(key, new Entry(best, depthLeft, bestMove));
+        return best;
+    }
+
+    /**
+     * The chance that each cell holds a ship, and that a hit there sinks it.
+     */
+    private static final class Probabilities {
+        final double[] hit = new double[CELLS];
+        final double[] sink = new double[CELLS];
+        final boolean[] open = new boolean[CELLS]; // cells that can still be shot
+
+        /**
+         * Returns the n open cells most likely to hold a ship, padded with -1.
+         */
+        int[] best(int n) {
+            int[] moves = new int[n];
+            java.util.Arrays.fill(moves, -1);
+            for (int c = 0; c < CELLS; c++) {
+                if (!open[c]) {
+                    continue;
+                }
+                // insert c into the sorted list of moves
+                int i = n;
+                while (i > 0 && (moves[i - 1] < 0 || hit[moves[i - 1]] < hit[c])) {
+                    i--;
+                }
+                if (i < n) {
+                    System.arraycopy(moves, i, moves, i + 1, n - i - 1);
+                    moves[i] = c;
+                }
+            }
+            return moves;
+        }
+    }
+
+    /**
+     * A position as a player sees it. States are never changed: each move makes a new one.
+     */
+    static final class State {
+        final long emptyLo, emptyHi; // cells known to hold no ship afloat
+        final long hitsLo, hitsHi; // hits on ships that haven't sunk yet
+        final int[] afloat; // ships afloat, by length
+
+        State(long emptyLo, long emptyHi, long hitsLo, long hitsHi, int[] afloat) {
+            this.emptyLo = emptyLo;
+            this.emptyHi = emptyHi;
+            this.hitsLo = hitsLo;
+            this.hitsHi = hitsHi;
+            this.afloat = afloat;
+        }
+
+        /**
+         * Reads the position off a board.
+         */
+        static State of(PlayerView board) {
+            int[] fleet = board.getFleet();
+            if (board.getWidth() != SIZE || board.getHeight() != SIZE || fleet[0] > MAX_LENGTH) {
+                throw new IllegalArgumentException("needs a " + SIZE + "x" + SIZE
+                        + " board with no ship longer than " + MAX_LENGTH);
+            }
+            long emptyLo = 0, emptyHi = 0, hitsLo = 0, hitsHi = 0;
+            for (int c = 0; c < CELLS; c++) {
+                if (board.isHit(c)) {
+                    hitsLo |= BitBoard.lo(c);
+                    hitsHi |= BitBoard.hi(c);
+                } else if (board.isShot(c)) {
+                    emptyLo |= BitBoard.lo(c);
+                    emptyHi |= BitBoard.hi(c);
+                }
+            }
+            int[] afloat = new int[MAX_LENGTH + 1];
+            for (int len : fleet) {
+                afloat[len]++;
+            }
+            State s = new State(emptyLo, emptyHi, hitsLo, hitsHi, afloat);
+            for (int c = 0; c < CELLS; c++) {
+                if (BitBoard.test(s.hitsLo, s.hitsHi, c)
+                        && ProbabilityStrategy.isSunk(board, c)) {
+                    s = s.sink(c);
+                } else if (BitBoard.test(s.hitsLo, s.hitsHi, c)) {
+                    s = s.hit(c); // marks the cells diagonal to the hit empty
+                }
+            }
+            return s;
+        }
+
+        long hash(int shots) {
+            long h = SHOT_KEYS[shots];
+            for (int c = 0; c < CELLS; c++) {
+                if (BitBoard.test(emptyLo, emptyHi, c)) {
+                    h ^= EMPTY_KEYS[c];
+                } else if (BitBoard.test(hitsLo, hitsHi, c)) {
+                    h ^= HIT_KEYS[c];
+                }
+            }
+            for (int len = 1; len <= MAX_LENGTH; len++) {
+                h ^= FLEET_KEYS[len][afloat[len]];
+            }
+            return h;
+        }
+
+        /** Returns the number of ship cells still to be hit. */
+        int cellsToHit() {
+            int cells = 0;
+            for (int len = 1; len <= MAX_LENGTH; len++) {
+                cells += len * afloat[len];
+            }
+            return cells - Long.bitCount(hitsLo) - Long.bitCount(hitsHi);
+        }
+
+        /**
+         * Returns the chance that shooting the open cells in a random order hits every ship
+         * cell left within the given shots.
+         */
+        double randomFireWinProbability(int shots) {
+            int open = CELLS - Long.bitCount(emptyLo | hitsLo) - Long.bitCount(emptyHi | hitsHi);
+            int needed = cellsToHit();
+            if (shots >= open) {
+                return 1;
+            }
+            double p = 1;
+            for (int i = 0; i < needed; i++) {
+                p *= (double) (shots - i) / (open - i);
+            }
+            return p;
+        }
+
+        State miss(int c) {
+            return new State(emptyLo | BitBoard.lo(c), emptyHi | BitBoard.hi(c), hitsLo, hitsHi,
+                    afloat);
+        }
+
+        /**
+         * Returns the position after a hit that doesn't sink a ship. The cells diagonal to a
+         * hit are empty, since ships don't touch.
+         */
+        State hit(int c) {
+            long eLo = emptyLo;
+            long eHi = emptyHi;
+            int row = c / SIZE;
+            int col = c % SIZE;
+            for (int dr = -1; dr <= 1; dr += 2) {
+                for (int dc = -1; dc <= 1; dc += 2) {
+                    int r = row + dr;
+                    int k = col + dc;
+                    if (r >= 0 && r < SIZE && k >= 0 && k < SIZE) {
+                        eLo |= BitBoard.lo(r * SIZE + k);
+                        eHi |= BitBoard.hi(r * SIZE + k);
+                    }
+                }
+            }
+            return new State(eLo, eHi, hitsLo | BitBoard.lo(c), hitsHi | BitBoard.hi(c),
+                    afloat);
+        }
+
+        /**
+         * Returns the position after a hit that sinks the ship made of the line of hits
+         * through c: the ship and its border are empty from then on.
+         */
+        State sink(int c) {
+            long lo = hitsLo | BitBoard.lo(c);
+            long hi = hitsHi | BitBoard.hi(c);
+            long shipLo = BitBoard.lo(c);
+            long shipHi = BitBoard.hi(c);
+            // grow the ship along the hits next to it
+            long prevLo;
+            long prevHi;
+            do {
+                prevLo = shipLo;
+                prevHi = shipHi;
+                long nearLo = BitBoard.dilateLo(shipLo, shipHi);
+                long nearHi = BitBoard.dilateHi(shipLo, shipHi);
+                shipLo |= nearLo & lo;
+                shipHi |= nearHi & hi;
+            } while (shipLo != prevLo || shipHi != prevHi);
+            int length = Long.bitCount(shipLo) + Long.bitCount(shipHi);
+            int[] left = afloat.clone();
+            if (length <= MAX_LENGTH && left[length] > 0) {
+                left[length]--;
+            }
+            return new State(emptyLo | BitBoard.dilateLo(shipLo, shipHi),
+                    emptyHi | BitBoard.dilateHi(shipLo, shipHi), lo & ~shipLo, hi & ~shipHi,
+                    left);
+        }
+
+        /**
+         * Returns whether position p can still hold a ship: none of its cells is empty, and
+         * no hit touches it without being covered by it.
+         */
+        boolean fits(int p) {
+            long fLo = TABLE.footprintLo(p);
+            long fHi = TABLE.footprintHi(p);
+            return (fLo & emptyLo) == 0 && (fHi & emptyHi) == 0
+                    && (TABLE.haloLo(p) & hitsLo & ~fLo) == 0
+                    && (TABLE.haloHi(p) & hitsHi & ~fHi) == 0;
+        }
+
+        Probabilities probabilities() {
+            Probabilities p = new Probabilities();
+            boolean targeting = (hitsLo | hitsHi) != 0;
+            double[] cover = new double[CELLS];
+            double[] completes = new double[CELLS];
+            if (targeting) {
+                // only the positions through the hits count, each weighted by its ships
+                double total = 0;
+                for (int q = 0; q < TABLE.size(); q++) {
+                    int len = ShipPlacer.length(TABLE.placement(q));
+                    if (afloat[len] == 0 || !fits(q)
+                            || ((TABLE.footprintLo(q) & hitsLo)
+                                    | (TABLE.footprintHi(q) & hitsHi)) == 0) {
+                        continue;
+                    }
+                    int covered = Long.bitCount(TABLE.footprintLo(q) & hitsLo)
+                            + Long.bitCount(TABLE.footprintHi(q) & hitsHi);
+                    double w = afloat[len];
+                    total += w;
+                    for (int c : cells(q)) {
+                        cover[c] += w;
+                        if (covered == len - 1) {
+                            completes[c] += w; // the only cell this ship is missing
+                        }
+                    }
+                }
+                for (int c = 0; c < CELLS; c++) {
+                    p.hit[c] = total == 0 ? 0 : cover[c] / total;
+                    p.sink[c] = cover[c] == 0 ? 0 : completes[c] / cover[c];
+                }
+            } else {
+                // expected number of ships over each cell, if each sits uniformly on its
+                // live positions
+                int[] live = new int[MAX_LENGTH + 1];
+                for (int q = 0; q < TABLE.size(); q++) {
+                    if (fits(q)) {
+                        live[ShipPlacer.length(TABLE.placement(q))]++;
+                    }
+                }
+                for (int q = 0; q < TABLE.size(); q++) {
+                    int len = ShipPlacer.length(TABLE.placement(q));
+                    if (afloat[len] == 0 || !fits(q)) {
+                        continue;
+                    }
+                    double w = (double) afloat[len] / live[len];
+                    for (int c : cells(q)) {
+                        cover[c] += w;
+                        if (len == 1) {
+                            completes[c] += w;
+                        }
+                    }
+                }
+                for (int c = 0; c < CELLS; c++) {
+                    p.hit[c] = Math.min(1, cover[c]);
+                    p.sink[c] = cover[c] == 0 ? 0 : completes[c] / cover[c];
+                }
+            }
+            for (int c = 0; c < CELLS; c++) {
+                p.open[c] = !BitBoard.test(emptyLo | hitsLo, emptyHi | hitsHi, c);
+            }
+            return p;
+        }
+
+        private static int[] cells(int q) {
+            int placement = TABLE.placement(q);
+            int len = ShipPlacer.length(placement);
+            int step = ShipPlacer.isVertical(placement) ? SIZE : 1;
+            int first = ShipPlacer.row(placement) * SIZE + ShipPlacer.col(placement);
+            int[] cells = new int[len];
+            for (int i = 0; i < len; i++) {
+                cells[i] = first + i * step;
+            }
+            return cells;
+        }
+    }
+
+    /**
+     * Prints, for a range of shot limits, the estimated best win probability from the start
+     * of a game next to the win rate the density strategy reaches in simulated games, to help
+     * choose the limit.
+     *
+     * @param args search depth, branching and table size in megabytes (default 3 4 64)
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int branching = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long megabytes = args.length > 2 ? Long.parseLong(args[2]) : 64;
+        Battleship board = new Battleship(1L);
+        BatchSimulator.Report density = BatchSimulator.run("density", ProbabilityStrategy::new,
+                20_000, 1L);
+        long won = 0;
+        int counted = -1;
+        for (int shots = 45; shots <= 85; shots += 5) {
+            while (counted < shots) {
+                won += density.getGamesTaking(++counted);
+            }
+            ExpectimaxSolver solver = new ExpectimaxSolver(depth, branching,
+                    megabytes << 20);
+            long start = System.nanoTime();
+            double p = solver.winProbability(board, shots);
+            System.out.printf("%3d shots: search ~ %.4f  density strategy %.4f  "
+                    + "(%,d nodes, %.0f%% table hits, %.1f ms)%n", shots, p,
+                    (double) won / density.getGames(), solver.getNodes(),
+                    100 * solver.getHitRate(), (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.cis1200.Battleship;
+
+/**
+ * This class keeps time for a render loop with a fixed timestep. Animations
+ * advance in whole ticks of a fixed length, however long frames take, so
+ * they run at the same speed on a fast machine and a slow one; frames are
+ * scheduled once per frame period, and each has until the next one is due
+ * to be drawn.
+ *
+ * A frame that ends after that has gone over its budget, and every frame
+ * period it overran is counted as a dropped frame: the screen showed an old
+ * frame for that long. The clock then schedules the next frame right away
+ * instead of trying to catch up. Likewise, if the loop falls
+ * so far behind that more than maxUpdates ticks are due at once, the extra
+ * ticks are skipped and counted rather than run, so that a stall doesn't
+ * turn into a burst of updates that stalls the next frame too.
+ *
+ * Times are System.nanoTime() values passed in by the caller, so the clock
+ * can be driven by a fake time in tests. The counters are written by the
+ * render thread only and can be read from any thread.
+ */
+final class FrameClock {
+
+    private final long tickNanos;
+    private final long frameNanos;
+    private final int maxUpdates;
+    private long lastTick; // time the last tick that was run or skipped was due
+    private long next; // time the next frame is due to start
+    private long ticks; // ticks run
+
+    private volatile long frames;
+    private volatile long droppedFrames;
+    private volatile long skippedTicks;
+    private volatile long lastFrameNanos;
+
+    /**
+     * Creates a clock whose first frame is due at start, and first tick a tick after it.
+     *
+     * @param tickNanos length of a tick
+     * @param frameNanos length of a frame period, which is each frame's budget
+     * @param maxUpdates most ticks to run before a frame
+     * @param start the time the loop starts
+     */
+    FrameClock(long tickNanos, long frameNanos, int maxUpdates, long start) {
+        if (tickNanos <= 0 || frameNanos <= 0 || maxUpdates <= 0) {
+            throw new IllegalArgumentException("periods and maxUpdates must be positive");
+        }
+        this.tickNanos = tickNanos;
+        this.frameNanos = frameNanos;
+        this.maxUpdates = maxUpdates;
+        lastTick = start;
+        next = start;
+    }
+
+    /**
+     * Returns the number of ticks to run before drawing a frame that starts now, and counts
+     * them as run. Ticks beyond maxUpdates are skipped.
+     */
+    int ticksDue(long now) {
+        long due = (now - lastTick) / tickNanos;
+        if (due <= 0) {
+            return 0;
+        }
+        lastTick += due * tickNanos;
+        if (due > maxUpdates) {
+            skippedTicks += due - maxUpdates;
+            due = maxUpdates;
+        }
+        ticks += due;
+        return (int) due;
+    }
+
+    /**
+     * Records a frame drawn from start to end, and schedules the next one.
+     */
+    void frameDone(long start, long end) {
+        frames++;
+        lastFrameNanos = end - start;
+        long budget = Math.max(next, start) + frameNanos; // the frame after it is due then
+        if (end > budget) {
+            droppedFrames += (end - budget) / frameNanos + 1;
+            next = end;
+        } else {
+            next = budget;
+        }
+    }
+
+    /**
+     * Records that the loop had nothing to draw at now, and schedules the next frame a period
+     * later if this one was due. An idle frame is never late, so it drops nothing.
+     */
+    void frameSkipped(long now) {
+        if (now >= next) {
+            next = now + frameNanos;
+        }
+    }
+
+    /**
+     * Returns the time the next frame is due. The loop should wait until then.
+     */
+    long getNextFrame() {
+        return next;
+    }
+
+    /** Returns the number of ticks run, i.e. the animation time in ticks. */
+    long getTicks() {
+        return ticks;
+    }
+
+    long getFrames() {
+        return frames;
+    }
+
+    long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    /** Returns how long the last frame took to draw, in nanoseconds. */
+    long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+}
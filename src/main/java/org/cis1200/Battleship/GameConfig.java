@@ -0,0 +1,196 @@
+package org.cis1200.Battleship;
+
+import java.util.Arrays;
+
+/**
+ * This class describes a variant of the game: the width and height of the
+ * board, the lengths of the ships in the fleet and the number of shots the
+ * player gets. A Battleship is created for a config and keeps it across
+ * resets. Configs never change once created, so one can be shared by any
+ * number of games and threads.
+ *
+ * STANDARD is the classic game: a 10x10 board, a fleet of 1 carrier, 2
+ * battleships, 3 cruisers and 4 submarines, and 65 shots. tiled(n) is the
+ * classic game n times as wide and n times as high, with n * n copies of the
+ * fleet and of the shots. Since the classic fleet always fits on a 10x10
+ * board, a tiled fleet always fits too (each copy fits in its own tile), and
+ * ships cover the same share of the board.
+ *
+ * Ship lengths are stored in the low bits of a cell's code (see Battleship),
+ * so no ship can be longer than MAX_LENGTH.
+ *
+ * A fleet is refused if it plainly can't fit: grow every ship by one cell to
+ * the right and one down, into a block of 2 by length + 1 cells. Since ships
+ * never touch, those blocks never overlap, and they all lie on a board one
+ * cell wider and higher, so their area, the fleet's footprint, can't be more
+ * than that board's. A fleet that passes may still not fit, e.g. eleven
+ * carriers on a 10x10 board; ShipPlacer gives up on those.
+ */
+public final class GameConfig {
+
+    public static final int MAX_LENGTH = Battleship.LENGTH_MASK;
+    public static final int MAX_SIDE = 2048;
+
+    public static final GameConfig STANDARD = new GameConfig(10, 10, ShipPlacer.FLEET, 65);
+    public static final GameConfig LARGE = tiled(2);
+    public static final GameConfig HUGE = tiled(5);
+
+    private final int width;
+    private final int height;
+    private final int[] fleet; // ship lengths, longest first
+    private final int shots;
+
+    /**
+     * Creates a config.
+     *
+     * @param width number of columns of the board
+     * @param height number of rows of the board
+     * @param fleet length of every ship, in any order
+     * @param shots number of shots the player gets
+     * @throws IllegalArgumentException if the board is empty or too big, the fleet is empty,
+     *             a ship is too long for the board, the fleet's footprint is bigger than the
+     *             board or the shots are negative
+     */
+    public GameConfig(int width, int height, int[] fleet, int shots) {
+        if (width < 1 || height < 1 || width > MAX_SIDE || height > MAX_SIDE) {
+            throw new IllegalArgumentException("board must be between 1x1 and " + MAX_SIDE
+                    + "x" + MAX_SIDE + ", not " + width + "x" + height);
+        }
+        if (fleet.length == 0) {
+            throw new IllegalArgumentException("fleet has no ships");
+        }
+        if (shots < 0) {
+            throw new IllegalArgumentException("negative number of shots: " + shots);
+        }
+        int[] sorted = fleet.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length / 2; i++) {
+            int t = sorted[i];
+            sorted[i] = sorted[sorted.length - 1 - i];
+            sorted[sorted.length - 1 - i] = t;
+        }
+        if (sorted[sorted.length - 1] < 1 || sorted[0] > MAX_LENGTH
+                || sorted[0] > Math.max(width, height)) {
+            throw new IllegalArgumentException("ships must be from 1 to "
+                    + Math.min(MAX_LENGTH, Math.max(width, height)) + " cells long");
+        }
+        long footprint = footprint(sorted);
+        if (footprint > (long) (width + 1) * (height + 1)) {
+            throw new IllegalArgumentException("a fleet with a footprint of " + footprint
+                    + " cells can't fit on a " + width + "x" + height + " board");
+        }
+        this.width = width;
+        this.height = height;
+        this.fleet = sorted;
+        this.shots = shots;
+    }
+
+    private static long footprint(int[] fleet) {
+        long cells = 0;
+        for (int len : fleet) {
+            cells += 2L * (len + 1);
+        }
+        return cells;
+    }
+
+    /**
+     * Returns the classic game scaled up n times in each direction.
+     *
+     * @param n number of 10x10 tiles along each side of the board
+     */
+    public static GameConfig tiled(int n) {
+        return new GameConfig(10 * n, 10 * n, classicFleets(n * n), 65 * n * n);
+    }
+
+    /**
+     * Returns the ship lengths of the given number of copies of the classic fleet, e.g. for a
+     * sparse board with a fleet in proportion to its area.
+     */
+    public static int[] classicFleets(int copies) {
+        int[] fleet = new int[copies * ShipPlacer.FLEET.length];
+        for (int i = 0; i < fleet.length; i++) {
+            fleet[i] = ShipPlacer.FLEET[i % ShipPlacer.FLEET.length];
+        }
+        return fleet;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /** Returns the number of cells on the board. */
+    public int getCells() {
+        return width * height;
+    }
+
+    /** Returns the length of every ship, longest first. */
+    public int[] getFleet() {
+        return fleet.clone();
+    }
+
+    /** Returns the number of ships in the fleet. */
+    public int getShips() {
+        return fleet.length;
+    }
+
+    /** Returns the length of the longest ship. */
+    public int getMaxLength() {
+        return fleet[0];
+    }
+
+    /** Returns the number of ships of the given length in the fleet. */
+    public int countShips(int length) {
+        int n = 0;
+        for (int len : fleet) {
+            if (len == length) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** Returns the number of cells the whole fleet covers. */
+    public int getShipCells() {
+        int cells = 0;
+        for (int len : fleet) {
+            cells += len;
+        }
+        return cells;
+    }
+
+    /**
+     * Returns the fleet's footprint: the cells its ships cover once each is grown by one cell
+     * to the right and one down, none of which another ship may use.
+     */
+    public long getFootprint() {
+        return footprint(fleet);
+    }
+
+    public int getShots() {
+        return shots;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GameConfig)) {
+            return false;
+        }
+        GameConfig c = (GameConfig) o;
+        return width == c.width && height == c.height && shots == c.shots
+                && Arrays.equals(fleet, c.fleet);
+    }
+
+    @Override
+    public int hashCode() {
+        return (31 * (31 * width + height) + shots) * 31 + Arrays.hashCode(fleet);
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + height + ", " + fleet.length + " ships, " + shots + " shots";
+    }
+}
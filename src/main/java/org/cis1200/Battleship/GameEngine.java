@@ -0,0 +1,368 @@
+package org.cis1200.Battleship;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class runs a game of Battleship without any user interface, so that
+ * games can be played by a server, a batch job or a test as easily as by
+ * the Swing board. It owns the game and its history, and is the one place
+ * where shots are taken, undone and redone.
+ *
+ * Clients drive the engine with cells, never pixels, and find out what
+ * happened either from the ShotResult a shot returns or by registering a
+ * Listener, which is told about every shot and every other change to the
+ * game. Listeners are called on the thread that made the change, before
+ * the method making it returns. BattleshipBoard is one such client: it turns
+ * clicks into shots and repaints when it is told the game changed.
+ *
+ * An engine is not thread-safe; each thread should play its own engine.
+ */
+public class GameEngine implements PlayerView {
+
+    /**
+     * What a shot did.
+     */
+    public enum ShotResult {
+        /** The shot hit water. */
+        MISS,
+        /** The shot hit a ship that is still afloat. */
+        HIT,
+        /** The shot sank a ship. */
+        SINK,
+        /** The shot changed nothing: the cell was already shot, or the game is over. */
+        IGNORED
+    }
+
+    /**
+     * Receives the changes to a game. Every method does nothing unless overridden.
+     */
+    public interface Listener {
+        /**
+         * Called after a new game is started, or a game is loaded or recovered.
+         */
+        default void gameStarted(GameEngine engine) {
+        }
+
+        /**
+         * Called after a shot that changed the game.
+         */
+        default void shotTaken(GameEngine engine, int col, int row, ShotResult result) {
+        }
+
+        /**
+         * Called after shots are undone or redone.
+         */
+        default void historyMoved(GameEngine engine) {
+        }
+    }
+
+    private final RandomGenerator rng; // draws the seed of each new game
+    private final Battleship game;
+    private final GameHistory history;
+    private final List<Listener> listeners = new ArrayList<>();
+    private boolean seeded = true; // whether game is its seed's board plus the history
+
+    /**
+     * Creates an engine with a new game on a random board.
+     */
+    public GameEngine() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Creates an engine whose games are all drawn from one seed, so that the same seed
+     * always gives the same sequence of boards.
+     *
+     * @param seed seed of the engine's random number generator
+     */
+    public GameEngine(long seed) {
+        this(GameConfig.STANDARD, seed);
+    }
+
+    /**
+     * Creates an engine for a variant of the game, whose games are all drawn from one seed.
+     *
+     * @param config the board size, fleet and shots of every game
+     * @param seed seed of the engine's random number generator
+     */
+    public GameEngine(GameConfig config, long seed) {
+        this(config, new SplittableRandom(seed));
+    }
+
+    private GameEngine(RandomGenerator rng) {
+        this(GameConfig.STANDARD, rng);
+    }
+
+    private GameEngine(GameConfig config, RandomGenerator rng) {
+        this.rng = rng;
+        game = new Battleship(config, rng.nextLong());
+        history = new GameHistory(game);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts a new game on a random board.
+     */
+    public void newGame() {
+        newGame(rng.nextLong());
+    }
+
+    /**
+     * Starts a new game on the board generated from a seed.
+     *
+     * @param seed seed of the board
+     */
+    public void newGame(long seed) {
+        game.reset(seed);
+        history.clear();
+        seeded = true;
+        for (Listener l : listeners) {
+            l.gameStarted(this);
+        }
+    }
+
+    /**
+     * Takes a shot.
+     *
+     * @param col column of the shot
+     * @param row row of the shot
+     * @return what the shot did
+     * @throws IllegalArgumentException if the cell is off the board
+     */
+    public ShotResult shoot(int col, int row) {
+        if (col < 0 || col >= game.getWidth() || row < 0 || row >= game.getHeight()) {
+            throw new IllegalArgumentException("no cell (" + col + ", " + row + ") on a "
+                    + game.getWidth() + "x" + game.getHeight() + " board");
+        }
+        byte before = game.getCode(col, row);
+        int sunk = game.getSunkenShips();
+        if (!history.takeShot(col, row)) {
+            return ShotResult.IGNORED;
+        }
+        ShotResult result = result(before, game.getSunkenShips() > sunk);
+        for (Listener l : listeners) {
+            l.shotTaken(this, col, row, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns what a shot that changed the game did.
+     *
+     * @param before code of the shot's cell before the shot
+     * @param sank whether the shot sank a ship
+     */
+    static ShotResult result(byte before, boolean sank) {
+        if ((before & Battleship.SHIP) == 0) {
+            return ShotResult.MISS;
+        }
+        return sank ? ShotResult.SINK : ShotResult.HIT;
+    }
+
+    /**
+     * Undoes the most recent shot.
+     *
+     * @return false if there was no shot to undo
+     */
+    public boolean undo() {
+        return moved(history.undo());
+    }
+
+    /**
+     * Takes again the most recent shot that was undone.
+     *
+     * @return false if there was no shot to redo
+     */
+    public boolean redo() {
+        return moved(history.redo());
+    }
+
+    /**
+     * Moves the game to the point just after the given number of shots.
+     *
+     * @param shot number of shots to have taken, from 0 to getHistoryLength()
+     */
+    public void seek(int shot) {
+        history.seek(shot);
+        moved(true);
+    }
+
+    private boolean moved(boolean changed) {
+        if (changed) {
+            for (Listener l : listeners) {
+                l.historyMoved(this);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the game in the SaveFile format.
+     */
+    public ByteBuffer save() {
+        return SaveFile.encode(game, history);
+    }
+
+    /**
+     * Loads a game saved in either SaveFile format.
+     *
+     * @param contents the saved game
+     * @throws IOException if the contents aren't a valid saved game. The game is left
+     *             unchanged in that case.
+     */
+    public void load(ByteBuffer contents) throws IOException {
+        seeded = SaveFile.apply(contents, game, history);
+        for (Listener l : listeners) {
+            l.gameStarted(this);
+        }
+    }
+
+    /**
+     * Picks up the last game in a ShotJournal file.
+     *
+     * @param journal the journal file
+     * @return false, leaving the game alone, if the journal holds no game with a shot in it
+     * @throws IOException if the file can't be read
+     */
+    public boolean recover(Path journal) throws IOException {
+        if (!ShotJournal.recover(journal, game, history)) {
+            return false;
+        }
+        seeded = true;
+        for (Listener l : listeners) {
+            l.gameStarted(this);
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the game is the board generated from its seed plus the shots in its
+     * history. This is false only after loading a game whose shots couldn't be replayed.
+     */
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    public long getSeed() {
+        return game.getSeed();
+    }
+
+    /** Returns the length of a side of the board, or its width if it isn't square. */
+    public int getSize() {
+        return game.getSize();
+    }
+
+    @Override
+    public int getWidth() {
+        return game.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return game.getHeight();
+    }
+
+    @Override
+    public int[] getFleet() {
+        return game.getFleet();
+    }
+
+    public GameConfig getConfig() {
+        return game.getConfig();
+    }
+
+    /**
+     * Returns the contents of a cell as one of the strings of Battleship.getCell.
+     */
+    public String getCell(int col, int row) {
+        return game.getCell(col, row);
+    }
+
+    /**
+     * Returns the raw code of a cell, one of the code constants of Battleship.
+     */
+    byte getCode(int col, int row) {
+        return game.getCode(col, row);
+    }
+
+    /** Returns whether a cell has been shot, or is known to be empty because a ship sank. */
+    public boolean isShot(int col, int row) {
+        return game.isShot(row * game.getWidth() + col);
+    }
+
+    @Override
+    public boolean isShot(int cell) {
+        return game.isShot(cell);
+    }
+
+    @Override
+    public boolean isHit(int cell) {
+        return game.isHit(cell);
+    }
+
+    public int getShotsLeft() {
+        return game.getNumShots();
+    }
+
+    public int getSunkenShips() {
+        return game.getSunkenShips();
+    }
+
+    /** Returns the number of ships still afloat. */
+    public int getShipsLeft() {
+        return game.getNumShips();
+    }
+
+    public boolean isWon() {
+        return game.didWin();
+    }
+
+    /** Returns whether the game is over, won or lost. */
+    public boolean isOver() {
+        return game.didWin() || game.getNumShots() == 0;
+    }
+
+    /** Returns the number of shots taken and not undone. */
+    public int getShotsTaken() {
+        return history.size();
+    }
+
+    /** Returns the number of shots in the history, including ones that were undone. */
+    public int getHistoryLength() {
+        return history.length();
+    }
+
+    public boolean canUndo() {
+        return history.canUndo();
+    }
+
+    public boolean canRedo() {
+        return history.canRedo();
+    }
+
+    /** Returns the cell index (row * size + col) of the i-th shot taken. */
+    public int getShot(int i) {
+        return history.getShot(i);
+    }
+
+    Battleship getGame() {
+        return game;
+    }
+
+    GameHistory getHistory() {
+        return history;
+    }
+}
@@ -0,0 +1,228 @@
+package org.cis1200.Battleship;
+
+/**
+ * This class records the shots taken in a Battleship game so they can be
+ * undone and redone. Instead of keeping a copy of the board after every
+ * shot, it keeps a log of the cells each shot changed, together with what
+ * those cells held before. Undoing a shot writes the old values back; redoing
+ * it simply takes the same shot again, since a shot always has the same
+ * effect on the same board.
+ *
+ * A shot changes its own cell and, if it sinks a ship, the border around
+ * that ship, so every entry in the log is bounded by the size of the largest
+ * ship. The log is kept in flat int arrays: change k is packed as
+ * (cell index << 8) | previous cell code, and the changes of shot i end at
+ * changeEnd[i] and start where the changes of shot i - 1 end.
+ *
+ * To jump to any point of a long game without replaying it from the start,
+ * the history also keeps a full copy of the game every CHECKPOINT_INTERVAL
+ * shots. seek restores the last checkpoint at or before the target and
+ * redoes at most CHECKPOINT_INTERVAL - 1 shots, unless the target is close
+ * enough to just undo or redo to it.
+ *
+ * Shots must be taken through takeShot here rather than on the game
+ * directly, or the log won't know about them.
+ */
+public class GameHistory {
+
+    public static final int CHECKPOINT_INTERVAL = 16;
+
+    private final Battleship game;
+    private int[] shots = new int[16]; // cell index of each shot
+    private int[] changeEnd = new int[16];
+    private int[] changes = new int[64];
+    private int current; // number of shots applied to the game
+    private int recorded; // number of shots in the log, including ones undone
+    private int logged; // end of the changes written by the shot being taken
+
+    // checkpoint[k] is a copy of the game after shot k * CHECKPOINT_INTERVAL
+    private Battleship[] checkpoints = new Battleship[4];
+    private int checkpointCount;
+
+    /**
+     * Creates an empty history for a game.
+     *
+     * @param game the game whose shots are recorded
+     */
+    public GameHistory(Battleship game) {
+        this.game = game;
+        clear();
+    }
+
+    /**
+     * Takes a shot and records it. A shot that doesn't change the board, such as one at a
+     * cell that was already shot, isn't recorded. Taking a shot drops any shots that were
+     * undone and could have been redone.
+     *
+     * @param col column of the shot
+     * @param row row of the shot
+     * @return true if the shot changed the game
+     */
+    public boolean takeShot(int col, int row) {
+        if (!apply(current, row * game.getWidth() + col)) {
+            return false;
+        }
+        // checkpoints after the previous shot belonged to the shots that were dropped
+        checkpointCount = Math.min(checkpointCount, current / CHECKPOINT_INTERVAL + 1);
+        current++;
+        recorded = current;
+        if (current % CHECKPOINT_INTERVAL == 0) {
+            addCheckpoint();
+        }
+        return true;
+    }
+
+    /**
+     * Undoes the most recent shot.
+     *
+     * @return false if there was no shot to undo
+     */
+    public boolean undo() {
+        if (current == 0) {
+            return false;
+        }
+        current--;
+        game.revertShot(shots[current], changes, changeStart(current), changeEnd[current]);
+        return true;
+    }
+
+    /**
+     * Takes again the most recent shot that was undone.
+     *
+     * @return false if there was no shot to redo
+     */
+    public boolean redo() {
+        if (current == recorded) {
+            return false;
+        }
+        apply(current, shots[current]);
+        current++;
+        return true;
+    }
+
+    /**
+     * Moves the game to the point just after the given number of shots, undoing or redoing
+     * shots as needed. Any shot in the history can be reached, including ones that were
+     * undone.
+     *
+     * @param shot number of shots to have taken, from 0 to length()
+     */
+    public void seek(int shot) {
+        if (shot < 0 || shot > recorded) {
+            throw new IllegalArgumentException("no shot " + shot + " in a history of "
+                    + recorded);
+        }
+        int k = Math.min(shot / CHECKPOINT_INTERVAL, checkpointCount - 1);
+        int fromCheckpoint = shot - k * CHECKPOINT_INTERVAL;
+        if (shot >= current && shot - current <= fromCheckpoint) {
+            // moving forward from here is no further than from the checkpoint
+            while (current < shot) {
+                redo();
+            }
+            return;
+        }
+        if (shot < current && current - shot <= fromCheckpoint) {
+            while (current > shot) {
+                undo();
+            }
+            return;
+        }
+        game.restore(checkpoints[k]);
+        current = k * CHECKPOINT_INTERVAL;
+        while (current < shot) {
+            redo();
+        }
+    }
+
+    /**
+     * Forgets every shot, e.g. after the game is reset or loaded. The game as it is now
+     * becomes the start of the history.
+     */
+    public void clear() {
+        current = 0;
+        recorded = 0;
+        checkpointCount = 0;
+        addCheckpoint();
+    }
+
+    /** Returns the number of shots that have been taken and not undone. */
+    public int size() {
+        return current;
+    }
+
+    /** Returns the number of shots in the history, including ones that were undone. */
+    public int length() {
+        return recorded;
+    }
+
+    public boolean canUndo() {
+        return current > 0;
+    }
+
+    public boolean canRedo() {
+        return current < recorded;
+    }
+
+    /**
+     * Returns the cell index (row * size + col) of the i-th shot taken.
+     */
+    public int getShot(int i) {
+        return shots[i];
+    }
+
+    /**
+     * Takes the shot at a cell as shot number i and logs the cells it changes.
+     *
+     * @return true if the shot changed the game
+     */
+    private boolean apply(int i, int cell) {
+        int start = changeStart(i);
+        logged = start;
+        game.recorder = this;
+        try {
+            game.takeShot(cell % game.getWidth(), cell / game.getWidth());
+        } finally {
+            game.recorder = null;
+        }
+        if (logged == start) {
+            return false;
+        }
+        if (i == shots.length) {
+            shots = java.util.Arrays.copyOf(shots, 2 * i);
+            changeEnd = java.util.Arrays.copyOf(changeEnd, 2 * i);
+        }
+        shots[i] = cell;
+        changeEnd[i] = logged;
+        return true;
+    }
+
+    /**
+     * Called by the game for every cell a shot changes, before the change is made.
+     */
+    void record(int cell, byte previous) {
+        if (logged == changes.length) {
+            changes = java.util.Arrays.copyOf(changes, 2 * logged);
+        }
+        changes[logged++] = (cell << 8) | (previous & 0xFF);
+    }
+
+    /**
+     * Copies the game as the checkpoint for the current shot, which must be a multiple of
+     * CHECKPOINT_INTERVAL.
+     */
+    private void addCheckpoint() {
+        if (checkpointCount == checkpoints.length) {
+            checkpoints = java.util.Arrays.copyOf(checkpoints, 2 * checkpointCount);
+        }
+        if (checkpoints[checkpointCount] == null) {
+            checkpoints[checkpointCount] = new Battleship(game);
+        } else {
+            checkpoints[checkpointCount].restore(game);
+        }
+        checkpointCount++;
+    }
+
+    private int changeStart(int i) {
+        return i == 0 ? 0 : changeEnd[i - 1];
+    }
+}
@@ -0,0 +1,420 @@
+package org.cis1200.Battleship;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This strategy plays the way most people do: it hunts for a ship with
+ * spread-out shots, and once it hits one, targets that ship until it sinks.
+ * It sees only what a fair player sees, a hit as an "X", and has to work
+ * out the ship's orientation from the shots around it.
+ *
+ * While hunting, it only shoots cells of one colour of a checkerboard whose
+ * squares are as wide as the shortest ship afloat, since every ship covers
+ * at least one of them, and skips cells where no ship afloat fits. It draws
+ * random cells from a pool of the cells not yet ruled out until one of them
+ * qualifies, so a shot doesn't cost a scan of the whole board unless most
+ * of the cells left are ruled out.
+ *
+ * After a hit, it shoots the neighbour of the hit through which the most
+ * placements of the ships afloat pass. After a second hit next to the
+ * first, the ship's orientation is known: the cells beside the line of
+ * hits must be empty, and only the two ends of the line are left to try.
+ * Ships never touch, not even at a corner, so the cells diagonal to a hit
+ * are known to be empty too, and so is the border of a ship that sank.
+ *
+ * It works on a board of any size, and with any fleet.
+ */
+public class HuntTargetStrategy implements Strategy {
+
+    /** Random draws from the pool before hunt() falls back to a scan of the board. */
+    private static final int TRIES = 64;
+
+    private PlayerView board;
+    private RandomGenerator random;
+    private int width;
+    private int height;
+    private int cells;
+    private boolean[] empty = new boolean[0]; // known to hold no ship afloat
+    private boolean[] sunk = new boolean[0]; // hits on ships that sank
+    private int[] afloat = new int[0]; // ships left, by length
+    private int parity; // offset of the checkerboard cells to hunt on
+    private int[] line = new int[0]; // the hits of the ship being targeted
+    private int lineLength;
+    private int[] pool = new int[0]; // pool[0..poolSize) may still be open, in no order
+    private int poolSize;
+    private int[] liveHits = new int[0]; // hits on ships that haven't sunk
+    private int liveCount;
+    private final int[] candidates = new int[4]; // target()'s cells to try, and their axes
+    private final int[] steps = new int[4];
+
+    @Override
+    public void newGame(PlayerView board, RandomGenerator random) {
+        this.board = board;
+        this.random = random;
+        width = board.getWidth();
+        height = board.getHeight();
+        cells = width * height;
+        if (empty.length != cells) {
+            empty = new boolean[cells];
+            sunk = new boolean[cells];
+            line = new int[cells];
+            pool = new int[cells];
+            liveHits = new int[cells];
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            pool[cell] = cell;
+        }
+        poolSize = cells;
+        liveCount = 0;
+        java.util.Arrays.fill(empty, false);
+        java.util.Arrays.fill(sunk, false);
+        int[] fleet = board.getFleet();
+        afloat = new int[fleet[0] + 1];
+        for (int len : fleet) {
+            afloat[len]++;
+        }
+        parity = random.nextInt(shortestAfloat());
+
+        // pick up any shots already taken, e.g. when asked for a hint mid-game
+        for (int cell = 0; cell < cells; cell++) {
+            if (board.isHit(cell)) {
+                markHit(cell);
+            }
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            if (board.isHit(cell) && !sunk[cell]) {
+                lineOf(cell);
+                if (isClosed()) {
+                    markSunk();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void shotTaken(int cell, GameEngine.ShotResult result) {
+        switch (result) {
+            case HIT:
+                markHit(cell);
+                break;
+            case SINK:
+                markHit(cell);
+                lineOf(cell);
+                markSunk();
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public int nextShot() {
+        for (int i = 0; i < liveCount; i++) {
+            lineOf(liveHits[i]);
+            int shot = target();
+            if (shot >= 0) {
+                return shot;
+            }
+        }
+        return hunt();
+    }
+
+    /**
+     * Picks a random open cell on the checkerboard where a ship afloat fits, or any open
+     * cell if there is none.
+     */
+    private int hunt() {
+        int step = shortestAfloat();
+        for (int t = 0; t < TRIES && poolSize > 0; t++) {
+            int k = random.nextInt(poolSize);
+            int cell = pool[k];
+            if (!isOpen(cell)) {
+                pool[k] = pool[--poolSize]; // ruled out for good
+            } else if ((cell / width + cell % width) % step == parity % step
+                    && fitsAny(cell)) {
+                return cell;
+            }
+        }
+
+        // most cells left don't qualify: look at all of them
+        int choice = -1;
+        int fallback = -1;
+        int seen = 0;
+        int seenAny = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (!isOpen(cell)) {
+                continue;
+            }
+            if (random.nextInt(++seenAny) == 0) {
+                fallback = cell;
+            }
+            if ((cell / width + cell % width) % step == parity % step && fitsAny(cell)
+                    && random.nextInt(++seen) == 0) {
+                choice = cell;
+            }
+        }
+        if (choice < 0) {
+            choice = fallback;
+        }
+        if (choice < 0) {
+            throw new IllegalStateException("every cell has been shot");
+        }
+        return choice;
+    }
+
+    /**
+     * Picks the open cell at an end of the current line of hits that the most placements
+     * of the ships afloat pass through, or -1 if there is none.
+     */
+    private int target() {
+        int first = line[0];
+        int last = line[lineLength - 1];
+        long best = 0;
+        int choice = -1;
+        // with one hit either axis is possible; with more, the line's own
+        boolean horizontal = lineLength == 1 || last - first < width;
+        boolean vertical = lineLength == 1 || !horizontal;
+        int n = 0;
+        if (horizontal) {
+            if (first % width > 0) {
+                candidates[n] = first - 1;
+                steps[n++] = 1;
+            }
+            if (last % width < width - 1) {
+                candidates[n] = last + 1;
+                steps[n++] = 1;
+            }
+        }
+        if (vertical) {
+            if (first >= width) {
+                candidates[n] = first - width;
+                steps[n++] = width;
+            }
+            if (last < width * (height - 1)) {
+                candidates[n] = last + width;
+                steps[n++] = width;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            int c = candidates[i];
+            if (!isOpen(c)) {
+                continue;
+            }
+            long w = placementsThrough(Math.min(first, c), Math.max(last, c), steps[i]);
+            if (w > best || (w == best && w > 0 && random.nextBoolean())) {
+                best = w;
+                choice = c;
+            }
+        }
+        return choice;
+    }
+
+    /**
+     * Returns the number of placements of the ships afloat, counted once per ship, along
+     * the given axis that cover the cells from a to b.
+     */
+    private long placementsThrough(int a, int b, int step) {
+        // extend the segment both ways over cells that could hold the same ship
+        int lo = a;
+        while (canExtend(lo, -step)) {
+            lo -= step;
+        }
+        int hi = b;
+        while (canExtend(hi, step)) {
+            hi += step;
+        }
+        int segment = (b - a) / step + 1;
+        int room = (hi - lo) / step + 1;
+        int before = (a - lo) / step;
+        int after = (hi - b) / step;
+        long ways = 0;
+        for (int len = segment; len < afloat.length && len <= room; len++) {
+            // start positions covering [a, b] that stay within [lo, hi]
+            int starts = Math.min(before, len - segment) - Math.max(0, len - segment - after)
+                    + 1;
+            if (starts > 0) {
+                ways += (long) afloat[len] * starts;
+            }
+        }
+        return ways;
+    }
+
+    private boolean canExtend(int cell, int step) {
+        int next = cell + step;
+        if (next < 0 || next >= cells
+                || (step == 1 && next % width == 0) || (step == -1 && cell % width == 0)) {
+            return false;
+        }
+        return isOpen(next) || (board.isHit(next) && !sunk[next]);
+    }
+
+    /**
+     * Returns whether a ship afloat fits through an open cell, in either direction.
+     */
+    private boolean fitsAny(int cell) {
+        int shortest = shortestAfloat();
+        return shortest <= runLength(cell, 1, shortest)
+                || shortest <= runLength(cell, width, shortest);
+    }
+
+    /**
+     * Returns the number of open cells in a row through an open cell along an axis, counting
+     * no further than max.
+     */
+    private int runLength(int cell, int step, int max) {
+        int length = 1;
+        int lo = cell;
+        while (length < max && canExtend(lo, -step) && isOpen(lo - step)) {
+            lo -= step;
+            length++;
+        }
+        int hi = cell;
+        while (length < max && canExtend(hi, step) && isOpen(hi + step)) {
+            hi += step;
+            length++;
+        }
+        return length;
+    }
+
+    private int shortestAfloat() {
+        for (int len = 1; len < afloat.length; len++) {
+            if (afloat[len] > 0) {
+                return len;
+            }
+        }
+        return 1;
+    }
+
+    private boolean isOpen(int cell) {
+        return !board.isShot(cell) && !empty[cell];
+    }
+
+    /**
+     * Records a hit: the cells diagonal to it are empty, and if it lines up with another
+     * hit, so are the cells beside the line.
+     */
+    private void markHit(int cell) {
+        liveHits[liveCount++] = cell;
+        int row = cell / width;
+        int col = cell % width;
+        for (int dr = -1; dr <= 1; dr += 2) {
+            for (int dc = -1; dc <= 1; dc += 2) {
+                markEmpty(row + dr, col + dc);
+            }
+        }
+        if ((col > 0 && board.isHit(cell - 1)) || (col < width - 1 && board.isHit(cell + 1))) {
+            markEmpty(row - 1, col);
+            markEmpty(row + 1, col);
+        }
+        if ((row > 0 && board.isHit(cell - width))
+                || (row < height - 1 && board.isHit(cell + width))) {
+            markEmpty(row, col - 1);
+            markEmpty(row, col + 1);
+        }
+        // the hit also tells the other hits of its line which way the line runs
+        int[] next = { row > 0 ? cell - width : -1, row < height - 1 ? cell + width : -1,
+            col > 0 ? cell - 1 : -1, col < width - 1 ? cell + 1 : -1 };
+        for (int n : next) {
+            if (n >= 0 && board.isHit(n)) {
+                if (Math.abs(n - cell) == 1) {
+                    markEmpty(n / width - 1, n % width);
+                    markEmpty(n / width + 1, n % width);
+                } else {
+                    markEmpty(n / width, n % width - 1);
+                    markEmpty(n / width, n % width + 1);
+                }
+            }
+        }
+    }
+
+    private void markEmpty(int row, int col) {
+        if (row >= 0 && row < height && col >= 0 && col < width
+                && !board.isHit(row * width + col)) {
+            empty[row * width + col] = true;
+        }
+    }
+
+    /**
+     * Records that the ship in the current line sank: its border is empty, and there is one
+     * ship fewer of its length.
+     */
+    private void markSunk() {
+        for (int i = 0; i < lineLength; i++) {
+            int c = line[i];
+            sunk[c] = true;
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    markEmpty(c / width + dr, c % width + dc);
+                }
+            }
+        }
+        if (lineLength < afloat.length && afloat[lineLength] > 0) {
+            afloat[lineLength]--;
+        }
+        int kept = 0;
+        for (int i = 0; i < liveCount; i++) {
+            if (!sunk[liveHits[i]]) {
+                liveHits[kept++] = liveHits[i];
+            }
+        }
+        liveCount = kept;
+    }
+
+    /**
+     * Makes the current line the run of unsunk hits through a hit cell, in order.
+     */
+    private void lineOf(int cell) {
+        int step = 1;
+        if ((cell >= width && isLiveHit(cell - width))
+                || (cell < width * (height - 1) && isLiveHit(cell + width))) {
+            step = width;
+        }
+        int first = cell;
+        while (inLine(first, -step)) {
+            first -= step;
+        }
+        lineLength = 0;
+        for (int c = first;; c += step) {
+            line[lineLength++] = c;
+            if (!inLine(c, step)) {
+                break;
+            }
+        }
+    }
+
+    private boolean inLine(int cell, int step) {
+        int next = cell + step;
+        if (next < 0 || next >= cells
+                || (step == 1 && next % width == 0) || (step == -1 && cell % width == 0)) {
+            return false;
+        }
+        return isLiveHit(next);
+    }
+
+    private boolean isLiveHit(int cell) {
+        return board.isHit(cell) && !sunk[cell];
+    }
+
+    /**
+     * Returns whether every cell around the current line is known to be empty, so that the
+     * ship can't be any longer.
+     */
+    private boolean isClosed() {
+        for (int i = 0; i < lineLength; i++) {
+            int c = line[i];
+            int row = c / width;
+            int col = c % width;
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int r = row + dr;
+                    int k = col + dc;
+                    if (r >= 0 && r < height && k >= 0 && k < width
+                            && !board.isHit(r * width + k) && !board.isShot(r * width + k)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,121 @@
+package org.cis1200.Battleship;
+
+import java.util.Arrays;
+
+/**
+ * This class is a histogram of durations in nanoseconds, laid out like an
+ * HdrHistogram: the values are split into powers of two, and each power of
+ * two into SUB_BUCKETS / 2 buckets of equal width. So every value is counted
+ * in a bucket no wider than 1/16 of it, whether it is 200 ns or 20 s,
+ * recording a value takes a few shifts and an increment, and the whole
+ * range of a long fits in BUCKETS counters. Percentiles are read off the
+ * counts and are exact to within a bucket; like HdrHistogram, they report
+ * the highest value in their bucket, so they never understate.
+ *
+ * Values can be recorded from one thread and read from another, e.g. by the
+ * render thread and the HUD; every method is synchronized.
+ */
+final class LatencyHistogram {
+
+    static final int SUB_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BITS; // values below this have a bucket each
+    private static final int HALF = SUB_BUCKETS / 2;
+    static final int BUCKETS = (63 - SUB_BITS) * HALF + SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long max;
+    private long sum;
+
+    /**
+     * Returns the bucket a value is counted in.
+     */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the lowest value counted in a bucket.
+     */
+    static long lowestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / HALF - 1;
+        return (long) (bucket - shift * HALF) << shift;
+    }
+
+    /**
+     * Returns the highest value counted in a bucket.
+     */
+    static long highestValue(int bucket) {
+        return bucket + 1 < BUCKETS ? lowestValue(bucket + 1) - 1 : Long.MAX_VALUE;
+    }
+
+    /**
+     * Counts a value. Negative values, e.g. from a clock that went backwards, count as 0.
+     */
+    synchronized void record(long value) {
+        value = Math.max(value, 0);
+        counts[bucket(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    synchronized long getCount() {
+        return count;
+    }
+
+    synchronized long getMax() {
+        return max;
+    }
+
+    synchronized long getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Returns the value at a percentile: the highest value of the bucket holding the value
+     * that percent of the values are at or below, or 0 if nothing was recorded.
+     *
+     * @param percentile from 0 to 100
+     */
+    synchronized long valueAt(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max((long) Math.ceil(percentile / 100 * count), 1);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= rank) {
+                return Math.min(highestValue(b), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the number of values from low up to but not including high, to within the
+     * buckets low and high fall in.
+     */
+    synchronized long countBetween(long low, long high) {
+        long total = 0;
+        for (int b = bucket(Math.max(low, 0)); b < BUCKETS && lowestValue(b) < high; b++) {
+            total += counts[b];
+        }
+        return total;
+    }
+
+    synchronized void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        max = 0;
+        sum = 0;
+    }
+}
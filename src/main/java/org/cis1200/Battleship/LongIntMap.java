@@ -0,0 +1,109 @@
+package org.cis1200.Battleship;
+
+import java.util.Arrays;
+
+/**
+ * This class is a hash map from non-negative long keys to int values that
+ * stores both in primitive arrays, so that looking up or adding a key never
+ * boxes it or allocates an entry. SparseBattleship keeps the cells it has
+ * touched in one, keyed by cell index.
+ *
+ * It uses open addressing with linear probing in a table whose capacity is
+ * a power of two, kept at most half full. Keys are never removed one at a
+ * time; clear() empties the whole map, in time proportional to its capacity
+ * rather than to the number of keys that could exist.
+ */
+final class LongIntMap {
+
+    private static final long FREE = -1; // marks an unused slot; keys are never negative
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * Creates a map with room for the given number of keys before it has to grow.
+     */
+    LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) * 2;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Returns the value of a key, or missing if the map doesn't hold it.
+     */
+    int get(long key, int missing) {
+        int i = slot(key);
+        while (keys[i] != FREE) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return missing;
+    }
+
+    /**
+     * Sets the value of a key, adding the key if the map doesn't hold it.
+     *
+     * @throws IllegalArgumentException if the key is negative
+     */
+    void put(long key, int value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("negative key " + key);
+        }
+        int i = slot(key);
+        while (keys[i] != FREE) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes every key, keeping the table's capacity.
+     */
+    void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads nearby keys
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, FREE);
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != FREE) {
+                int i = slot(oldKeys[j]);
+                while (keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package org.cis1200.Battleship;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.event.MouseEvent;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * This class measures how the board draws and shows it in an overlay, to
+ * track down jank: frames per second, how long painting takes (median, 90th
+ * and 99th percentile, and worst), how long it takes from a click that takes
+ * a shot to the first frame painted after it, and how many bytes the
+ * painting threads allocate per second. Paint times and click latencies go
+ * into LatencyHistograms, which keep their whole distribution since the HUD
+ * was shown; under the text, the overlay draws the paint times as a bar per
+ * power of two from 1 microsecond to 64 milliseconds, so a long tail shows
+ * up as bars to the right.
+ *
+ * Nothing is measured while the HUD is hidden. When it is shown, measuring
+ * is cheap: a frame records its paint time, and a click notes the time. A
+ * click's latency starts when the event was made, to the millisecond, so it
+ * includes the time the click waited behind other events. The text of the
+ * overlay is worked out once a second by sample(), and drawing it uses that
+ * text, so a frame with the HUD shown allocates no more than one without.
+ *
+ * Paints can be recorded by the event thread and the render thread of an
+ * ActiveBoardView at once, so recording and sampling are synchronized; the
+ * overlay reads the last sample without locking.
+ */
+final class PerformanceHud {
+
+    static final int WIDTH = 230;
+    static final int HEIGHT = 150;
+    static final int SAMPLE_MILLIS = 1000;
+    private static final int FIRST_BAR = 10; // 2^10 ns, about 1 microsecond
+    private static final int BARS = 17; // up to 2^26 ns, about 64 milliseconds
+    private static final Color BACKDROP = new Color(0, 0, 0, 170);
+    private static final Color BAR = new Color(120, 220, 120);
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final String[] MEASURING = { "measuring..." };
+
+    private final LatencyHistogram paintTimes = new LatencyHistogram();
+    private final LatencyHistogram clickLatencies = new LatencyHistogram();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private volatile boolean shown;
+    private volatile long clickedAt; // time of a click not yet painted, or 0
+    private volatile FrameClock clock; // the active view's clock, if it is drawing
+    private volatile long samples; // number of samples taken
+    private long frames;
+    private long[] watched = new long[0]; // ids of the threads that paint
+
+    // last sample, written by sample() and read by draw()
+    private long sampledAt;
+    private long sampledFrames;
+    private long sampledBytes = -1;
+    private volatile String[] lines = MEASURING;
+    private volatile int[] bars = new int[BARS]; // heights, from 0 to 100
+
+    /**
+     * Shows or hides the HUD. Showing it clears everything recorded before.
+     */
+    void setShown(boolean on) {
+        if (on && !shown) {
+            reset();
+        }
+        shown = on;
+    }
+
+    boolean isShown() {
+        return shown;
+    }
+
+    /**
+     * Starts counting the bytes a thread allocates, e.g. the event thread or a render thread.
+     */
+    synchronized void watch(Thread thread) {
+        long id = thread.getId();
+        for (long w : watched) {
+            if (w == id) {
+                return;
+            }
+        }
+        watched = Arrays.copyOf(watched, watched.length + 1);
+        watched[watched.length - 1] = id;
+        sampledBytes = -1; // the total starts over
+    }
+
+    /**
+     * Stops counting the bytes a thread allocates, e.g. before it ends.
+     */
+    synchronized void unwatch(Thread thread) {
+        long id = thread.getId();
+        long[] ids = new long[watched.length];
+        int n = 0;
+        for (long w : watched) {
+            if (w != id) {
+                ids[n++] = w;
+            }
+        }
+        watched = Arrays.copyOf(ids, n);
+        sampledBytes = -1;
+    }
+
+    /**
+     * Shows the counters of an active view's FrameClock, or none if clock is null.
+     */
+    void setClock(FrameClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Notes the time of a click; the next frame painted ends its latency.
+     */
+    void clicked(MouseEvent e) {
+        if (shown) {
+            long waited = Math.max(System.currentTimeMillis() - e.getWhen(), 0);
+            clickedAt = System.nanoTime() - waited * 1_000_000;
+        }
+    }
+
+    /**
+     * Forgets the last click, e.g. because it didn't take a shot and so changes nothing.
+     */
+    void clickIgnored() {
+        clickedAt = 0;
+    }
+
+    /**
+     * Records a frame painted from start to end, as System.nanoTime() values.
+     */
+    synchronized void painted(long start, long end) {
+        if (!shown) {
+            return;
+        }
+        frames++;
+        paintTimes.record(end - start);
+        long click = clickedAt;
+        if (click != 0) {
+            clickedAt = 0;
+            clickLatencies.record(end - click);
+        }
+    }
+
+    /**
+     * Works out the text and the bars of the overlay from what was recorded. Meant to be
+     * called about every SAMPLE_MILLIS; the first sample after a reset has no rates yet.
+     *
+     * @param now the time, as a System.nanoTime() value
+     */
+    synchronized void sample(long now) {
+        double seconds = (now - sampledAt) / 1e9;
+        long bytes = allocatedBytes();
+        boolean first = samples == 0;
+        String fps = first ? "-" : String.format("%.1f", (frames - sampledFrames) / seconds);
+        String alloc = first || sampledBytes < 0 || bytes < 0 ? "-"
+                : String.format("%.2f MB/s", (bytes - sampledBytes) / seconds / 1e6);
+        sampledAt = now;
+        sampledFrames = frames;
+        sampledBytes = bytes;
+
+        FrameClock c = clock;
+        lines = new String[] {
+            "FPS        " + fps,
+            "paint p50  " + time(paintTimes.valueAt(50))
+                    + "  p90 " + time(paintTimes.valueAt(90)),
+            "paint p99  " + time(paintTimes.valueAt(99))
+                    + "  max " + time(paintTimes.getMax()),
+            "click p50  " + time(clickLatencies.valueAt(50))
+                    + "  p99 " + time(clickLatencies.valueAt(99)),
+            "alloc      " + alloc,
+            c == null ? "frames     " + paintTimes.getCount()
+                    : "dropped    " + c.getDroppedFrames() + "  skipped " + c.getSkippedTicks(),
+        };
+
+        long[] counts = new long[BARS];
+        long most = 1;
+        for (int i = 0; i < BARS; i++) {
+            counts[i] = paintTimes.countBetween(1L << (FIRST_BAR + i), 1L << (FIRST_BAR + i + 1));
+            most = Math.max(most, counts[i]);
+        }
+        int[] heights = new int[BARS];
+        for (int i = 0; i < BARS; i++) {
+            heights[i] = (int) (counts[i] * 100 / most);
+        }
+        bars = heights;
+        samples++;
+    }
+
+    /**
+     * Returns a duration in nanoseconds as microseconds, or milliseconds from 10 ms up.
+     */
+    static String time(long nanos) {
+        return nanos >= 10_000_000 ? nanos / 1_000_000 + "ms" : nanos / 1000 + "us";
+    }
+
+    /**
+     * Returns the bytes allocated so far by the watched threads, or -1 if the JVM can't tell.
+     */
+    private long allocatedBytes() {
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        long total = 0;
+        for (long b : ((com.sun.management.ThreadMXBean) threads)
+                .getThreadAllocatedBytes(watched)) {
+            if (b < 0) {
+                return -1; // a thread ended, or counting is off
+            }
+            total += b;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of samples taken, so a view can tell when the overlay changed.
+     */
+    long getSamples() {
+        return samples;
+    }
+
+    /**
+     * Clears everything recorded.
+     */
+    synchronized void reset() {
+        paintTimes.reset();
+        clickLatencies.reset();
+        frames = 0;
+        clickedAt = 0;
+        samples = 0;
+        sampledBytes = -1;
+        lines = MEASURING;
+        bars = new int[BARS];
+    }
+
+    /**
+     * Draws the overlay from the last sample, with its top left corner at x, y.
+     */
+    void draw(Graphics g, int x, int y) {
+        g.setColor(BACKDROP);
+        g.fillRect(x, y, WIDTH, HEIGHT);
+        g.setFont(FONT);
+        g.setColor(Color.WHITE);
+        FontMetrics metrics = g.getFontMetrics();
+        String[] text = lines;
+        for (int i = 0; i < text.length; i++) {
+            g.drawString(text[i], x + 6, y + 4 + metrics.getAscent() + i * metrics.getHeight());
+        }
+        int[] heights = bars;
+        int bottom = y + HEIGHT - 6;
+        int width = (WIDTH - 12) / BARS;
+        g.setColor(BAR);
+        for (int i = 0; i < BARS; i++) {
+            int h = heights[i] * 40 / 100;
+            g.fillRect(x + 6 + i * width, bottom - h, width - 1, h);
+        }
+    }
+
+    LatencyHistogram getPaintTimes() {
+        return paintTimes;
+    }
+
+    LatencyHistogram getClickLatencies() {
+        return clickLatencies;
+    }
+}
@@ -0,0 +1,166 @@
+package org.cis1200.Battleship;
+
+/**
+ * This class lists every position a ship can take on the 10x10 board, for
+ * every ship length in the fleet. The table is built once, when the class
+ * is loaded, and never changes, so ShipPlacer and the solvers can look up a
+ * position's cells instead of working out bounds and masks each time.
+ *
+ * Positions are numbered from 0, grouped by ship length: the positions of
+ * ships of length len are first(len) up to, but not including, end(len).
+ * For each position the table keeps its packed placement (see ShipPlacer),
+ * its footprint (the cells the ship covers) and its halo (the footprint
+ * plus every cell around it), each as a BitBoard-style pair of longs. A
+ * position is legal on a board iff its footprint misses every blocked cell,
+ * and placing it blocks its halo.
+ *
+ * The table also records, for each cell, the positions that cover it, which
+ * is what a solver needs to update its counts after a shot.
+ */
+public final class PlacementTable {
+
+    private static final int SIZE = BitBoard.SIZE;
+
+    public static final PlacementTable STANDARD = new PlacementTable(4);
+
+    private final int maxLength;
+    private final int[] first; // first[len] is the first position of length len
+    private final int[] placement;
+    private final long[] footprintLo;
+    private final long[] footprintHi;
+    private final long[] haloLo;
+    private final long[] haloHi;
+    private final int[] coverFirst; // positions covering cell i are cover[coverFirst[i]...]
+    private final int[] cover;
+
+    private PlacementTable(int maxLength) {
+        this.maxLength = maxLength;
+        first = new int[maxLength + 2];
+        int count = 0;
+        for (int len = 1; len <= maxLength; len++) {
+            first[len] = count;
+            count += positions(len);
+        }
+        first[maxLength + 1] = count;
+        placement = new int[count];
+        footprintLo = new long[count];
+        footprintHi = new long[count];
+        haloLo = new long[count];
+        haloHi = new long[count];
+
+        int i = 0;
+        int covered = 0;
+        for (int len = 1; len <= maxLength; len++) {
+            for (int v = 0; v < (len == 1 ? 1 : 2); v++) {
+                boolean vertical = v == 1;
+                for (int row = 0; row < (vertical ? SIZE - len + 1 : SIZE); row++) {
+                    for (int col = 0; col < (vertical ? SIZE : SIZE - len + 1); col++) {
+                        placement[i] = ShipPlacer.encode(len, vertical, row, col);
+                        footprintLo[i] = BitBoard.footprintLo(len, vertical, row, col);
+                        footprintHi[i] = BitBoard.footprintHi(len, vertical, row, col);
+                        haloLo[i] = BitBoard.dilateLo(footprintLo[i], footprintHi[i]);
+                        haloHi[i] = BitBoard.dilateHi(footprintLo[i], footprintHi[i]);
+                        covered += len;
+                        i++;
+                    }
+                }
+            }
+        }
+
+        // group the positions by the cells they cover
+        coverFirst = new int[BitBoard.CELLS + 1];
+        cover = new int[covered];
+        for (int p = 0; p < count; p++) {
+            for (int c = 0; c < BitBoard.CELLS; c++) {
+                if (BitBoard.test(footprintLo[p], footprintHi[p], c)) {
+                    coverFirst[c + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < BitBoard.CELLS; c++) {
+            coverFirst[c + 1] += coverFirst[c];
+        }
+        int[] next = coverFirst.clone();
+        for (int p = 0; p < count; p++) {
+            for (int c = 0; c < BitBoard.CELLS; c++) {
+                if (BitBoard.test(footprintLo[p], footprintHi[p], c)) {
+                    cover[next[c]++] = p;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of positions a ship of the given length has on an empty board.
+     */
+    private static int positions(int len) {
+        int along = SIZE - len + 1;
+        return len == 1 ? SIZE * SIZE : 2 * along * SIZE;
+    }
+
+    /** Returns the longest ship in the table. */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /** Returns the total number of positions in the table. */
+    public int size() {
+        return placement.length;
+    }
+
+    /** Returns the first position of ships of the given length. */
+    public int first(int len) {
+        return first[len];
+    }
+
+    /** Returns one past the last position of ships of the given length. */
+    public int end(int len) {
+        return first[len + 1];
+    }
+
+    /** Returns position p packed as a ShipPlacer placement. */
+    public int placement(int p) {
+        return placement[p];
+    }
+
+    public long footprintLo(int p) {
+        return footprintLo[p];
+    }
+
+    public long footprintHi(int p) {
+        return footprintHi[p];
+    }
+
+    public long haloLo(int p) {
+        return haloLo[p];
+    }
+
+    public long haloHi(int p) {
+        return haloHi[p];
+    }
+
+    /**
+     * Returns whether position p is legal given the blocked cells (blockedLo, blockedHi).
+     */
+    public boolean fits(int p, long blockedLo, long blockedHi) {
+        return (footprintLo[p] & blockedLo) == 0 && (footprintHi[p] & blockedHi) == 0;
+    }
+
+    /** Returns the first index into the positions covering cell c, see covering. */
+    public int coverFirst(int c) {
+        return coverFirst[c];
+    }
+
+    /** Returns one past the last index into the positions covering cell c. */
+    public int coverEnd(int c) {
+        return coverFirst[c + 1];
+    }
+
+    /**
+     * Returns the k-th entry of the cover list. The positions covering cell c are
+     * covering(coverFirst(c)) up to covering(coverEnd(c) - 1).
+     */
+    public int covering(int k) {
+        return cover[k];
+    }
+}
@@ -0,0 +1,33 @@
+package org.cis1200.Battleship;
+
+/**
+ * This interface is what a player can see of a board: which cells have
+ * been shot and which of those shots hit a ship. A Strategy plays through a
+ * PlayerView so that it can't look at ships it hasn't found yet.
+ *
+ * Cells are numbered row * width + col. A cell counts as shot if it was shot
+ * at, or if it is known to be empty because it borders a ship that sank;
+ * shooting such a cell again has no effect.
+ */
+public interface PlayerView {
+
+    /** Returns the number of columns of the board. */
+    int getWidth();
+
+    /** Returns the number of rows of the board. */
+    int getHeight();
+
+    /**
+     * Returns the length of every ship in the fleet, longest first, which every player is
+     * told before the game starts. The classic fleet unless overridden.
+     */
+    default int[] getFleet() {
+        return ShipPlacer.FLEET.clone();
+    }
+
+    /** Returns whether a cell has been shot, or is known to be empty. */
+    boolean isShot(int cell);
+
+    /** Returns whether a cell was shot and hit a ship. */
+    boolean isHit(int cell);
+}
@@ -0,0 +1,372 @@
+package org.cis1200.Battleship;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This strategy shoots the cell most likely to hold a ship, judging by how
+ * many legal positions of the ships still afloat cover it. It only uses what
+ * the player can see: which cells were shot, which shots hit, and the empty
+ * border a sunk ship leaves around itself.
+ *
+ * A position of the PlacementTable stays alive while none of its cells is
+ * known to be empty. For every cell the strategy keeps, per ship length,
+ * the number of live positions covering it, and a cell's density is the sum
+ * of those counts weighted by the number of ships of that length still
+ * afloat. When a shot reveals empty cells, only the positions covering them
+ * are killed, through the table's cover lists, and their counts taken off,
+ * so choosing a shot never enumerates the whole table again.
+ *
+ * A hit tells more than that the cell holds a ship: its diagonal neighbours
+ * must be empty, since ships never touch, and so must any position that
+ * covers one of its other neighbours without covering it. While a ship is
+ * hit but not sunk, the strategy only considers the live positions through
+ * its hits, weighting those covering more hits far higher, so after the
+ * second hit it follows the ship's line.
+ *
+ * The strategy needs the 10x10 board of the PlacementTable, and a fleet of
+ * ships no longer than the table's.
+ */
+public class ProbabilityStrategy implements Strategy {
+
+    private static final PlacementTable TABLE = PlacementTable.STANDARD;
+    private static final int SIZE = BitBoard.SIZE;
+    private static final int CELLS = BitBoard.CELLS;
+
+    private PlayerView board;
+    private RandomGenerator random;
+    private final boolean[] alive = new boolean[TABLE.size()];
+    // count[len][cell] is the number of live positions of length len covering cell
+    private final int[][] count = new int[TABLE.getMaxLength() + 1][CELLS];
+    private final int[] afloat = new int[TABLE.getMaxLength() + 1]; // ships left, by length
+    private long emptyLo, emptyHi; // cells known to hold no ship afloat
+    private long hitsLo, hitsHi; // hits on ships that haven't sunk yet
+    private final int[] stack = new int[CELLS];
+    private final long[] weight = new long[CELLS]; // target()'s weight of every cell
+
+    @Override
+    public boolean canPlay(GameConfig config) {
+        return config.getWidth() == SIZE && config.getHeight() == SIZE
+                && config.getMaxLength() < afloat.length;
+    }
+
+    @Override
+    public void newGame(PlayerView board, RandomGenerator random) {
+        int[] fleet = board.getFleet();
+        if (board.getWidth() != SIZE || board.getHeight() != SIZE
+                || fleet[0] >= afloat.length) {
+            throw new IllegalArgumentException("needs a " + SIZE + "x" + SIZE
+                    + " board with no ship longer than " + (afloat.length - 1));
+        }
+        this.board = board;
+        this.random = random;
+        java.util.Arrays.fill(alive, true);
+        for (int[] c : count) {
+            java.util.Arrays.fill(c, 0);
+        }
+        for (int p = 0; p < TABLE.size(); p++) {
+            forEachCell(p, 1);
+        }
+        java.util.Arrays.fill(afloat, 0);
+        for (int len : fleet) {
+            afloat[len]++;
+        }
+        emptyLo = 0;
+        emptyHi = 0;
+        hitsLo = 0;
+        hitsHi = 0;
+
+        // pick up any shots already taken, e.g. when asked for a hint mid-game
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (board.isShot(cell) && !board.isHit(cell)) {
+                markEmpty(cell);
+            }
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (board.isHit(cell)) {
+                markHit(cell);
+            }
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (BitBoard.test(hitsLo, hitsHi, cell) && isSunk(board, cell)) {
+                markSunk(cell);
+            }
+        }
+    }
+
+    @Override
+    public void shotTaken(int cell, GameEngine.ShotResult result) {
+        switch (result) {
+            case MISS:
+                markEmpty(cell);
+                break;
+            case HIT:
+                markHit(cell);
+                break;
+            case SINK:
+                markHit(cell);
+                markSunk(cell);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public int nextShot() {
+        return (hitsLo | hitsHi) != 0 ? target() : hunt();
+    }
+
+    /**
+     * Writes the density of every cell, for display, into an array the caller can reuse from
+     * move to move. Cells that were shot have density 0.
+     *
+     * @param density array of BitBoard.CELLS densities, indexed by cell
+     */
+    public void getDensity(long[] density) {
+        java.util.Arrays.fill(density, 0);
+        if ((hitsLo | hitsHi) != 0) {
+            addTargetWeights(density);
+        } else {
+            for (int cell = 0; cell < CELLS; cell++) {
+                density[cell] = huntDensity(cell);
+            }
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (board.isShot(cell)) {
+                density[cell] = 0;
+            }
+        }
+    }
+
+    /**
+     * Picks the unshot cell covered by the most positions of the ships afloat.
+     */
+    private int hunt() {
+        long best = -1;
+        int choice = -1;
+        int ties = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (board.isShot(cell)) {
+                continue;
+            }
+            long d = huntDensity(cell);
+            if (d > best) {
+                best = d;
+                choice = cell;
+                ties = 1;
+            } else if (d == best && random.nextInt(++ties) == 0) {
+                choice = cell; // keeps each of the tied cells equally likely
+            }
+        }
+        if (choice < 0) {
+            throw new IllegalStateException("every cell has been shot");
+        }
+        return choice;
+    }
+
+    private long huntDensity(int cell) {
+        long d = 0;
+        for (int len = 1; len < afloat.length; len++) {
+            d += (long) afloat[len] * count[len][cell];
+        }
+        return d;
+    }
+
+    /**
+     * Picks the unshot cell covered by the most positions through the hits, weighting each
+     * position by the number of hits it covers.
+     */
+    private int target() {
+        java.util.Arrays.fill(weight, 0);
+        addTargetWeights(weight);
+        long best = 0;
+        int choice = -1;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (weight[cell] > best && !board.isShot(cell)) {
+                best = weight[cell];
+                choice = cell;
+            }
+        }
+        // no position fits through the hits, which can only happen if the board broke the
+        // rules; fall back to hunting
+        return choice >= 0 ? choice : hunt();
+    }
+
+    private void addTargetWeights(long[] weight) {
+        long lo = hitsLo;
+        long hi = hitsHi;
+        while ((lo | hi) != 0) {
+            int h;
+            if (lo != 0) {
+                h = Long.numberOfTrailingZeros(lo);
+                lo &= lo - 1;
+            } else {
+                h = 64 + Long.numberOfTrailingZeros(hi);
+                hi &= hi - 1;
+            }
+            for (int k = TABLE.coverFirst(h); k < TABLE.coverEnd(h); k++) {
+                int p = TABLE.covering(k);
+                int len = ShipPlacer.length(TABLE.placement(p));
+                if (!alive[p] || afloat[len] == 0 || coversEarlierHit(p, h)) {
+                    continue;
+                }
+                int hits = Long.bitCount(TABLE.footprintLo(p) & hitsLo)
+                        + Long.bitCount(TABLE.footprintHi(p) & hitsHi);
+                long w = (long) afloat[len] << (10 * (hits - 1));
+                int placement = TABLE.placement(p);
+                int step = ShipPlacer.isVertical(placement) ? SIZE : 1;
+                int first = ShipPlacer.row(placement) * SIZE + ShipPlacer.col(placement);
+                for (int i = 0; i < len; i++) {
+                    weight[first + i * step] += w;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether position p covers a hit before h, in which case it was already counted
+     * when going through that hit.
+     */
+    private boolean coversEarlierHit(int p, int h) {
+        long below = h < 64 ? (1L << h) - 1 : -1L;
+        long belowHi = h < 64 ? 0 : (1L << (h - 64)) - 1;
+        return (TABLE.footprintLo(p) & hitsLo & below) != 0
+                || (TABLE.footprintHi(p) & hitsHi & belowHi) != 0;
+    }
+
+    /**
+     * Records that a cell holds no ship afloat, killing every position covering it.
+     */
+    private void markEmpty(int cell) {
+        if (BitBoard.test(emptyLo, emptyHi, cell)) {
+            return;
+        }
+        emptyLo |= BitBoard.lo(cell);
+        emptyHi |= BitBoard.hi(cell);
+        for (int k = TABLE.coverFirst(cell); k < TABLE.coverEnd(cell); k++) {
+            kill(TABLE.covering(k));
+        }
+    }
+
+    /**
+     * Records a hit: its diagonal neighbours are empty, and no ship can cover its other
+     * neighbours without covering it too.
+     */
+    private void markHit(int cell) {
+        hitsLo |= BitBoard.lo(cell);
+        hitsHi |= BitBoard.hi(cell);
+        int row = cell / SIZE;
+        int col = cell % SIZE;
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                int r = row + dr;
+                int c = col + dc;
+                if ((dr == 0 && dc == 0) || r < 0 || r >= SIZE || c < 0 || c >= SIZE) {
+                    continue;
+                }
+                int n = r * SIZE + c;
+                if (dr != 0 && dc != 0) {
+                    markEmpty(n);
+                } else {
+                    for (int k = TABLE.coverFirst(n); k < TABLE.coverEnd(n); k++) {
+                        int p = TABLE.covering(k);
+                        if (!BitBoard.test(TABLE.footprintLo(p), TABLE.footprintHi(p), cell)) {
+                            kill(p);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that the ship through a hit cell sank: its cells and the border around it are
+     * empty from now on, and there is one ship fewer of its length.
+     */
+    private void markSunk(int cell) {
+        // the ship is the line of hits through the cell
+        int top = 0;
+        stack[top++] = cell;
+        long shipLo = BitBoard.lo(cell);
+        long shipHi = BitBoard.hi(cell);
+        while (top > 0) {
+            int c = stack[--top];
+            int[] next = { c - SIZE, c + SIZE, c % SIZE > 0 ? c - 1 : -1,
+                c % SIZE < SIZE - 1 ? c + 1 : -1 };
+            for (int n : next) {
+                if (n >= 0 && n < CELLS && BitBoard.test(hitsLo, hitsHi, n)
+                        && !BitBoard.test(shipLo, shipHi, n)) {
+                    shipLo |= BitBoard.lo(n);
+                    shipHi |= BitBoard.hi(n);
+                    stack[top++] = n;
+                }
+            }
+        }
+        int length = Long.bitCount(shipLo) + Long.bitCount(shipHi);
+        if (length < afloat.length && afloat[length] > 0) {
+            afloat[length]--;
+        }
+        hitsLo &= ~shipLo;
+        hitsHi &= ~shipHi;
+        long haloLo = BitBoard.dilateLo(shipLo, shipHi);
+        long haloHi = BitBoard.dilateHi(shipLo, shipHi);
+        for (int c = 0; c < CELLS; c++) {
+            if (BitBoard.test(haloLo, haloHi, c)) {
+                markEmpty(c);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the ship through a hit cell is known to have sunk: every cell next to
+     * its line of hits is known to be empty, or off the board.
+     */
+    static boolean isSunk(PlayerView board, int cell) {
+        int row = cell / SIZE;
+        int col = cell % SIZE;
+        int left = col;
+        while (left > 0 && board.isHit(cell - (col - left) - 1)) {
+            left--;
+        }
+        int right = col;
+        while (right < SIZE - 1 && board.isHit(cell + (right - col) + 1)) {
+            right++;
+        }
+        int up = row;
+        while (up > 0 && board.isHit(cell - (row - up + 1) * SIZE)) {
+            up--;
+        }
+        int down = row;
+        while (down < SIZE - 1 && board.isHit(cell + (down - row + 1) * SIZE)) {
+            down++;
+        }
+        return closed(board, row, left - 1) && closed(board, row, right + 1)
+                && closed(board, up - 1, col) && closed(board, down + 1, col);
+    }
+
+    private static boolean closed(PlayerView board, int row, int col) {
+        return row < 0 || row >= SIZE || col < 0 || col >= SIZE
+                || board.isShot(row * SIZE + col) && !board.isHit(row * SIZE + col);
+    }
+
+    private void kill(int p) {
+        if (alive[p]) {
+            alive[p] = false;
+            forEachCell(p, -1);
+        }
+    }
+
+    /**
+     * Adds delta to the count of every cell covered by position p.
+     */
+    private void forEachCell(int p, int delta) {
+        int placement = TABLE.placement(p);
+        int len = ShipPlacer.length(placement);
+        int step = ShipPlacer.isVertical(placement) ? SIZE : 1;
+        int first = ShipPlacer.row(placement) * SIZE + ShipPlacer.col(placement);
+        int[] c = count[len];
+        for (int i = 0; i < len; i++) {
+            c[first + i * step] += delta;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.cis1200.Battleship;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This strategy shoots a cell drawn uniformly at random from the cells that
+ * haven't been shot yet. It is the baseline other strategies are compared
+ * with.
+ *
+ * The cells not yet shot are kept in an array, in no particular order, so
+ * a shot is drawn in constant time: the drawn cell is swapped with the last
+ * one and the array shrinks by one. Cells that become known to be empty
+ * when a ship sinks are dropped when they are drawn.
+ */
+public class RandomStrategy implements Strategy {
+
+    private PlayerView board;
+    private RandomGenerator random;
+    private int[] cells = new int[0];
+    private int left; // cells[0..left) haven't been drawn yet
+
+    @Override
+    public void newGame(PlayerView board, RandomGenerator random) {
+        this.board = board;
+        this.random = random;
+        int n = board.getWidth() * board.getHeight();
+        if (cells.length != n) {
+            cells = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            cells[i] = i;
+        }
+        left = n;
+    }
+
+    @Override
+    public int nextShot() {
+        while (left > 0) {
+            int k = random.nextInt(left);
+            int cell = cells[k];
+            cells[k] = cells[--left];
+            cells[left] = cell;
+            if (!board.isShot(cell)) {
+                return cell;
+            }
+        }
+        throw new IllegalStateException("every cell has been shot");
+    }
+}
@@ -12,6 +12,24 @@ import java.awt.*;
  * it will instantiate a Battleship object to serve as the game's model.
  */
 public class RunBattleship implements Runnable {
+    private final GameConfig config; // the variant of the game to play
+
+    /**
+     * Sets up the classic game.
+     */
+    public RunBattleship() {
+        this(GameConfig.STANDARD);
+    }
+
+    /**
+     * Sets up a variant of the game, e.g. a bigger board.
+     *
+     * @param config the board size, fleet and shots of every game
+     */
+    public RunBattleship(GameConfig config) {
+        this.config = config;
+    }
+
     public void run() {
         // NOTE: the 'final' keyword denotes immutability even for local variables.
 
@@ -26,7 +44,7 @@ public class RunBattleship implements Runnable {
         status_panel.add(status);
 
         // Game board
-        final BattleshipBoard board = new BattleshipBoard(status);
+        final BattleshipBoard board = new BattleshipBoard(status, config);
         frame.add(board, BorderLayout.CENTER);
 
         // Reset button
@@ -41,14 +59,52 @@ public class RunBattleship implements Runnable {
         undo.addActionListener(e -> board.undo());
         control_panel.add(undo);
 
+        // Redo button
+        final JButton redo = new JButton("Redo");
+        redo.addActionListener(e -> board.redo());
+        control_panel.add(redo);
+
+        // Hint button
+        final JButton hint = new JButton("Hint");
+        hint.addActionListener(e -> board.hint());
+        control_panel.add(hint);
+
+        // Animation toggle: draws the board on a render thread, with effects for every shot
+        final JCheckBox animate = new JCheckBox("Animate");
+        animate.addActionListener(e -> board.setActiveRendering(animate.isSelected()));
+        control_panel.add(animate);
+
         // Save button
         final JButton save = new JButton("Save");
-        save.addActionListener(e -> board.saveGame());
+        save.addActionListener(e -> {
+            String slot = JOptionPane.showInputDialog(frame, "Save the game as:", "Save game",
+                    JOptionPane.PLAIN_MESSAGE);
+            if (slot != null && !slot.isBlank()) {
+                board.saveGame(slot.trim());
+            }
+        });
         control_panel.add(save);
 
         // Load button
         final JButton load = new JButton("Load");
-        load.addActionListener(e -> board.loadGame());
+        load.addActionListener(e -> board.listSaves().whenComplete(
+                (slots, failure) -> SwingUtilities.invokeLater(() -> {
+                    if (failure != null) {
+                        JOptionPane.showMessageDialog(frame, "Couldn't open the saved games: "
+                                + SaveService.cause(failure).getMessage());
+                        return;
+                    }
+                    if (slots.isEmpty()) {
+                        JOptionPane.showMessageDialog(frame, "There are no saved games.");
+                        return;
+                    }
+                    Object slot = JOptionPane.showInputDialog(frame, "Load which game?",
+                            "Load game", JOptionPane.PLAIN_MESSAGE, null, slots.toArray(),
+                            slots.get(0));
+                    if (slot != null) {
+                        board.loadGame(slot.toString());
+                    }
+                })));
         control_panel.add(load);
 
         // Create instructions panel
@@ -85,17 +141,9 @@ public class RunBattleship implements Runnable {
         instruction_panel.setFocusable(true);
         frame.add(instruction_panel, BorderLayout.CENTER);
 
-        // Starts the game
+        // Starts the game, once the journal has been checked for an interrupted game
         final JButton startGame = new JButton("Start");
-        startGame.addActionListener(e -> {
-            frame.getContentPane().removeAll();
-            frame.add(board, BorderLayout.CENTER);
-            frame.add(control_panel, BorderLayout.NORTH);
-            frame.add(status_panel, BorderLayout.SOUTH);
-            frame.setVisible(true);
-            frame.pack();
-            board.reset();
-        });
+        startGame.setEnabled(false);
         instruction_panel.add(startGame, BorderLayout.SOUTH);
 
         // Put the frame on the screen
@@ -103,7 +151,29 @@ public class RunBattleship implements Runnable {
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setVisible(true);
 
-        // Start the game
-        board.reset();
+        // Offers to pick up a game that was interrupted before it was finished. The journal
+        // is replayed in the background, and the game starts when it is done.
+        board.findInterrupted().thenAccept(interrupted -> SwingUtilities.invokeLater(() -> {
+            final boolean recover = interrupted != null && JOptionPane.showConfirmDialog(frame,
+                    "The last game was interrupted. Pick it up where it left off?",
+                    "Recover game", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION;
+            if (recover) {
+                board.recover(interrupted);
+            } else {
+                board.reset();
+            }
+            startGame.addActionListener(e -> {
+                frame.getContentPane().removeAll();
+                frame.add(board, BorderLayout.CENTER);
+                frame.add(control_panel, BorderLayout.NORTH);
+                frame.add(status_panel, BorderLayout.SOUTH);
+                frame.setVisible(true);
+                frame.pack();
+                if (!recover) {
+                    board.reset();
+                }
+            });
+            startGame.setEnabled(true);
+        }));
     }
 }
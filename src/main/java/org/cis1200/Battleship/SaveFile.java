@@ -0,0 +1,381 @@
+package org.cis1200.Battleship;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * This class reads and writes saved games. Games are saved in a small
+ * binary format, written with a single FileChannel write:
+ *
+ * <pre>
+ *   int    MAGIC ("BSHP")
+ *   short  VERSION
+ *   short  board width
+ *   short  board height
+ *   long   seed the board was generated from
+ *   int    shots remaining
+ *   int    ships sunk
+ *   int    number of shots taken, n
+ *   byte   cell code, width * height times, row by row
+ *   int    cell index of each shot taken, n times
+ *   int    CRC32 of everything above
+ * </pre>
+ *
+ * so any board a GameConfig allows can be saved. Version 1 files, which
+ * have a single short for the side of a square board and a short per shot,
+ * can still be loaded.
+ *
+ * When a game is loaded, the CRC, the header and every cell code are
+ * checked before the game is touched. If replaying the saved shots on the
+ * board generated from the seed gives back the saved cells, the shots go
+ * into the game's history so they can still be undone; otherwise the cells
+ * are loaded as they are. check makes the same checks without loading
+ * anything, e.g. before a file is imported.
+ *
+ * Saving and loading are each split into a step that touches the game
+ * (encode, apply) and a step that touches the disk (write, read), so that
+ * SaveService can do the disk part off the Swing event thread. write goes
+ * to a temporary file that is then renamed over the old save, so a crash
+ * mid-write never leaves a half-written save behind.
+ *
+ * The old text format (one row of getCell strings per line, followed by
+ * the number of ships sunk and shots remaining) can still be loaded. load
+ * tells the two apart by the first four bytes of the file.
+ */
+public final class SaveFile {
+
+    public static final int MAGIC = 0x42534850; // "BSHP"
+    public static final short VERSION = 2;
+
+    private static final int HEADER_BYTES = 4 + 2 + 2 + 2 + 8 + 4 + 4 + 4;
+    private static final int V1_HEADER_BYTES = 4 + 2 + 2 + 8 + 4 + 4 + 4;
+
+    private SaveFile() {
+    }
+
+    /**
+     * Saves a game in the binary format.
+     *
+     * @param path file to write, replaced if it exists
+     * @param game the game to save
+     * @param history the shots taken in the game
+     * @throws IOException if the file can't be written
+     */
+    public static void save(Path path, Battleship game, GameHistory history)
+            throws IOException {
+        write(path, encode(game, history));
+    }
+
+    /**
+     * Loads a game saved in either format into an existing game and its history.
+     *
+     * @param path file to read
+     * @param game the game to load into
+     * @param history the game's history, replaced by the saved shots if they can be replayed
+     * @return true if the saved shots were replayed on the board generated from the seed
+     * @throws IOException if the file can't be read or doesn't hold a valid saved game. The
+     *             game is left unchanged in that case.
+     */
+    public static boolean load(Path path, Battleship game, GameHistory history)
+            throws IOException {
+        return apply(read(path), game, history);
+    }
+
+    /**
+     * Writes the contents of a saved game to a file, replacing it atomically: the bytes go to
+     * a temporary file next to it, which is then renamed over it.
+     *
+     * @param path file to write
+     * @param contents the saved game, as returned by encode
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Path path, ByteBuffer contents) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (contents.hasRemaining()) {
+                    channel.write(contents);
+                }
+                channel.force(false);
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads the whole of a save file.
+     *
+     * @param path file to read
+     * @return the file's contents, to be passed to apply
+     * @throws IOException if the file can't be read
+     */
+    public static ByteBuffer read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("save file is too large");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) length);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+            return buffer.flip();
+        }
+    }
+
+    /**
+     * Loads the contents of a save file, in either format, into an existing game and its
+     * history.
+     *
+     * @param contents the file's contents, as returned by read
+     * @param game the game to load into
+     * @param history the game's history, replaced by the saved shots if they can be replayed
+     * @return true if the saved shots were replayed on the board generated from the seed, so
+     *         that the game is that board plus the shots in its history
+     * @throws IOException if the contents aren't a valid saved game. The game is left
+     *             unchanged in that case.
+     */
+    public static boolean apply(ByteBuffer contents, Battleship game, GameHistory history)
+            throws IOException {
+        if (contents.remaining() >= 4 && contents.getInt(contents.position()) == MAGIC) {
+            return decode(contents, game, history);
+        }
+        importText(StandardCharsets.UTF_8.decode(contents).toString(), game, history);
+        return false;
+    }
+
+    /**
+     * Returns a game and its shots in the binary format, ready to be written. The buffer is a
+     * snapshot: later changes to the game don't affect it.
+     */
+    public static ByteBuffer encode(Battleship game, GameHistory history) {
+        int width = game.getWidth();
+        int height = game.getHeight();
+        int shots = history.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + width * height + 4 * shots + 4);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) width);
+        buffer.putShort((short) height);
+        buffer.putLong(game.getSeed());
+        buffer.putInt(game.getNumShots());
+        buffer.putInt(game.getSunkenShips());
+        buffer.putInt(shots);
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                buffer.put(game.getCode(c, r));
+            }
+        }
+        for (int i = 0; i < shots; i++) {
+            buffer.putInt(history.getShot(i));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().flip());
+        buffer.putInt((int) crc.getValue());
+        return buffer.flip();
+    }
+
+    /**
+     * Checks that contents are a saved game that apply can load, without loading it: the
+     * CRC, header, cell codes and shots of the binary format, or the rows and counts of the
+     * text format.
+     *
+     * @param contents the file's contents, as returned by read, which are left unchanged
+     * @throws IOException if the contents aren't a valid saved game
+     */
+    public static void check(ByteBuffer contents) throws IOException {
+        ByteBuffer buffer = contents.duplicate();
+        if (buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == MAGIC) {
+            parse(buffer);
+        } else {
+            Battleship scratch = new Battleship(0L);
+            importText(StandardCharsets.UTF_8.decode(buffer).toString(), scratch,
+                    new GameHistory(scratch));
+        }
+    }
+
+    /**
+     * A game in the binary format, once it has been checked.
+     */
+    private static final class Saved {
+        final int width;
+        final int height;
+        final long seed;
+        final int numShots;
+        final int sunkenShips;
+        final byte[] codes;
+        final int[] shotCells;
+
+        Saved(int width, int height, long seed, int numShots, int sunkenShips, byte[] codes,
+                int[] shotCells) {
+            this.width = width;
+            this.height = height;
+            this.seed = seed;
+            this.numShots = numShots;
+            this.sunkenShips = sunkenShips;
+            this.codes = codes;
+            this.shotCells = shotCells;
+        }
+    }
+
+    /**
+     * Checks a game in the binary format and loads it into game and history.
+     *
+     * @return true if the saved shots were replayed
+     */
+    static boolean decode(ByteBuffer buffer, Battleship game, GameHistory history)
+            throws IOException {
+        Saved saved = parse(buffer);
+        if (replay(saved.seed, saved.width, saved.height, saved.shotCells, saved.codes,
+                saved.numShots, saved.sunkenShips, game, history)) {
+            return true;
+        }
+        game.load(saved.width, saved.height, saved.codes, saved.numShots, saved.sunkenShips,
+                saved.seed);
+        history.clear();
+        return false;
+    }
+
+    /**
+     * Reads a game in the binary format, checking its CRC, header, cell codes and shots.
+     */
+    private static Saved parse(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < V1_HEADER_BYTES + 4) {
+            throw new IOException("save file is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(buffer.limit() - 4));
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+            throw new IOException("save file is corrupt (checksum mismatch)");
+        }
+        buffer.getInt(); // magic, already checked
+        short version = buffer.getShort();
+        if (version != VERSION && version != 1) {
+            throw new IOException("unsupported save file version " + version);
+        }
+        int width = buffer.getShort();
+        int height = version == 1 ? width : buffer.getShort();
+        int shotBytes = version == 1 ? 2 : 4;
+        long seed = buffer.getLong();
+        int numShots = buffer.getInt();
+        int sunkenShips = buffer.getInt();
+        int shots = buffer.getInt();
+        if (width <= 0 || height <= 0 || width > GameConfig.MAX_SIDE
+                || height > GameConfig.MAX_SIDE || shots < 0 || numShots < 0
+                || sunkenShips < 0
+                || buffer.remaining() != width * height + (long) shotBytes * shots + 4) {
+            throw new IOException("save file header doesn't match its contents");
+        }
+        byte[] codes = new byte[width * height];
+        buffer.get(codes);
+        for (byte code : codes) {
+            if (!Battleship.isValidCode(code)) {
+                throw new IOException("save file holds an unknown cell code " + code);
+            }
+        }
+        int[] shotCells = new int[shots];
+        for (int i = 0; i < shots; i++) {
+            shotCells[i] = version == 1 ? buffer.getShort() : buffer.getInt();
+            if (shotCells[i] < 0 || shotCells[i] >= codes.length) {
+                throw new IOException("save file holds a shot off the board");
+            }
+        }
+        return new Saved(width, height, seed, numShots, sunkenShips, codes, shotCells);
+    }
+
+    /**
+     * Rebuilds a game by generating the board from its seed and taking the saved shots, which
+     * keeps them in the history. Gives up, leaving game and history alone, if the result
+     * doesn't match the saved cells.
+     *
+     * @return true if the replay matched
+     */
+    private static boolean replay(long seed, int width, int height, int[] shotCells,
+            byte[] codes, int numShots, int sunkenShips, Battleship game, GameHistory history) {
+        GameConfig config = game.getConfig();
+        if (config.getWidth() != width || config.getHeight() != height) {
+            return false; // the seed would generate a board of another size
+        }
+        Battleship check = new Battleship(config, seed);
+        check.setNumShots(numShots + shotCells.length);
+        GameHistory checkHistory = new GameHistory(check);
+        for (int cell : shotCells) {
+            checkHistory.takeShot(cell % width, cell / width);
+        }
+        for (int i = 0; i < codes.length; i++) {
+            if (check.getCode(i % width, i / width) != codes[i]) {
+                return false;
+            }
+        }
+        if (check.getNumShots() != numShots || check.getSunkenShips() != sunkenShips) {
+            return false;
+        }
+        game.reset(seed);
+        game.setNumShots(numShots + shotCells.length);
+        history.clear();
+        for (int cell : shotCells) {
+            history.takeShot(cell % width, cell / width);
+        }
+        return true;
+    }
+
+    /**
+     * Loads a game saved in the old text format.
+     */
+    static void importText(String text, Battleship game, GameHistory history)
+            throws IOException {
+        BufferedReader br = new BufferedReader(new StringReader(text));
+        String[][] arr = new String[10][10];
+        for (int r = 0; r < 10; r++) {
+            String[] elements = nextElements(br);
+            if (elements.length < 10) {
+                throw new IOException("not a saved game: row " + r + " is too short");
+            }
+            for (int c = 0; c < 10; c++) {
+                arr[r][c] = elements[c];
+            }
+        }
+        String[] elements = nextElements(br);
+        int sunkenShips;
+        int numShots;
+        try {
+            sunkenShips = Integer.parseInt(elements[0]);
+            numShots = Integer.parseInt(elements[1]);
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IOException("not a saved game: bad ship and shot counts", e);
+        }
+        game.setBoard(arr);
+        game.setNumSunkenShips(sunkenShips);
+        game.setNumShots(numShots);
+        history.clear();
+    }
+
+    /**
+     * Returns the space-separated values on the next line of a text save.
+     */
+    private static String[] nextElements(BufferedReader br) throws IOException {
+        String line = br.readLine();
+        if (line == null) {
+            throw new IOException("not a saved game: file ends early");
+        }
+        return line.trim().split(" ");
+    }
+}
@@ -0,0 +1,249 @@
+package org.cis1200.Battleship;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class saves and loads games on a background thread, so that the
+ * Swing event thread never waits on the disk.
+ *
+ * Only the disk work happens in the background. save encodes the game on
+ * the calling thread, which takes a snapshot of it before it can change
+ * again, and hands the bytes to the background thread to write. load reads
+ * the file in the background and returns its contents; the caller then
+ * applies them to the game with SaveFile.apply on the thread that owns the
+ * game, so the game itself is only ever touched by one thread. recover is
+ * the exception: it replays a crash journal into a new engine in the
+ * background, and only hands the engine over once it is done with it.
+ *
+ * Games are kept in the named slots of a SaveStore in the service's
+ * directory, which is opened on the background thread the first time it is
+ * needed. If the store is empty then, games saved by earlier versions of
+ * the game in OLD_SAVE_FILES are copied into slots named after the files,
+ * if SaveFile.check finds that they hold a game.
+ *
+ * All the work runs on a single thread, so saves and loads happen in the
+ * order they were asked for: a load never sees a half-finished earlier save,
+ * and the last save always wins.
+ */
+public class SaveService {
+
+    public static final String[] OLD_SAVE_FILES = { "save.dat", "file.txt" };
+    public static final long SHUTDOWN_SECONDS = 5;
+
+    private final Path dir;
+    private SaveStore store; // only used on the background thread
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "battleship-save");
+        t.setDaemon(true); // don't keep the game running after its window closes
+        return t;
+    });
+
+    /**
+     * Creates a service keeping its slots in a directory.
+     *
+     * @param dir directory holding the save store
+     */
+    public SaveService(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Saves the game an engine is playing in a slot, in the background.
+     *
+     * @param slot name of the slot, replaced if it exists
+     * @param engine the engine, whose game is encoded before this method returns
+     * @return a future that completes when the game has been stored, or exceptionally with
+     *         an IOException if it couldn't be, or the exception that kept it from being
+     *         encoded
+     */
+    public CompletableFuture<Void> save(String slot, GameEngine engine) {
+        ByteBuffer contents;
+        try {
+            contents = engine.save();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e); // reported like any other failure
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                store().save(slot, contents);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Looks up the game in a slot in the background.
+     *
+     * @param slot name of the slot
+     * @return a future holding the saved game, to be passed to SaveFile.apply, or
+     *         completing exceptionally with an IOException if there is no such slot
+     */
+    public CompletableFuture<ByteBuffer> load(String slot) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return store().load(slot);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Lists the slots in the background.
+     *
+     * @return a future holding every slot, most recently saved first
+     */
+    public CompletableFuture<List<SaveStore.Slot>> slots() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return store().list();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Saves a game to a file of its own in the background.
+     *
+     * @param path file to write, replaced atomically if it exists
+     * @param game the game to save, which is encoded before this method returns
+     * @param history the shots taken in the game
+     * @return a future that completes when the file has been written, or exceptionally with
+     *         an IOException if it couldn't be, or the exception that kept it from being
+     *         encoded
+     */
+    public CompletableFuture<Void> save(Path path, Battleship game, GameHistory history) {
+        ByteBuffer contents;
+        try {
+            contents = SaveFile.encode(game, history);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                SaveFile.write(path, contents);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Reads a save file in the background.
+     *
+     * @param path file to read
+     * @return a future holding the file's contents, to be passed to SaveFile.apply, or
+     *         completing exceptionally with an IOException if the file couldn't be read
+     */
+    public CompletableFuture<ByteBuffer> read(Path path) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return SaveFile.read(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Replays the game in a crash journal in the background.
+     *
+     * @param journal the journal file
+     * @return a future holding a new engine playing the journaled game, which has no
+     *         listeners and belongs to the caller from then on, or null if the journal holds
+     *         no game; completes exceptionally with an IOException if the journal couldn't be
+     *         read
+     */
+    public CompletableFuture<GameEngine> recover(Path journal) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                GameConfig config = ShotJournal.getConfig(journal);
+                if (config == null) {
+                    return null;
+                }
+                GameEngine engine = new GameEngine(config, new SplittableRandom().nextLong());
+                return engine.recover(journal) ? engine : null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Returns the IOException behind a failed save or read, unwrapping the exceptions the
+     * future wraps it in.
+     */
+    public static Throwable cause(Throwable failure) {
+        while (failure.getCause() != null
+                && (failure instanceof CompletionException
+                        || failure instanceof ExecutionException
+                        || failure instanceof UncheckedIOException)) {
+            failure = failure.getCause();
+        }
+        return failure;
+    }
+
+    /**
+     * Stops the background thread, and closes the store, once the work already asked for is
+     * done. Waits up to SHUTDOWN_SECONDS for that, so that a save asked for just before the
+     * game exits still gets written.
+     */
+    public void shutdown() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                if (store != null) {
+                    store.close();
+                }
+            } catch (IOException e) {
+                // nothing left to save, so there is nothing to lose
+            }
+        });
+        executor.shutdown();
+        try {
+            executor.awaitTermination(SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the store, opening it and importing the old save files the first time.
+     */
+    private SaveStore store() throws IOException {
+        if (store == null) {
+            store = new SaveStore(dir);
+            if (store.size() == 0) {
+                for (String name : OLD_SAVE_FILES) {
+                    Path old = dir.resolve(name);
+                    if (Files.exists(old)) {
+                        ByteBuffer contents = SaveFile.read(old);
+                        try {
+                            SaveFile.check(contents);
+                        } catch (IOException e) {
+                            continue; // not a saved game, so there is nothing to import
+                        }
+                        store.save(name, contents);
+                    }
+                }
+            }
+        }
+        return store;
+    }
+}
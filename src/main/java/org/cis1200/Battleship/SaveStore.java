@@ -0,0 +1,463 @@
+package org.cis1200.Battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class keeps many saved games, each under a name (its slot), in two
+ * memory-mapped files in one directory:
+ *
+ * <pre>
+ *   saves.idx    a header followed by one fixed-size entry per slot
+ *   saves.N.dat  the saved games, one after the other, as SaveFile wrote them
+ *
+ *   header:  int MAGIC, short VERSION, short ENTRY_BYTES, int slot count,
+ *            long end of the data written so far, int N
+ *   entry:   short name length, byte[MAX_NAME_BYTES] name (UTF-8),
+ *            long location: offset in saves.N.dat << 32 | length,
+ *            int unused, long time saved (ms)
+ * </pre>
+ *
+ * Both files are mapped into memory whole, and a map from slot name to entry
+ * number is built when the store is opened, so finding, listing and loading
+ * a slot never parses a file: a load copies the game out of the mapped data.
+ *
+ * Saved games are only ever appended to the data file, and the index entry is
+ * pointed at them once they are written, so saving never overwrites a game
+ * that is already there. The offset and length of a game are one long, so
+ * saving over a slot switches it to the new game with one aligned write, and
+ * a crash leaves the entry pointing at either the old game or the new one.
+ * Saving over a slot or deleting it leaves its old bytes behind as garbage.
+ * Once there is more garbage than live data, save compacts the store: the
+ * live games are copied to the data file of the next generation N + 1, and a
+ * new index pointing into it is renamed over the old one. Until that rename,
+ * the old index and data file are untouched, so a crash at any point leaves
+ * a consistent store. The files are unmapped before they are replaced.
+ * Stores of VERSION 1, which kept the offset and length apart, are
+ * compacted into the new format when they are opened.
+ *
+ * The store doesn't check what it is given: any bytes SaveFile.apply can
+ * load, including the old text format, can be kept in a slot.
+ */
+public class SaveStore implements Closeable {
+
+    public static final String INDEX_FILE = "saves.idx";
+    public static final int MAGIC = 0x42534958; // "BSIX"
+    public static final short VERSION = 2;
+    public static final int MAX_NAME_BYTES = 30;
+
+    static final int ENTRY_BYTES = 64; // the header takes the space of one entry
+    private static final int NAME = 0;
+    private static final int LOCATION = 2 + MAX_NAME_BYTES;
+    private static final int V1_LENGTH = LOCATION + 8; // VERSION 1 kept the length apart
+    private static final int SAVED_AT = V1_LENGTH + 4;
+    private static final int COMPACT_THRESHOLD = 64 * 1024; // garbage always allowed
+
+    /**
+     * A slot as listed by the store.
+     */
+    public static final class Slot {
+        private final String name;
+        private final long savedAt;
+        private final int length;
+
+        Slot(String name, long savedAt, int length) {
+            this.name = name;
+            this.savedAt = savedAt;
+            this.length = length;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** Returns when the slot was last saved, in milliseconds since the epoch. */
+        public long getSavedAt() {
+            return savedAt;
+        }
+
+        /** Returns the size of the saved game, in bytes. */
+        public int getLength() {
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final Path dir;
+    private FileChannel dataChannel;
+    private FileChannel indexChannel;
+    private MappedByteBuffer data;
+    private MappedByteBuffer index;
+    private final Map<String, Integer> entries = new HashMap<>(); // slot name to entry number
+    private int count;
+    private long dataEnd;
+    private int generation; // number in the name of the data file
+    private short version; // of the index that is open
+    private long live; // bytes of dataEnd that belong to a slot
+
+    /**
+     * Opens the store in a directory, creating its files if they don't exist yet.
+     *
+     * @param dir directory holding the store's files
+     * @throws IOException if the files can't be opened or don't hold a store
+     */
+    public SaveStore(Path dir) throws IOException {
+        this.dir = dir;
+        open();
+        if (version < VERSION) {
+            try {
+                compact(); // into the current format
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Saves a game in a slot, replacing whatever the slot held.
+     *
+     * @param name name of the slot, at most MAX_NAME_BYTES bytes in UTF-8
+     * @param contents the saved game, e.g. from SaveFile.encode. Its position is left as is.
+     * @throws IOException if the files can't be written or grown
+     * @throws IllegalArgumentException if the name is empty or too long
+     */
+    public synchronized void save(String name, ByteBuffer contents) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length == 0 || nameBytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("slot names must be 1 to " + MAX_NAME_BYTES
+                    + " bytes long: " + name);
+        }
+        int length = contents.remaining();
+        Integer existing = entries.get(name);
+        long garbage = dataEnd - live + (existing == null ? 0 : entryLength(existing));
+        if (garbage > Math.max(live, COMPACT_THRESHOLD)) {
+            compact();
+        }
+
+        // write the game after everything else, then point the slot at it
+        long offset = dataEnd;
+        ensureData(offset + length);
+        data.put((int) offset, contents, contents.position(), length);
+        data.force();
+
+        int entry;
+        if (existing != null) {
+            entry = existing;
+            live -= entryLength(entry);
+        } else {
+            entry = count;
+            ensureIndex(entry + 1);
+            int at = entryAt(entry);
+            index.putShort(at + NAME, (short) nameBytes.length);
+            index.put(at + NAME + 2, nameBytes);
+        }
+        int at = entryAt(entry);
+        index.putLong(at + SAVED_AT, System.currentTimeMillis());
+        index.putLong(at + LOCATION, offset << 32 | length); // the switch to the new game
+        dataEnd = offset + length;
+        live += length;
+        if (existing == null) {
+            count++;
+            entries.put(name, entry);
+        }
+        writeHeader();
+        index.force();
+    }
+
+    /**
+     * Returns the game saved in a slot.
+     *
+     * @param name name of the slot
+     * @return a copy of the saved game, to be passed to SaveFile.apply
+     * @throws IOException if there is no such slot
+     */
+    public synchronized ByteBuffer load(String name) throws IOException {
+        Integer entry = entries.get(name);
+        if (entry == null) {
+            throw new IOException("no saved game named \"" + name + "\"");
+        }
+        int length = entryLength(entry);
+        ByteBuffer game = ByteBuffer.allocate(length);
+        game.put(0, data, entryOffset(entry), length);
+        return game;
+    }
+
+    /**
+     * Deletes a slot. Its space is reclaimed the next time the store is compacted.
+     *
+     * @return false if there was no such slot
+     * @throws IOException if the index can't be written
+     */
+    public synchronized boolean delete(String name) throws IOException {
+        Integer entry = entries.remove(name);
+        if (entry == null) {
+            return false;
+        }
+        live -= entryLength(entry);
+        count--;
+        if (entry != count) {
+            // move the last entry into the hole
+            int from = entryAt(count);
+            index.put(entryAt(entry), index, from, ENTRY_BYTES);
+            entries.put(nameAt(entry), entry);
+        }
+        writeHeader();
+        index.force();
+        return true;
+    }
+
+    /** Returns whether a slot exists. */
+    public synchronized boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    /** Returns the number of slots. */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Returns every slot, most recently saved first.
+     */
+    public synchronized List<Slot> list() {
+        List<Slot> slots = new ArrayList<>(count);
+        for (int entry = 0; entry < count; entry++) {
+            int at = entryAt(entry);
+            slots.add(new Slot(nameAt(entry), index.getLong(at + SAVED_AT),
+                    entryLength(entry)));
+        }
+        slots.sort((a, b) -> Long.compare(b.getSavedAt(), a.getSavedAt()));
+        return slots;
+    }
+
+    /**
+     * Rewrites the store without the bytes of old and deleted games. The games are copied to
+     * a new data file, and a new index is then renamed over the old one.
+     *
+     * @throws IOException if the new files can't be written
+     */
+    public synchronized void compact() throws IOException {
+        int oldGeneration = generation;
+        Path oldData = dataFile(generation);
+        Path newData = dataFile(generation + 1);
+        Path indexTemp = Files.createTempFile(dir, INDEX_FILE, ".tmp");
+        try {
+            ByteBuffer newIndex = ByteBuffer.allocate(ENTRY_BYTES * (count + 1));
+            try (FileChannel out = FileChannel.open(newData, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                long offset = 0;
+                for (int entry = 0; entry < count; entry++) {
+                    int at = entryAt(entry);
+                    int length = entryLength(entry);
+                    ByteBuffer game = data.slice(entryOffset(entry), length);
+                    while (game.hasRemaining()) {
+                        out.write(game);
+                    }
+                    newIndex.put(at, index, at, ENTRY_BYTES);
+                    newIndex.putLong(at + LOCATION, offset << 32 | length);
+                    newIndex.putInt(at + V1_LENGTH, 0);
+                    offset += length;
+                }
+                out.force(false);
+                putHeader(newIndex, count, offset, generation + 1);
+            }
+            try (FileChannel out = FileChannel.open(indexTemp, StandardOpenOption.WRITE)) {
+                while (newIndex.hasRemaining()) {
+                    out.write(newIndex);
+                }
+                out.force(false);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(indexTemp);
+            throw e;
+        }
+
+        // the old files can only be replaced once nothing maps them
+        close();
+        try {
+            try {
+                Files.move(indexTemp, dir.resolve(INDEX_FILE), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(indexTemp, dir.resolve(INDEX_FILE),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(indexTemp);
+            open(); // the new store, or the old one if the move failed
+        }
+        if (generation != oldGeneration) {
+            Files.deleteIfExists(oldData);
+        }
+    }
+
+    /**
+     * Closes the store's files. The store can't be used afterwards.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        unmap(data);
+        unmap(index);
+        data = null;
+        index = null;
+        entries.clear();
+        if (dataChannel != null) {
+            dataChannel.close();
+        }
+        if (indexChannel != null) {
+            indexChannel.close();
+        }
+    }
+
+    /**
+     * Opens and maps both files and reads the index.
+     */
+    private void open() throws IOException {
+        indexChannel = FileChannel.open(dir.resolve(INDEX_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = indexChannel.size() == 0;
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                Math.max(indexChannel.size(), ENTRY_BYTES * 16));
+        if (created) {
+            count = 0;
+            dataEnd = 0;
+            generation = 0;
+            writeHeader();
+        } else if (index.getInt(0) != MAGIC || index.getShort(4) < 1
+                || index.getShort(4) > VERSION || index.getShort(6) != ENTRY_BYTES) {
+            close();
+            throw new IOException(INDEX_FILE + " isn't a save store index");
+        }
+        version = index.getShort(4);
+        count = index.getInt(8);
+        dataEnd = index.getLong(12);
+        generation = index.getInt(20);
+        dataChannel = FileChannel.open(dataFile(generation), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                Math.max(dataChannel.size(), 1024));
+        if (count < 0 || (long) ENTRY_BYTES * (count + 1) > index.capacity() || dataEnd < 0
+                || dataEnd > data.capacity()) {
+            close();
+            throw new IOException(INDEX_FILE + " is corrupt");
+        }
+
+        live = 0;
+        for (int entry = 0; entry < count; entry++) {
+            long end = (long) entryOffset(entry) + entryLength(entry);
+            if (entryOffset(entry) < 0 || entryLength(entry) < 0 || end > data.capacity()) {
+                close();
+                throw new IOException(INDEX_FILE + " is corrupt");
+            }
+            entries.put(nameAt(entry), entry);
+            live += entryLength(entry);
+            // a crash after an entry switched to a new game, but before the header was
+            // written, leaves the game past the header's end of the data
+            dataEnd = Math.max(dataEnd, end);
+        }
+    }
+
+    private void writeHeader() {
+        putHeader(index, count, dataEnd, generation);
+    }
+
+    private static void putHeader(ByteBuffer buffer, int count, long dataEnd, int generation) {
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putShort(6, (short) ENTRY_BYTES);
+        buffer.putInt(8, count);
+        buffer.putLong(12, dataEnd);
+        buffer.putInt(20, generation);
+    }
+
+    private Path dataFile(int generation) {
+        return dir.resolve("saves." + generation + ".dat");
+    }
+
+    /**
+     * Unmaps a buffer now rather than whenever it is garbage collected, so that its file can be
+     * replaced or deleted, e.g. on Windows. Nothing may use the buffer or a slice of it
+     * afterwards. If the JDK won't unmap it, it is left to the garbage collector.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            java.lang.reflect.Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class)
+                    .invoke(theUnsafe.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // no way to unmap it here
+        }
+    }
+
+    /**
+     * Grows the data file, doubling it, until it is at least the given size, and maps it again.
+     */
+    private void ensureData(long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("save store is full");
+        }
+        if (size > data.capacity()) {
+            long capacity = Math.min(Integer.MAX_VALUE, Math.max(size, 2L * data.capacity()));
+            MappedByteBuffer old = data;
+            data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            unmap(old);
+        }
+    }
+
+    /**
+     * Grows the index file until it holds at least the given number of entries.
+     */
+    private void ensureIndex(int entriesNeeded) throws IOException {
+        long size = (long) ENTRY_BYTES * (entriesNeeded + 1);
+        if (size > index.capacity()) {
+            MappedByteBuffer old = index;
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Math.max(size, 2L * index.capacity()));
+            unmap(old);
+        }
+    }
+
+    private static int entryAt(int entry) {
+        return ENTRY_BYTES * (entry + 1);
+    }
+
+    private String nameAt(int entry) {
+        int at = entryAt(entry);
+        byte[] name = new byte[index.getShort(at + NAME)];
+        index.get(at + NAME + 2, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private int entryOffset(int entry) {
+        long location = index.getLong(entryAt(entry) + LOCATION);
+        return (int) (version == 1 ? location : location >>> 32);
+    }
+
+    private int entryLength(int entry) {
+        int at = entryAt(entry);
+        return version == 1 ? index.getInt(at + V1_LENGTH) : (int) index.getLong(at + LOCATION);
+    }
+}
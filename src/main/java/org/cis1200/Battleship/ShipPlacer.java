@@ -0,0 +1,324 @@
+package org.cis1200.Battleship;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class picks random positions for a whole fleet. Instead of drawing
+ * random cells until a ship happens to fit, it draws among the positions
+ * where the next ship is legal given the cells already blocked by the
+ * ships before it. If a ship has no legal position left, the placer backs
+ * up and moves the ship before it to another of its positions. In practice
+ * it almost never needs to back up because the largest ships are placed
+ * first, but a fleet that doesn't fit, or only just, could keep it backing
+ * up for ages, so it gives up once it has checked MAX_CHECKS positions.
+ *
+ * On the classic 10x10 board the blocked cells are kept as a BitBoard-style
+ * mask of two longs: a ship blocks its own cells and every cell around it,
+ * since no ship can touch another one. The positions and their masks come
+ * from the precomputed PlacementTable, so placing a fleet allocates nothing.
+ *
+ * Bigger boards, from a GameConfig, have too many positions to list for
+ * every ship, and most of them are legal anyway. There the placer keeps a
+ * count of the ships blocking each cell and first draws positions at
+ * random from all of a ship's positions, keeping the first legal one,
+ * which is just as likely to be any of the legal positions as a draw from
+ * the list would be. Only if TRIES draws in a row miss does it list the
+ * legal positions, as on the small board. Placing a fleet then takes time
+ * in proportion to the number of ships, not to the size of the board times
+ * the number of ships. Since such a fleet can have hundreds of thousands of
+ * ships, the search keeps its state per ship in arrays and loops over the
+ * ships, rather than recursing a call deeper per ship as on the small board.
+ *
+ * A placement is packed into an int: the index of the ship's first cell
+ * (row * width + col) in the low 23 bits, a vertical flag in bit 23 and the
+ * ship's length from bit 24 up.
+ */
+public class ShipPlacer {
+
+    // 1 carrier, 2 battleships, 3 cruisers and 4 submarines, largest first
+    public static final int[] FLEET = { 4, 3, 3, 2, 2, 2, 1, 1, 1, 1 };
+
+    /** Random draws made for a ship on a big board before listing its legal positions. */
+    public static final int TRIES = 64;
+
+    /** Positions checked for a fleet before the placer gives up on it. */
+    public static final long MAX_CHECKS = 1L << 28;
+
+    private static final int SIZE = BitBoard.SIZE;
+    private static final int VERTICAL_FLAG = 1 << 23;
+    private static final int CELL_MASK = VERTICAL_FLAG - 1;
+    private static final int FRESH = -1;
+    private static final int DRAWN = -2;
+
+    private final int width;
+    private final int height;
+    private final int[] fleet;
+    private final boolean small; // whether the PlacementTable covers the board
+    // candidates[s] holds the legal positions left for ship s during the search
+    private final int[][] candidates;
+    private final int[] placements;
+    private final int[] blocked; // on a big board, the number of ships blocking each cell
+    // on a big board, the positions of ship s left to try are candidates[s][0..left[s]),
+    // unless left[s] is FRESH (none drawn yet) or DRAWN (only drawn[s] tried, or none)
+    private final int[] left;
+    private final int[] drawn;
+    private long checks; // positions checked so far for this fleet
+
+    /**
+     * Creates a placer for the classic fleet on the classic board.
+     */
+    public ShipPlacer() {
+        this(GameConfig.STANDARD);
+    }
+
+    /**
+     * Creates a placer for the board and fleet of a config.
+     */
+    public ShipPlacer(GameConfig config) {
+        width = config.getWidth();
+        height = config.getHeight();
+        fleet = config.getFleet();
+        small = width == SIZE && height == SIZE
+                && config.getMaxLength() <= PlacementTable.STANDARD.getMaxLength();
+        candidates = new int[fleet.length][];
+        placements = new int[fleet.length];
+        blocked = small ? null : new int[width * height];
+        left = small ? null : new int[fleet.length];
+        drawn = small ? null : new int[fleet.length];
+    }
+
+    /**
+     * Places the whole fleet at random.
+     *
+     * @param random source of every random choice made for this fleet
+     * @return the placement of each ship in the fleet, longest first. The array is reused by
+     *         the next call.
+     * @throws IllegalStateException if the fleet doesn't fit on the board, or the placer
+     *             gives up on it
+     */
+    public int[] placeFleet(RandomGenerator random) {
+        boolean placed;
+        checks = 0;
+        if (small) {
+            placed = placeFrom(0, 0, 0, random);
+        } else {
+            java.util.Arrays.fill(blocked, 0);
+            placed = placeFrom(0, random);
+        }
+        if (!placed) {
+            throw new IllegalStateException("fleet does not fit on the board");
+        }
+        return placements;
+    }
+
+    /**
+     * Places ships ship, ship + 1, ... given the cells that are already blocked.
+     *
+     * @return false if there is no way to place them
+     */
+    private boolean placeFrom(int ship, long blockedLo, long blockedHi,
+            RandomGenerator random) {
+        if (ship == fleet.length) {
+            return true;
+        }
+        PlacementTable table = PlacementTable.STANDARD;
+        int length = fleet[ship];
+        if (candidates[ship] == null) {
+            candidates[ship] = new int[table.end(length) - table.first(length)];
+        }
+        int[] legal = candidates[ship];
+        int count = 0;
+        for (int p = table.first(length); p < table.end(length); p++) {
+            if (table.fits(p, blockedLo, blockedHi)) {
+                legal[count++] = p;
+            }
+        }
+        checked(table.end(length) - table.first(length));
+
+        while (count > 0) {
+            // draw one of the remaining positions and remove it from the list
+            int k = random.nextInt(count);
+            int p = legal[k];
+            legal[k] = legal[--count];
+
+            placements[ship] = table.placement(p);
+            if (placeFrom(ship + 1, blockedLo | table.haloLo(p), blockedHi | table.haloHi(p),
+                    random)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Places ships ship, ship + 1, ... on a big board, given the counts in blocked.
+     * placements[0..ship) are the ships placed so far; backing up takes the last of them
+     * away again and tries its next position.
+     *
+     * @return false if there is no way to place them
+     */
+    private boolean placeFrom(int ship, RandomGenerator random) {
+        left[ship] = FRESH;
+        while (ship < fleet.length) {
+            int k = nextPosition(ship, random);
+            if (k < 0) {
+                // no position left for this ship: move the one before it
+                if (ship == 0) {
+                    return false;
+                }
+                ship--;
+                block(placements[ship], -1);
+                continue;
+            }
+            placements[ship] = placement(k, fleet[ship]);
+            block(placements[ship], 1);
+            ship++;
+            if (ship < fleet.length) {
+                left[ship] = FRESH;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the next position to try for a ship on a big board, or -1 if it has none left.
+     * A ship first draws TRIES positions at random and takes the first legal one. If that
+     * misses, or the ship needs to move, it lists the legal positions it hasn't tried and
+     * draws from them until none are left.
+     */
+    private int nextPosition(int ship, RandomGenerator random) {
+        int length = fleet[ship];
+        int positions = positions(length);
+        if (left[ship] == FRESH) {
+            for (int t = 0; t < TRIES; t++) {
+                int k = random.nextInt(positions);
+                if (fits(k, length)) {
+                    left[ship] = DRAWN;
+                    drawn[ship] = k;
+                    return k;
+                }
+            }
+            left[ship] = DRAWN;
+            drawn[ship] = -1;
+        }
+        if (left[ship] == DRAWN) {
+            // list the legal positions not tried yet
+            if (candidates[ship] == null) {
+                candidates[ship] = new int[positions];
+            }
+            int[] legal = candidates[ship];
+            int count = 0;
+            for (int k = 0; k < positions; k++) {
+                if (k != drawn[ship] && fits(k, length)) {
+                    legal[count++] = k;
+                }
+            }
+            checked(positions);
+            left[ship] = count;
+        }
+        if (left[ship] == 0) {
+            return -1;
+        }
+        int[] legal = candidates[ship];
+        int i = random.nextInt(left[ship]);
+        int k = legal[i];
+        legal[i] = legal[--left[ship]];
+        return k;
+    }
+
+    /**
+     * Counts positions checked for the fleet, and gives up on it once there have been too
+     * many: a fleet that only just fits, or doesn't fit at all, can take the search through
+     * more ways of placing its ships than the universe has time for.
+     */
+    private void checked(int positions) {
+        checks += positions;
+        if (checks > MAX_CHECKS) {
+            throw new IllegalStateException("gave up placing the fleet after checking "
+                    + MAX_CHECKS + " positions; it doesn't fit on the board, or only just");
+        }
+    }
+
+    /**
+     * Returns the number of positions a ship of the given length has on an empty big board.
+     * Positions 0 up to width - length + 1 times height are horizontal, the rest vertical.
+     */
+    private int positions(int length) {
+        int horizontal = length <= width ? (width - length + 1) * height : 0;
+        int vertical = length > 1 && length <= height ? width * (height - length + 1) : 0;
+        return horizontal + vertical;
+    }
+
+    private int placement(int k, int length) {
+        int across = width - length + 1;
+        int horizontal = length <= width ? across * height : 0;
+        if (k < horizontal) {
+            return encode(length, false, (k / across) * width + k % across);
+        }
+        return encode(length, true, k - horizontal);
+    }
+
+    /**
+     * Returns whether none of the cells of position k is blocked.
+     */
+    private boolean fits(int k, int length) {
+        int p = placement(k, length);
+        int step = isVertical(p) ? width : 1;
+        int first = cell(p);
+        for (int i = 0; i < length; i++) {
+            if (blocked[first + i * step] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds delta to the count of every cell of a placement's halo: its cells and the cells
+     * around them.
+     */
+    private void block(int p, int delta) {
+        int length = length(p);
+        boolean vertical = isVertical(p);
+        int top = cell(p) / width;
+        int left = cell(p) % width;
+        int bottom = vertical ? top + length - 1 : top;
+        int right = vertical ? left : left + length - 1;
+        for (int r = Math.max(top - 1, 0); r <= Math.min(bottom + 1, height - 1); r++) {
+            for (int c = Math.max(left - 1, 0); c <= Math.min(right + 1, width - 1); c++) {
+                blocked[r * width + c] += delta;
+            }
+        }
+    }
+
+    static int encode(int length, boolean vertical, int row, int col) {
+        return encode(length, vertical, row * SIZE + col);
+    }
+
+    static int encode(int length, boolean vertical, int cell) {
+        return (length << 24) | (vertical ? VERTICAL_FLAG : 0) | cell;
+    }
+
+    public static int length(int placement) {
+        return placement >>> 24;
+    }
+
+    public static boolean isVertical(int placement) {
+        return (placement & VERTICAL_FLAG) != 0;
+    }
+
+    /** Returns the index of the ship's first cell, row * width + col. */
+    public static int cell(int placement) {
+        return placement & CELL_MASK;
+    }
+
+    /** Returns the row of the ship's first cell on the 10x10 board. */
+    public static int row(int placement) {
+        return cell(placement) / SIZE;
+    }
+
+    /** Returns the column of the ship's first cell on the 10x10 board. */
+    public static int col(int placement) {
+        return cell(placement) % SIZE;
+    }
+}
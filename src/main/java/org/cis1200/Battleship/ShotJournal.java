@@ -0,0 +1,387 @@
+package org.cis1200.Battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * This class keeps a write-ahead journal of the game being played, so that
+ * a game can be recovered after a crash even if it was never saved. Every
+ * change to the game is appended to the journal as a fixed-size record:
+ *
+ * <pre>
+ *   long   seed the board was generated from
+ *   int    a
+ *   int    b
+ *   int    c
+ *   int    d
+ *   byte   kind: START, FLEET, SHOT or SEEK
+ *   byte[3] unused
+ *   int    CRC32 of the 28 bytes above
+ * </pre>
+ *
+ * A game begins with a START record, whose a is the number of shots the
+ * player had on the fresh board and b, c and d are the width, height and
+ * shots of its GameConfig. It is followed by a FLEET record for every
+ * length of ship in the fleet, with the length in a and the number of ships
+ * of that length in b, and then by a SHOT record for every shot in its
+ * history. A SHOT record says the shot numbered a was taken at cell b,
+ * numbered row * width + col, which drops any shots after it that were
+ * undone; a SEEK record says the game was undone or redone to a shots.
+ * recover replays the records of the last game on the board generated from
+ * its seed, stopping at the first record that is torn or doesn't check out,
+ * e.g. a shot at a cell that isn't on the board. It only recovers a game
+ * into a Battleship with the same config; getConfig says which one that is.
+ *
+ * The methods that add records only copy 32 bytes into a buffer, so they
+ * cost nothing on the event thread. A background thread writes the buffer
+ * to the file and forces it to disk every FLUSH_MILLIS, so one fsync covers
+ * every record since the last one, and a crash loses at most the last
+ * FLUSH_MILLIS of play.
+ *
+ * A journal listens to a GameEngine to find out about the changes to its
+ * game, and can also be fed directly with begin, shot and seek.
+ */
+public class ShotJournal implements Closeable, GameEngine.Listener {
+
+    public static final int RECORD_BYTES = 32;
+    public static final long FLUSH_MILLIS = 200;
+
+    static final byte START = 1;
+    static final byte SHOT = 2;
+    static final byte SEEK = 3;
+    static final byte FLEET = 4;
+    private static final int KIND = 24; // offset of the kind in a record
+
+    private final FileChannel channel;
+    private final ScheduledExecutorService flusher = Executors
+            .newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "battleship-journal");
+                t.setDaemon(true);
+                return t;
+            });
+
+    // records not yet written, and whether the file must be emptied before writing them.
+    // Both are guarded by this.
+    private ByteBuffer pending = ByteBuffer.allocate(64 * RECORD_BYTES);
+    private boolean truncate;
+
+    /**
+     * Opens a journal file, creating it if it doesn't exist. The records already in it are
+     * kept until the next call to begin or clear.
+     *
+     * @param path the journal file
+     * @throws IOException if the file can't be opened
+     */
+    public ShotJournal(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size() - channel.size() % RECORD_BYTES);
+        flusher.scheduleWithFixedDelay(this::flushQuietly, FLUSH_MILLIS, FLUSH_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts journaling a new game, forgetting the one before. The game must be the board
+     * generated from its seed plus the shots in its history, e.g. after a reset or after
+     * loading a saved game whose shots were replayed.
+     *
+     * @param game the game
+     * @param history its shots, all of which are journaled, including ones undone
+     */
+    public synchronized void begin(Battleship game, GameHistory history) {
+        pending.clear();
+        truncate = true;
+        long seed = game.getSeed();
+        GameConfig config = game.getConfig();
+        append(seed, START, game.getNumShots() + history.size(), config.getWidth(),
+                config.getHeight(), config.getShots());
+        for (int length = 1; length <= GameConfig.MAX_LENGTH; length++) {
+            if (config.countShips(length) > 0) {
+                append(seed, FLEET, length, config.countShips(length), 0, 0);
+            }
+        }
+        for (int i = 0; i < history.length(); i++) {
+            append(seed, SHOT, i, history.getShot(i), 0, 0);
+        }
+        if (history.size() != history.length()) {
+            append(seed, SEEK, history.size(), 0, 0, 0);
+        }
+    }
+
+    /**
+     * Journals a shot that was just taken through the game's history.
+     *
+     * @param game the game
+     * @param history its history, whose last shot is the one to journal
+     */
+    public synchronized void shot(Battleship game, GameHistory history) {
+        int i = history.size() - 1;
+        append(game.getSeed(), SHOT, i, history.getShot(i), 0, 0);
+    }
+
+    /**
+     * Journals an undo, redo or seek.
+     *
+     * @param game the game
+     * @param history its history, at the point that was moved to
+     */
+    public synchronized void seek(Battleship game, GameHistory history) {
+        append(game.getSeed(), SEEK, history.size(), 0, 0, 0);
+    }
+
+    @Override
+    public void gameStarted(GameEngine engine) {
+        if (engine.isSeeded()) {
+            begin(engine.getGame(), engine.getHistory());
+        } else {
+            clear(); // the board can't be rebuilt from its seed
+        }
+    }
+
+    @Override
+    public void shotTaken(GameEngine engine, int col, int row, GameEngine.ShotResult result) {
+        shot(engine.getGame(), engine.getHistory());
+    }
+
+    @Override
+    public void historyMoved(GameEngine engine) {
+        seek(engine.getGame(), engine.getHistory());
+    }
+
+    /**
+     * Forgets the journaled game, e.g. when a game is loaded that can't be rebuilt from its
+     * seed.
+     */
+    public synchronized void clear() {
+        pending.clear();
+        truncate = true;
+    }
+
+    /**
+     * Writes every record added so far and forces it to disk.
+     *
+     * @throws IOException if the journal can't be written
+     */
+    public void flush() throws IOException {
+        synchronized (channel) { // keeps batches in order if two flushes overlap
+            ByteBuffer batch;
+            boolean empty;
+            synchronized (this) {
+                if (pending.position() == 0 && !truncate) {
+                    return;
+                }
+                batch = ByteBuffer.allocate(pending.position());
+                batch.put(pending.flip()).flip();
+                pending.clear();
+                empty = truncate;
+                truncate = false;
+            }
+            if (empty) {
+                channel.truncate(0);
+                channel.position(0);
+            }
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            channel.force(false);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            // the journal is best effort; the game goes on without it
+        }
+    }
+
+    /**
+     * Writes what is left of the journal and closes it.
+     */
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        channel.close();
+    }
+
+    private void append(long seed, byte kind, int a, int b, int c, int d) {
+        if (!pending.hasRemaining()) {
+            pending = ByteBuffer.allocate(2 * pending.capacity()).put(pending.flip());
+        }
+        int start = pending.position();
+        pending.putLong(seed).putInt(a).putInt(b).putInt(c).putInt(d)
+                .put(kind).put((byte) 0).putShort((short) 0);
+        pending.putInt(check(pending, start));
+    }
+
+    private static int check(ByteBuffer buffer, int start) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(start).limit(start + RECORD_BYTES - 4));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * The last game in a journal: where its records are, and its config.
+     */
+    private static final class LastGame {
+        final ByteBuffer records;
+        final int start; // offset of the START record
+        final int shots; // offset of the first record after the FLEET records
+        final int end; // offset just past the last valid record
+        final GameConfig config;
+
+        LastGame(ByteBuffer records, int start, int shots, int end, GameConfig config) {
+            this.records = records;
+            this.start = start;
+            this.shots = shots;
+            this.end = end;
+            this.config = config;
+        }
+
+        int get(int record, int field) {
+            return records.getInt(record + 8 + 4 * field);
+        }
+    }
+
+    /**
+     * Reads the last game in a journal file, or returns null if there is none with a shot in
+     * it, or its START and FLEET records don't make a valid config.
+     */
+    private static LastGame read(Path path) throws IOException {
+        ByteBuffer records;
+        try {
+            records = ByteBuffer.wrap(Files.readAllBytes(path));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        // find the valid records, and where the last game starts
+        int end = 0;
+        int lastStart = -1;
+        while (end + RECORD_BYTES <= records.limit()
+                && records.getInt(end + RECORD_BYTES - 4) == check(records, end)) {
+            if (records.get(end + KIND) == START) {
+                lastStart = end;
+            }
+            end += RECORD_BYTES;
+        }
+        if (lastStart < 0) {
+            return null;
+        }
+
+        // the config: the START record's size and shots, and the FLEET records after it
+        long seed = records.getLong(lastStart);
+        int[] counts = new int[GameConfig.MAX_LENGTH + 1];
+        int ships = 0;
+        int at = lastStart + RECORD_BYTES;
+        for (; at < end && records.get(at + KIND) == FLEET && records.getLong(at) == seed;
+                at += RECORD_BYTES) {
+            int length = records.getInt(at + 8);
+            int count = records.getInt(at + 12);
+            if (length < 1 || length > GameConfig.MAX_LENGTH || count < 1
+                    || count > GameConfig.MAX_SIDE * GameConfig.MAX_SIDE) {
+                return null;
+            }
+            counts[length] += count;
+            ships += count;
+        }
+        if (at == end || ships > GameConfig.MAX_SIDE * GameConfig.MAX_SIDE) {
+            return null; // no shots
+        }
+        int[] fleet = new int[ships];
+        for (int length = 1, i = 0; length <= GameConfig.MAX_LENGTH; length++) {
+            for (int n = 0; n < counts[length]; n++) {
+                fleet[i++] = length;
+            }
+        }
+        GameConfig config;
+        try {
+            config = new GameConfig(records.getInt(lastStart + 12), records.getInt(lastStart + 16),
+                    fleet, records.getInt(lastStart + 20));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return new LastGame(records, lastStart, at, end, config);
+    }
+
+    /**
+     * Returns the config of the last game in a journal file, i.e. the config a game must have
+     * for recover to rebuild it.
+     *
+     * @param path the journal file
+     * @return the config, or null if the journal holds no game with a shot in it
+     * @throws IOException if the file can't be read
+     */
+    public static GameConfig getConfig(Path path) throws IOException {
+        LastGame last = read(path);
+        return last == null ? null : last.config;
+    }
+
+    /**
+     * Rebuilds the last game in a journal file.
+     *
+     * @param path the journal file
+     * @param game the game to rebuild, which is reset to the journaled seed
+     * @param history the game's history, which gets the journaled shots
+     * @return false, leaving game and history alone, if the journal holds no game with a
+     *         shot in it
+     * @throws IOException if the file can't be read, or its game has another config than
+     *             game's
+     */
+    public static boolean recover(Path path, Battleship game, GameHistory history)
+            throws IOException {
+        LastGame last = read(path);
+        if (last == null) {
+            return false;
+        }
+        if (!last.config.equals(game.getConfig())) {
+            throw new IOException("the journal holds a game of " + last.config + ", not "
+                    + game.getConfig());
+        }
+
+        ByteBuffer records = last.records;
+        long seed = records.getLong(last.start);
+        int cells = last.config.getCells();
+        game.reset(seed);
+        game.setNumShots(last.get(last.start, 0));
+        history.clear();
+        for (int at = last.shots; at < last.end; at += RECORD_BYTES) {
+            if (records.getLong(at) != seed) {
+                break;
+            }
+            int shot = last.get(at, 0);
+            if (shot < 0 || shot > history.length()) {
+                break;
+            }
+            byte kind = records.get(at + KIND);
+            if (kind == SHOT) {
+                int cell = last.get(at, 1);
+                if (cell < 0 || cell >= cells) {
+                    break;
+                }
+                history.seek(shot);
+                history.takeShot(cell % game.getWidth(), cell / game.getWidth());
+            } else if (kind == SEEK) {
+                history.seek(shot);
+            } else {
+                break;
+            }
+        }
+        return true;
+    }
+}
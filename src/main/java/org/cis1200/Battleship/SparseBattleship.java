@@ -0,0 +1,299 @@
+package org.cis1200.Battleship;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * This class is a Battleship model for boards far too big to store cell by
+ * cell, such as 1000x1000 with thousands of ships. On such a board almost
+ * every cell is water that no one ever shoots, so the model only stores the
+ * cells that aren't plain water: the ships, the borders around them, and
+ * the cells that were shot. They are kept in a LongIntMap keyed by cell
+ * index, holding the cell's code (the same codes as Battleship) and the id
+ * of the ship on it, so nothing is boxed and a cell that isn't in the map is
+ * water.
+ *
+ * Placing a fleet draws random positions for each ship, longest first, and
+ * keeps the first one that doesn't overlap a ship or a border, which is as
+ * likely to be any of the legal positions as a draw from the list of them
+ * would be, without ever listing them. A shot looks up one cell, and
+ * sinking a ship touches only the cells around it. So generating a board
+ * costs time in proportion to the fleet, a shot in proportion to the ship it
+ * sinks, and memory in proportion to the fleet plus the shots taken; none of
+ * it depends on the area of the board.
+ *
+ * Random draws only find room quickly while the fleet leaves most of the
+ * board free, so a sparse board is for fleets that do, and gives up with an
+ * IllegalStateException if a ship finds no room after MAX_TRIES draws.
+ * Dense boards, such as the tiled GameConfigs, should use Battleship.
+ */
+public class SparseBattleship implements BoardModel {
+
+    /** Random draws for a ship before the board is declared too crowded. */
+    public static final int MAX_TRIES = 1 << 16;
+
+    private static final int CODE_MASK = 0xFF;
+
+    private final GameConfig config;
+    private final int width;
+    private final int height;
+    private final int[] fleet;
+    private final RandomGenerator rng; // source of the seed for each new board
+    private long seed;
+    private final LongIntMap cells; // (ship id + 1) << 8 | code, for every cell but water
+    private int numShots;
+    private int sunkenShips;
+
+    // ship table: ship i starts at cell shipStart[i] and has shipLeft[i] cells not yet hit
+    private final long[] shipStart;
+    private final boolean[] shipVertical;
+    private final int[] shipLeft;
+    private final int[] afloat; // ships afloat, by length
+    private int shipsAfloat;
+
+    /**
+     * Creates a game whose first board is generated from the given seed, like
+     * Battleship(GameConfig, long).
+     *
+     * @param config the board size, fleet and shots of the game
+     * @param seed seed of the first board
+     */
+    public SparseBattleship(GameConfig config, long seed) {
+        this(config, new SplittableRandom(seed), seed);
+    }
+
+    /**
+     * Creates a game that draws the seed of every board from rng, like
+     * Battleship(GameConfig, RandomGenerator).
+     *
+     * @param config the board size, fleet and shots of the game
+     * @param rng source of board seeds
+     */
+    public SparseBattleship(GameConfig config, RandomGenerator rng) {
+        this(config, rng, rng.nextLong());
+    }
+
+    private SparseBattleship(GameConfig config, RandomGenerator rng, long seed) {
+        this.config = config;
+        this.rng = rng;
+        width = config.getWidth();
+        height = config.getHeight();
+        fleet = config.getFleet();
+        shipStart = new long[fleet.length];
+        shipVertical = new boolean[fleet.length];
+        shipLeft = new int[fleet.length];
+        afloat = new int[config.getMaxLength() + 1];
+        // room for every ship and its border, plus a miss for every shot
+        long expected = 3L * config.getShipCells() + 6L * fleet.length + config.getShots();
+        cells = new LongIntMap((int) Math.min(expected, config.getCells()));
+        reset(seed);
+    }
+
+    @Override
+    public void reset() {
+        reset(rng.nextLong());
+    }
+
+    @Override
+    public void reset(long seed) {
+        this.seed = seed;
+        cells.clear();
+        numShots = config.getShots();
+        sunkenShips = 0;
+        java.util.Arrays.fill(afloat, 0);
+        shipsAfloat = fleet.length;
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int ship = 0; ship < fleet.length; ship++) {
+            place(ship, fleet[ship], random);
+            afloat[fleet[ship]]++;
+        }
+    }
+
+    /**
+     * Puts a ship at a random position where it doesn't touch the ships before it.
+     *
+     * @throws IllegalStateException if no such position turns up
+     */
+    private void place(int ship, int length, RandomGenerator random) {
+        long horizontal = length <= width ? (long) (width - length + 1) * height : 0;
+        long vertical = length > 1 && length <= height ? (long) width * (height - length + 1)
+                : 0;
+        for (int t = 0; t < MAX_TRIES; t++) {
+            long k = random.nextLong(horizontal + vertical);
+            boolean down = k >= horizontal;
+            long start;
+            if (down) {
+                start = k - horizontal;
+            } else {
+                int across = width - length + 1;
+                start = (k / across) * width + k % across;
+            }
+            if (fits(start, length, down)) {
+                shipStart[ship] = start;
+                shipVertical[ship] = down;
+                shipLeft[ship] = length;
+                mark(ship, start, length, down);
+                return;
+            }
+        }
+        throw new IllegalStateException("no room for a ship of length " + length + " after "
+                + MAX_TRIES + " tries; the fleet is too dense for a sparse board");
+    }
+
+    private boolean fits(long start, int length, boolean down) {
+        long step = down ? width : 1;
+        for (int i = 0; i < length; i++) {
+            if (cells.get(start + i * step, 0) != 0) {
+                return false; // a ship or a border
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes a ship's cells and the border around it.
+     */
+    private void mark(int ship, long start, int length, boolean down) {
+        int top = (int) (start / width);
+        int left = (int) (start % width);
+        int bottom = down ? top + length - 1 : top;
+        int right = down ? left : left + length - 1;
+        for (int r = Math.max(top - 1, 0); r <= Math.min(bottom + 1, height - 1); r++) {
+            for (int c = Math.max(left - 1, 0); c <= Math.min(right + 1, width - 1); c++) {
+                long key = (long) r * width + c;
+                if (cells.get(key, 0) == 0) {
+                    cells.put(key, Battleship.BORDER);
+                }
+            }
+        }
+        byte code = (byte) (Battleship.SHIP | (down ? Battleship.VERTICAL : 0) | length);
+        long step = down ? width : 1;
+        for (int i = 0; i < length; i++) {
+            cells.put(start + i * step, (ship + 1) << 8 | code);
+        }
+    }
+
+    @Override
+    public void takeShot(int col, int row) {
+        if (numShots <= 0 || didWin()) {
+            return;
+        }
+        long key = (long) row * width + col;
+        int value = cells.get(key, 0);
+        byte code = (byte) (value & CODE_MASK);
+        if ((code & Battleship.SHIP) != 0 && (code & Battleship.HIT) == 0) {
+            cells.put(key, value | Battleship.HIT);
+            numShots--;
+            int ship = (value >>> 8) - 1;
+            if (--shipLeft[ship] == 0) {
+                encloseSunkShip(ship);
+                sunkenShips++;
+                afloat[code & Battleship.LENGTH_MASK]--;
+                shipsAfloat--;
+            }
+        } else if (code == Battleship.BORDER || code == Battleship.WATER) {
+            cells.put(key, Battleship.MISS);
+            numShots--;
+        }
+    }
+
+    /**
+     * Marks the cells around a sunk ship as its border.
+     */
+    private void encloseSunkShip(int ship) {
+        int length = fleet[ship];
+        int top = (int) (shipStart[ship] / width);
+        int left = (int) (shipStart[ship] % width);
+        int bottom = shipVertical[ship] ? top + length - 1 : top;
+        int right = shipVertical[ship] ? left : left + length - 1;
+        for (int r = Math.max(top - 1, 0); r <= Math.min(bottom + 1, height - 1); r++) {
+            for (int c = Math.max(left - 1, 0); c <= Math.min(right + 1, width - 1); c++) {
+                long key = (long) r * width + c;
+                if ((cells.get(key, 0) & Battleship.SHIP) == 0) {
+                    cells.put(key, Battleship.SUNK_BORDER);
+                }
+            }
+        }
+    }
+
+    private byte code(long cell) {
+        return (byte) (cells.get(cell, 0) & CODE_MASK);
+    }
+
+    @Override
+    public boolean isShot(int cell) {
+        byte code = code(cell);
+        return code == Battleship.MISS || code == Battleship.SUNK_BORDER
+                || (code & Battleship.HIT) != 0;
+    }
+
+    @Override
+    public boolean isHit(int cell) {
+        return (code(cell) & Battleship.HIT) != 0;
+    }
+
+    @Override
+    public String getCell(int col, int row) {
+        return Battleship.name(code((long) row * width + col));
+    }
+
+    @Override
+    public boolean didWin() {
+        return sunkenShips == fleet.length;
+    }
+
+    @Override
+    public int getNumShots() {
+        return Math.max(numShots, 0);
+    }
+
+    @Override
+    public void setNumShots(int shots) {
+        numShots = shots;
+    }
+
+    @Override
+    public int getSunkenShips() {
+        return sunkenShips;
+    }
+
+    @Override
+    public int getNumShips() {
+        return shipsAfloat;
+    }
+
+    /** Returns the number of ships of the given length still afloat. */
+    public int getCountShips(int length) {
+        return length >= 1 && length < afloat.length ? afloat[length] : 0;
+    }
+
+    /** Returns the number of cells the model stores, i.e. that aren't plain water. */
+    public int getStoredCells() {
+        return cells.size();
+    }
+
+    @Override
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int[] getFleet() {
+        return config.getFleet();
+    }
+}
@@ -0,0 +1,49 @@
+package org.cis1200.Battleship;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This interface is a way of choosing shots, so that shooting strategies
+ * can be played and compared by BatchSimulator, or used to suggest shots.
+ * A strategy sees the board only through a PlayerView, and is told what
+ * each of its shots did.
+ *
+ * A strategy object plays one game at a time and may keep whatever state
+ * it likes between shots; newGame starts it over. Strategies aren't shared
+ * between threads: BatchSimulator gives each of its tasks its own.
+ */
+public interface Strategy {
+
+    /**
+     * Starts a new game.
+     *
+     * @param board the board to be played, which the strategy may keep until the next call
+     * @param random source of any random choices the strategy makes in this game
+     */
+    void newGame(PlayerView board, RandomGenerator random);
+
+    /**
+     * Returns whether the strategy can play games of a config. Strategies that only know some
+     * boards or fleets override this; newGame may throw IllegalArgumentException for the rest.
+     *
+     * @param config the board size, fleet and shots of the games
+     */
+    default boolean canPlay(GameConfig config) {
+        return true;
+    }
+
+    /**
+     * Returns the cell to shoot next, as row * size + col. It should be a cell that hasn't
+     * been shot yet.
+     */
+    int nextShot();
+
+    /**
+     * Tells the strategy what its last shot did. Does nothing unless overridden.
+     *
+     * @param cell the cell that was shot
+     * @param result what the shot did
+     */
+    default void shotTaken(int cell, GameEngine.ShotResult result) {
+    }
+}
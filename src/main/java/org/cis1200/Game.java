@@ -9,8 +9,12 @@ public class Game {
      * include a main method in your final submission.
      */
     public static void main(String[] args) {
-        // Set the game you want to run here
-        Runnable game = new org.cis1200.Battleship.RunBattleship();
+        // Set the game you want to run here. A number of tiles, e.g. 5, plays the classic
+        // game tiled that many times across, on a 50x50 board.
+        Runnable game = args.length > 0
+                ? new org.cis1200.Battleship.RunBattleship(
+                        org.cis1200.Battleship.GameConfig.tiled(Integer.parseInt(args[0])))
+                : new org.cis1200.Battleship.RunBattleship();
 
         SwingUtilities.invokeLater(game);
     }
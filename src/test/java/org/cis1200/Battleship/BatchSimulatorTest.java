@@ -0,0 +1,82 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.random.RandomGenerator;
+
+public class BatchSimulatorTest {
+
+    // a strategy that shoots the cells in order
+    private static class SweepStrategy implements Strategy {
+        private PlayerView board;
+        private int next;
+
+        @Override
+        public void newGame(PlayerView board, RandomGenerator random) {
+            this.board = board;
+            next = 0;
+        }
+
+        @Override
+        public int nextShot() {
+            while (board.isShot(next)) {
+                next++;
+            }
+            return next;
+        }
+    }
+
+    // test that a run gives the same results every time, however it is split across cores
+    @Test
+    public void testRunsAreRepeatable() {
+        BatchSimulator.Report a = BatchSimulator.run("random", RandomStrategy::new, 10000, 5L);
+        BatchSimulator.Report b = BatchSimulator.run("random", RandomStrategy::new, 10000, 5L);
+        assertEquals(10000, a.getGames());
+        assertEquals(a.getWins(), b.getWins());
+        assertEquals(a.getMeanShots(), b.getMeanShots());
+        for (int n = 0; n <= 100; n++) {
+            assertEquals(a.getGamesTaking(n), b.getGamesTaking(n));
+        }
+    }
+
+    // test that every game ends with the fleet sunk, within the size of the board
+    @Test
+    public void testShotsNeededAreBounded() {
+        BatchSimulator.Report report = BatchSimulator.run("sweep", SweepStrategy::new, 5000,
+                9L);
+        assertEquals(5000, report.getGames());
+        assertTrue(report.getPercentileShots(1) <= 100);
+        assertTrue(report.getPercentileShots(0) >= 20); // the fleet covers 20 cells
+        assertTrue(report.getPercentileShots(0.5) <= report.getPercentileShots(0.9));
+        assertTrue(report.getWinRate() >= 0 && report.getWinRate() <= 1);
+    }
+
+    // test that a strategy that doesn't move on from a shot cell is stopped
+    @Test
+    public void testStuckStrategyStopped() {
+        Strategy stuck = new Strategy() {
+            @Override
+            public void newGame(PlayerView board, RandomGenerator random) {
+            }
+
+            @Override
+            public int nextShot() {
+                return 0;
+            }
+        };
+        assertThrows(IllegalStateException.class,
+                () -> BatchSimulator.play(new Battleship(1L), stuck,
+                        new java.util.SplittableRandom(1L)));
+    }
+
+    // test that a strategy is only run on boards it can play
+    @Test
+    public void testCanPlay() {
+        assertTrue(new ProbabilityStrategy().canPlay(GameConfig.STANDARD));
+        assertFalse(new ProbabilityStrategy().canPlay(GameConfig.LARGE));
+        assertTrue(new HuntTargetStrategy().canPlay(GameConfig.LARGE));
+        assertThrows(IllegalArgumentException.class, () -> BatchSimulator.run(
+                GameConfig.LARGE, "density", ProbabilityStrategy::new, 10, 1L));
+    }
+}
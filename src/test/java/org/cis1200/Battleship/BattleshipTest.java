@@ -1,5 +1,7 @@
 package org.cis1200.Battleship;
 
+import java.util.SplittableRandom;
+
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -198,4 +200,143 @@ public class BattleshipTest {
         assertEquals(expected, actual);
     }
 
+    // test that getCopyOfBoard and setBoard round trip every cell
+    @Test
+    public void testSetBoardRoundTrip() {
+        String[][] board = model.getCopyOfBoard();
+        Battleship other = new Battleship();
+        other.setBoard(board);
+        assertArrayEquals(board, other.getCopyOfBoard());
+    }
+
+    // test that a copy doesn't share its board with the original
+    @Test
+    public void testCopyIsIndependent() {
+        String[][] before = model.getCopyOfBoard();
+        Battleship copy = new Battleship(model);
+        copy.takeShot(0, 0);
+        assertEquals(65, model.getNumShots());
+        assertEquals(64, copy.getNumShots());
+        assertArrayEquals(before, model.getCopyOfBoard());
+        assertNotEquals(before[0][0], copy.getCell(0, 0));
+    }
+
+    // test that a copy draws new boards from a generator of its own, without changing the
+    // original's
+    @Test
+    public void testCopyHasOwnGenerator() {
+        Battleship game = new Battleship(new SplittableRandom(7));
+        Battleship copy = new Battleship(game);
+        Battleship twin = new Battleship(new SplittableRandom(7));
+        copy.reset();
+        copy.reset();
+        game.reset();
+        twin.reset();
+        assertEquals(twin.getSeed(), game.getSeed());
+        assertNotEquals(game.getSeed(), copy.getSeed());
+    }
+
+    // test that keeping a history, with its checkpoints, doesn't change the next board
+    @Test
+    public void testHistoryKeepsNextSeed() {
+        Battleship game = new Battleship(new SplittableRandom(9));
+        Battleship twin = new Battleship(new SplittableRandom(9));
+        GameHistory history = new GameHistory(game);
+        for (int cell = 0; cell < 40; cell++) {
+            history.takeShot(cell % 10, cell / 10);
+        }
+        twin.reset();
+        game.reset();
+        assertEquals(twin.getSeed(), game.getSeed());
+    }
+
+    // test that a ship half-hit before a save is sunk by its last hit after a load
+    @Test
+    public void testSinkAfterLoadingHitShip() {
+        String[][] board = new String[10][10];
+        for (String[] row : board) {
+            java.util.Arrays.fill(row, "_");
+        }
+        board[4][4] = "X";
+        board[4][5] = "H3";
+        board[4][6] = "X";
+        model.setBoard(board);
+        model.setNumSunkenShips(0);
+        model.takeShot(5, 4);
+        assertEquals(1, model.getSunkenShips());
+        assertEquals("X", model.getCell(5, 4));
+        assertEquals("x", model.getCell(3, 4));
+        assertEquals("x", model.getCell(7, 5));
+        assertEquals("_", model.getCell(8, 4));
+    }
+
+    // test that no two ships touch, not even at a corner, over many random boards
+    @Test
+    public void testShipsNeverTouch() {
+        for (int n = 0; n < 500; n++) {
+            model.reset();
+            for (int r = 0; r < 10; r++) {
+                for (int c = 0; c < 10; c++) {
+                    String cell = model.getCell(c, r);
+                    if (cell.equals("_") || cell.equals(".")) {
+                        continue;
+                    }
+                    for (int i = Math.max(r - 1, 0); i <= Math.min(r + 1, 9); i++) {
+                        for (int j = Math.max(c - 1, 0); j <= Math.min(c + 1, 9); j++) {
+                            String other = model.getCell(j, i);
+                            boolean alongShip = cell.startsWith("H") ? i == r : j == c;
+                            if (!other.equals("_") && !other.equals(".")) {
+                                assertEquals(cell, other);
+                                assertTrue(alongShip);
+                            }
+                        }
+                    }
+                }
+            }
+            assertEquals(10, model.getNumShips());
+        }
+    }
+
+    // test that a game can be replayed from its seed
+    @Test
+    public void testSameSeedSameBoard() {
+        Battleship replay = new Battleship(model.getSeed());
+        assertArrayEquals(model.getCopyOfBoard(), replay.getCopyOfBoard());
+        replay.reset(12345L);
+        model.reset(12345L);
+        assertArrayEquals(model.getCopyOfBoard(), replay.getCopyOfBoard());
+        assertEquals(12345L, model.getSeed());
+    }
+
+    // test that games built from the same generator seed play out identically
+    @Test
+    public void testSeededGeneratorIsReproducible() {
+        Battleship a = new Battleship(new java.util.SplittableRandom(7));
+        Battleship b = new Battleship(new java.util.SplittableRandom(7));
+        for (int n = 0; n < 5; n++) {
+            assertEquals(a.getSeed(), b.getSeed());
+            assertArrayEquals(a.getCopyOfBoard(), b.getCopyOfBoard());
+            a.reset();
+            b.reset();
+        }
+        assertNotEquals(new Battleship(1L).getSeed(), new Battleship(2L).getSeed());
+    }
+
+    // test that sinking ships in a copy leaves the original's ships afloat
+    @Test
+    public void testCopySinksIndependently() {
+        Battleship copy = new Battleship(model);
+        for (int r = 0; r < 10; r++) {
+            for (int c = 0; c < 10; c++) {
+                if (copy.getCell(c, r).equals("1")) {
+                    copy.takeShot(c, r);
+                }
+            }
+        }
+        assertEquals(0, copy.getCountSubs());
+        assertEquals(4, copy.getSunkenShips());
+        assertEquals(4, model.getCountSubs());
+        assertEquals(0, model.getSunkenShips());
+    }
+
 }
@@ -0,0 +1,100 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitBoardTest {
+
+    private BitBoard board;
+
+    @BeforeEach
+    public void setUp() {
+        board = new BitBoard();
+    }
+
+    // test that a ship can't be placed next to another ship, even diagonally
+    @Test
+    public void testPlacementRespectsBorders() {
+        assertTrue(board.place(4, false, 5, 2));
+        assertFalse(board.canPlace(1, false, 4, 1));
+        assertFalse(board.canPlace(1, false, 6, 6));
+        assertFalse(board.canPlace(2, true, 3, 4));
+        assertTrue(board.canPlace(1, false, 5, 7));
+        assertTrue(board.canPlace(3, true, 7, 9));
+    }
+
+    // test that ships can't hang off the edge of the board
+    @Test
+    public void testPlacementStaysOnBoard() {
+        assertFalse(board.canPlace(4, false, 0, 7));
+        assertFalse(board.canPlace(4, true, 7, 0));
+        assertTrue(board.canPlace(4, false, 9, 6));
+        assertTrue(board.canPlace(4, true, 6, 9));
+    }
+
+    // test that sinking a ship borders it with "x" cells
+    @Test
+    public void testSinkMarksBorder() {
+        board.place(2, true, 0, 9);
+        board.takeShot(9, 0);
+        assertEquals("X", board.getCell(9, 0));
+        assertEquals("V2", board.getCell(9, 1));
+        assertEquals(0, board.getSunkenShips());
+        board.takeShot(9, 1);
+        assertEquals(1, board.getSunkenShips());
+        assertEquals("x", board.getCell(8, 0));
+        assertEquals("x", board.getCell(8, 2));
+        assertEquals("x", board.getCell(9, 2));
+        assertEquals("_", board.getCell(7, 0));
+        assertTrue(board.didWin());
+    }
+
+    // test that a shot at a cell that was already shot is ignored
+    @Test
+    public void testRepeatedShotIgnored() {
+        board.place(1, false, 0, 0);
+        board.place(1, false, 9, 9);
+        board.takeShot(5, 5);
+        board.takeShot(5, 5);
+        assertEquals(64, board.getNumShots());
+        assertEquals("O", board.getCell(5, 5));
+    }
+
+    // test that a Battleship survives a trip through a BitBoard
+    @Test
+    public void testConvertsToAndFromBattleship() {
+        Battleship model = new Battleship();
+        model.takeShot(3, 3);
+        model.takeShot(7, 2);
+        BitBoard bb = BitBoard.fromBattleship(model);
+        Battleship back = bb.toBattleship();
+        for (int r = 0; r < 10; r++) {
+            for (int c = 0; c < 10; c++) {
+                String cell = model.getCell(c, r);
+                if (!cell.equals(".") && !cell.equals("_")) {
+                    assertEquals(cell, back.getCell(c, r));
+                    assertEquals(cell, bb.getCell(c, r));
+                }
+            }
+        }
+        assertEquals(model.getNumShots(), back.getNumShots());
+        assertEquals(model.getNumShips(), back.getNumShips());
+    }
+
+    // test that a BitBoard and the Battleship it came from agree on every shot
+    @Test
+    public void testPlaysLikeBattleship() {
+        Battleship model = new Battleship();
+        model.setNumShots(100);
+        BitBoard bb = BitBoard.fromBattleship(model);
+        for (int r = 0; r < 10; r++) {
+            for (int c = 0; c < 10; c++) {
+                model.takeShot(c, r);
+                bb.takeShot(c, r);
+                assertEquals(model.getSunkenShips(), bb.getSunkenShips());
+                assertEquals(model.getCell(c, r), bb.getCell(c, r));
+            }
+        }
+        assertTrue(bb.didWin());
+    }
+}
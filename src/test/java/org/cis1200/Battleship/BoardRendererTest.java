@@ -0,0 +1,132 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import javax.swing.JPanel;
+
+public class BoardRendererTest {
+
+    private static final int WATER = BattleshipBoard.WATER.getRGB();
+    private static final int BLACK = Color.BLACK.getRGB();
+    private static final int ORANGE = Color.ORANGE.getRGB();
+
+    private final BoardRenderer renderer = new BoardRenderer(50, 10, 10);
+    private final JPanel panel = new JPanel(); // has no screen, so no VolatileImage
+    private final BufferedImage frame = new BufferedImage(500, 500,
+            BufferedImage.TYPE_INT_RGB);
+
+    private void paint(byte[] marks, int hint) {
+        Graphics g = frame.getGraphics();
+        renderer.paint(g, panel, marks, hint);
+        g.dispose();
+    }
+
+    // test that cell codes map to the marks the player should see
+    @Test
+    public void testMarks() {
+        assertEquals(BoardRenderer.NONE, BoardRenderer.mark(Battleship.WATER));
+        assertEquals(BoardRenderer.NONE, BoardRenderer.mark(Battleship.BORDER));
+        assertEquals(BoardRenderer.NONE,
+                BoardRenderer.mark((byte) (Battleship.SHIP | 3)));
+        assertEquals(BoardRenderer.DOT, BoardRenderer.mark(Battleship.MISS));
+        assertEquals(BoardRenderer.DOT, BoardRenderer.mark(Battleship.SUNK_BORDER));
+        assertEquals(BoardRenderer.CROSS,
+                BoardRenderer.mark((byte) (Battleship.SHIP | Battleship.HIT | 2)));
+    }
+
+    // test that the background, the sprites and the hint land where the old drawing put them
+    @Test
+    public void testPaint() {
+        byte[] marks = new byte[100];
+        marks[0] = BoardRenderer.DOT;
+        marks[11] = BoardRenderer.CROSS;
+        paint(marks, 99);
+        assertEquals(WATER, frame.getRGB(5, 5)); // water
+        assertEquals(BLACK, frame.getRGB(50, 25)); // a grid line
+        assertEquals(BLACK, frame.getRGB(27, 27)); // the dot in cell 0
+        assertEquals(BLACK, frame.getRGB(50 + 20, 50 + 20)); // the cross in cell 11
+        assertEquals(WATER, frame.getRGB(50 + 20, 50 + 30));
+        assertEquals(ORANGE, frame.getRGB(475, 475)); // the hint in cell 99
+        assertEquals(WATER, frame.getRGB(225, 225)); // an empty cell
+    }
+
+    // test that only the cells inside the clip are painted
+    @Test
+    public void testClip() {
+        byte[] marks = new byte[100];
+        paint(marks, -1);
+        marks[0] = BoardRenderer.DOT;
+        marks[1] = BoardRenderer.DOT;
+        Graphics g = frame.getGraphics();
+        g.setClip(0, 0, 50, 50);
+        renderer.paint(g, panel, marks, -1);
+        g.dispose();
+        assertEquals(BLACK, frame.getRGB(27, 27));
+        assertEquals(WATER, frame.getRGB(77, 27)); // cell 1 is outside the clip
+    }
+
+    // test that a renderer for bigger cells, e.g. at a display scale of 2, draws the same
+    // board at twice the size, with lines twice as thick
+    @Test
+    public void testScaled() {
+        BoardRenderer big = new BoardRenderer(100, 10, 10);
+        BufferedImage image = new BufferedImage(1000, 1000, BufferedImage.TYPE_INT_RGB);
+        byte[] marks = new byte[100];
+        marks[0] = BoardRenderer.DOT;
+        Graphics g = image.getGraphics();
+        big.paint(g, panel, marks, -1);
+        g.dispose();
+        assertEquals(BLACK, image.getRGB(100, 50));
+        assertEquals(BLACK, image.getRGB(101, 50));
+        assertEquals(WATER, image.getRGB(102, 50));
+        assertEquals(BLACK, image.getRGB(54, 54)); // the dot, scaled
+        assertEquals(WATER, image.getRGB(40, 40));
+    }
+
+    // test that a 50x50 board with small cells is drawn whole
+    @Test
+    public void testLargeBoard() {
+        BoardRenderer large = new BoardRenderer(10, 50, 50);
+        BufferedImage image = new BufferedImage(500, 500, BufferedImage.TYPE_INT_RGB);
+        byte[] marks = new byte[2500];
+        marks[2499] = BoardRenderer.CROSS;
+        Graphics g = image.getGraphics();
+        large.paint(g, panel, marks, -1);
+        g.dispose();
+        assertEquals(BLACK, image.getRGB(490, 5)); // a grid line
+        assertEquals(BLACK, image.getRGB(495, 495)); // the cross in the last cell
+        assertEquals(WATER, image.getRGB(495, 492));
+    }
+
+    // test that painting a frame allocates nothing once it has been painted before
+    @Test
+    public void testNoAllocation() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        byte[] marks = new byte[100];
+        for (int cell = 0; cell < 100; cell += 3) {
+            marks[cell] = cell % 2 == 0 ? BoardRenderer.DOT : BoardRenderer.CROSS;
+        }
+        Graphics g = frame.getGraphics();
+        for (int i = 0; i < 2000; i++) {
+            renderer.paint(g, panel, marks, 50);
+        }
+        // the JIT may not have compiled the allocations away yet, so take the best of a few runs
+        long id = Thread.currentThread().getId();
+        long allocated = Long.MAX_VALUE;
+        for (int run = 0; run < 10 && allocated >= 1000; run++) {
+            long before = threads.getThreadAllocatedBytes(id);
+            for (int i = 0; i < 1000; i++) {
+                renderer.paint(g, panel, marks, 50);
+            }
+            allocated = threads.getThreadAllocatedBytes(id) - before;
+        }
+        g.dispose();
+        assertTrue(allocated < 1000, allocated + " bytes allocated by 1000 frames");
+    }
+}
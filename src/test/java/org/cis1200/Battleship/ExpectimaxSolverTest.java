@@ -0,0 +1,74 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class ExpectimaxSolverTest {
+
+    // test that a won game is worth 1, and there is nothing left to shoot
+    @Test
+    public void testWonGame() {
+        Battleship board = new Battleship(3L);
+        BatchSimulator.play(board, new ProbabilityStrategy(), new SplittableRandom(3L));
+        ExpectimaxSolver solver = new ExpectimaxSolver(2, 3, 1 << 20);
+        assertEquals(1.0, solver.winProbability(board, 0));
+        assertEquals(-1, solver.bestShot(board, 10));
+    }
+
+    // test that a game can't be won with fewer shots than there are ship cells left
+    @Test
+    public void testTooFewShots() {
+        ExpectimaxSolver solver = new ExpectimaxSolver(2, 3, 1 << 20);
+        assertEquals(0.0, solver.winProbability(new Battleship(5L), 19));
+        assertTrue(solver.winProbability(new Battleship(5L), 100) > 0.99);
+    }
+
+    // test that searching deeper does at least as well as scoring the position by random fire
+    @Test
+    public void testDeeperIsTighter() {
+        Battleship board = new Battleship(6L);
+        double leaf = new ExpectimaxSolver(0, 1, 1 << 20).winProbability(board, 80);
+        double searched = new ExpectimaxSolver(2, 4, 1 << 20).winProbability(board, 80);
+        assertTrue(leaf > 0);
+        assertTrue(searched >= leaf);
+    }
+
+    // test that repeated positions come from the table, and that the table keeps to its size
+    @Test
+    public void testTable() {
+        Battleship board = new Battleship(7L);
+        ExpectimaxSolver solver = new ExpectimaxSolver(2, 3, 1 << 20);
+        double first = solver.winProbability(board, 70);
+        long nodes = solver.getNodes();
+        assertEquals(first, solver.winProbability(board, 70));
+        assertEquals(nodes, solver.getNodes());
+        assertTrue(solver.getHitRate() > 0);
+
+        ExpectimaxSolver small = new ExpectimaxSolver(3, 4,
+                16 * ExpectimaxSolver.ENTRY_BYTES);
+        small.winProbability(board, 70);
+        assertTrue(small.getTableSize() <= 16);
+    }
+
+    // test that after a hit the best shot is next to it
+    @Test
+    public void testFollowsHit() {
+        GameEngine engine = new GameEngine(21L);
+        int hit = -1;
+        for (int cell = 0; cell < 100 && hit < 0; cell++) {
+            String code = engine.getCell(cell % 10, cell / 10);
+            if (code.length() == 2 && code.charAt(0) != '1') {
+                engine.shoot(cell % 10, cell / 10);
+                hit = cell;
+            }
+        }
+        int next = new ExpectimaxSolver(2, 4, 1 << 20).bestShot(engine,
+                engine.getShotsLeft());
+        assertFalse(engine.isShot(next));
+        int dr = Math.abs(next / 10 - hit / 10);
+        int dc = Math.abs(next % 10 - hit % 10);
+        assertEquals(1, dr + dc);
+    }
+}
@@ -0,0 +1,85 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrameClockTest {
+
+    private static final long TICK = 10;
+    private static final long FRAME = 20;
+
+    // test that ticks come due at a fixed rate, whenever the loop asks
+    @Test
+    public void testFixedTimestep() {
+        FrameClock clock = new FrameClock(TICK, FRAME, 5, 0);
+        assertEquals(0, clock.ticksDue(5));
+        assertEquals(1, clock.ticksDue(12));
+        assertEquals(0, clock.ticksDue(19));
+        assertEquals(3, clock.ticksDue(41)); // due at 20, 30 and 40
+        assertEquals(0, clock.ticksDue(41));
+        assertEquals(4, clock.getTicks());
+        assertEquals(0, clock.getSkippedTicks());
+    }
+
+    // test that a stall skips the ticks beyond the limit instead of running them all
+    @Test
+    public void testSkippedTicks() {
+        FrameClock clock = new FrameClock(TICK, FRAME, 5, 0);
+        assertEquals(5, clock.ticksDue(1000));
+        assertEquals(95, clock.getSkippedTicks());
+        assertEquals(5, clock.getTicks());
+        assertEquals(1, clock.ticksDue(1010)); // back on schedule
+    }
+
+    // test that frames done in time are a period apart, and a late one counts every period
+    // it overran as dropped
+    @Test
+    public void testDroppedFrames() {
+        FrameClock clock = new FrameClock(TICK, FRAME, 5, 0);
+        assertEquals(0, clock.getNextFrame());
+        clock.frameDone(0, 15);
+        assertEquals(20, clock.getNextFrame());
+        clock.frameDone(20, 25);
+        assertEquals(40, clock.getNextFrame());
+        assertEquals(0, clock.getDroppedFrames());
+        clock.frameDone(40, 105); // had until 60, so 45 ns over a 20 ns budget
+        assertEquals(3, clock.getDroppedFrames());
+        assertEquals(105, clock.getNextFrame()); // starts over from the late frame
+        assertEquals(3, clock.getFrames());
+        assertEquals(65, clock.getLastFrameNanos());
+    }
+
+    // test that an idle loop is never late
+    @Test
+    public void testIdleFrames() {
+        FrameClock clock = new FrameClock(TICK, FRAME, 5, 0);
+        clock.frameSkipped(500); // woke up long after the frame was due, with nothing to draw
+        assertEquals(520, clock.getNextFrame());
+        clock.frameSkipped(505); // woken early
+        assertEquals(520, clock.getNextFrame());
+        clock.frameDone(510, 515); // a snapshot came in before the frame was due
+        assertEquals(540, clock.getNextFrame());
+        assertEquals(0, clock.getDroppedFrames());
+        assertEquals(1, clock.getFrames());
+    }
+
+    // test that a snapshot doesn't change when the marks it was made from do
+    @Test
+    public void testSnapshotIsImmutable() {
+        byte[] marks = new byte[6];
+        marks[4] = BoardRenderer.CROSS;
+        BoardSnapshot s = new BoardSnapshot(7, 3, 2, marks, -1, 4,
+                GameEngine.ShotResult.HIT);
+        marks[4] = BoardRenderer.NONE;
+        assertEquals(BoardRenderer.CROSS, s.getMark(4));
+        byte[] copy = new byte[6];
+        s.copyMarks(copy);
+        copy[4] = BoardRenderer.DOT;
+        assertEquals(BoardRenderer.CROSS, s.getMark(4));
+        assertEquals(7, s.getVersion());
+        assertEquals(4, s.getShot());
+        assertEquals(GameEngine.ShotResult.HIT, s.getResult());
+        assertThrows(IllegalArgumentException.class,
+                () -> new BoardSnapshot(8, 3, 3, marks, -1, -1, null));
+    }
+}
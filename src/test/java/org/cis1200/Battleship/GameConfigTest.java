@@ -0,0 +1,157 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class GameConfigTest {
+
+    // checks that a board holds exactly the config's fleet, with no two ships touching
+    private static void assertValidBoard(Battleship game, GameConfig config) {
+        int width = config.getWidth();
+        int height = config.getHeight();
+        assertEquals(width, game.getWidth());
+        assertEquals(height, game.getHeight());
+        assertEquals(config.getShips(), game.getNumShips());
+        for (int len = 1; len <= config.getMaxLength(); len++) {
+            assertEquals(config.countShips(len), game.getCountShips(len));
+        }
+        int shipCells = 0;
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                String cell = game.getCell(c, r);
+                if (cell.equals("_") || cell.equals(".")) {
+                    continue;
+                }
+                shipCells++;
+                // a cell diagonal to a ship cell never holds a ship
+                for (int dr = -1; dr <= 1; dr += 2) {
+                    for (int dc = -1; dc <= 1; dc += 2) {
+                        int rr = r + dr;
+                        int cc = c + dc;
+                        if (rr >= 0 && rr < height && cc >= 0 && cc < width) {
+                            String next = game.getCell(cc, rr);
+                            assertTrue(next.equals("_") || next.equals("."));
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(config.getShipCells(), shipCells);
+    }
+
+    // test that the classic config is the game the default constructors play
+    @Test
+    public void testStandard() {
+        GameConfig config = GameConfig.STANDARD;
+        assertEquals(10, config.getWidth());
+        assertEquals(10, config.getHeight());
+        assertEquals(10, config.getShips());
+        assertEquals(20, config.getShipCells());
+        assertEquals(65, config.getShots());
+        Battleship game = new Battleship(3L);
+        assertEquals(config, game.getConfig());
+        assertEquals(65, game.getNumShots());
+        // the config doesn't change the boards a seed gives
+        Battleship same = new Battleship(GameConfig.STANDARD, 3L);
+        for (int cell = 0; cell < 100; cell++) {
+            assertEquals(game.getCell(cell % 10, cell / 10), same.getCell(cell % 10, cell / 10));
+        }
+    }
+
+    // test that configs reject boards and fleets that can't be played
+    @Test
+    public void testInvalidConfigs() {
+        int[] fleet = { 2, 1 };
+        assertThrows(IllegalArgumentException.class, () -> new GameConfig(0, 5, fleet, 10));
+        assertThrows(IllegalArgumentException.class, () -> new GameConfig(5, 5, new int[0], 10));
+        assertThrows(IllegalArgumentException.class, () -> new GameConfig(5, 5, fleet, -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GameConfig(3, 3, new int[] { 4 }, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GameConfig(20, 20, new int[] { 16 }, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> new GameConfig(5, 5, new int[] { 0 }, 10));
+        // 25 ships of 2 need 150 cells of footprint, and a 10x10 board has room for 121
+        int[] crowded = new int[25];
+        java.util.Arrays.fill(crowded, 2);
+        assertThrows(IllegalArgumentException.class, () -> new GameConfig(10, 10, crowded, 10));
+        int[] sorted = new GameConfig(5, 5, new int[] { 1, 3, 2 }, 10).getFleet();
+        assertArrayEquals(new int[] { 3, 2, 1 }, sorted);
+    }
+
+    // test that 20x20 and 50x50 boards hold their whole fleet, and can be played to a win
+    @Test
+    public void testLargeBoards() {
+        for (GameConfig config : new GameConfig[] { GameConfig.LARGE, GameConfig.HUGE }) {
+            Battleship game = new Battleship(config, 11L);
+            for (int g = 0; g < 20; g++) {
+                game.reset();
+                assertValidBoard(game, config);
+            }
+            assertEquals(config.getShots(), game.getNumShots());
+            BatchSimulator.play(game, new HuntTargetStrategy(), new SplittableRandom(1L));
+            assertTrue(game.didWin());
+            assertEquals(config.getShips(), game.getSunkenShips());
+            assertEquals(0, game.getNumShips());
+        }
+    }
+
+    // test that a fleet that passes the footprint check but doesn't fit is given up on
+    @Test
+    public void testFleetThatDoesNotFit() {
+        int[] carriers = new int[11];
+        java.util.Arrays.fill(carriers, 4);
+        GameConfig config = new GameConfig(10, 10, carriers, 65);
+        assertTrue(config.getFootprint() <= 11 * 11);
+        assertThrows(IllegalStateException.class, () -> new Battleship(config, 1L));
+    }
+
+    // test that a 500x500 board, with 25,000 ships, is placed without running out of stack
+    @Test
+    public void testTiled50() {
+        GameConfig config = GameConfig.tiled(50);
+        Battleship game = new Battleship(config, 2L);
+        assertValidBoard(game, config);
+        assertTrue(BoardModel.create(config, new SplittableRandom(1L)) instanceof Battleship);
+    }
+
+    // test that a board that isn't square, with a fleet of its own, works
+    @Test
+    public void testRectangularBoard() {
+        GameConfig config = new GameConfig(30, 8, new int[] { 6, 5, 1, 1 }, 100);
+        Battleship game = new Battleship(config, 5L);
+        assertValidBoard(game, config);
+        GameEngine engine = new GameEngine(config, 5L);
+        assertEquals(30, engine.getWidth());
+        assertEquals(8, engine.getHeight());
+        assertThrows(IllegalArgumentException.class, () -> engine.shoot(3, 8));
+        engine.shoot(29, 7);
+        assertTrue(engine.isShot(29, 7));
+        BatchSimulator.play(game, new HuntTargetStrategy(), new SplittableRandom(2L));
+        assertTrue(game.didWin());
+    }
+
+    // test that generating a 50x50 board doesn't take long
+    @Test
+    public void testPlacementIsFast() {
+        Battleship game = new Battleship(GameConfig.HUGE, 1L);
+        long start = System.nanoTime();
+        for (int g = 0; g < 200; g++) {
+            game.reset();
+        }
+        long perBoard = (System.nanoTime() - start) / 200;
+        assertTrue(perBoard < 5_000_000, perBoard + " ns per board");
+    }
+
+    // test that a simulated run on a variant counts wins against its own shots
+    @Test
+    public void testSimulatorUsesConfig() {
+        BatchSimulator.Report report = BatchSimulator.run(GameConfig.LARGE, "hunt-target",
+                HuntTargetStrategy::new, 200, 3L);
+        assertEquals(200, report.getGames());
+        assertTrue(report.getPercentileShots(1) <= 400);
+        assertTrue(report.getPercentileShots(0) >= 80);
+    }
+}
@@ -0,0 +1,91 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GameEngineTest {
+
+    // test that the same seed always gives the same boards
+    @Test
+    public void testSeededEnginesAgree() {
+        GameEngine a = new GameEngine(42L);
+        GameEngine b = new GameEngine(42L);
+        assertEquals(a.getSeed(), b.getSeed());
+        a.newGame();
+        b.newGame();
+        assertArrayEquals(a.getGame().getCopyOfBoard(), b.getGame().getCopyOfBoard());
+    }
+
+    // test that shots report what they did, and that listeners hear about them
+    @Test
+    public void testShotResultsAndEvents() {
+        GameEngine engine = new GameEngine();
+        engine.newGame(7L);
+        List<GameEngine.ShotResult> heard = new ArrayList<>();
+        engine.addListener(new GameEngine.Listener() {
+            @Override
+            public void shotTaken(GameEngine e, int col, int row,
+                    GameEngine.ShotResult result) {
+                heard.add(result);
+            }
+        });
+
+        int misses = 0;
+        int sinks = 0;
+        for (int r = 0; r < 10 && !engine.isOver(); r++) {
+            for (int c = 0; c < 10 && !engine.isOver(); c++) {
+                String before = engine.getCell(c, r);
+                GameEngine.ShotResult result = engine.shoot(c, r);
+                if (before.equals("x")) {
+                    assertEquals(GameEngine.ShotResult.IGNORED, result);
+                } else if (before.equals("_") || before.equals(".")) {
+                    assertEquals(GameEngine.ShotResult.MISS, result);
+                    misses++;
+                } else if (result == GameEngine.ShotResult.SINK) {
+                    sinks++;
+                } else {
+                    assertEquals(GameEngine.ShotResult.HIT, result);
+                }
+                assertTrue(engine.isShot(c, r));
+            }
+        }
+        assertEquals(engine.getShotsTaken(), heard.size());
+        assertEquals(sinks, engine.getSunkenShips());
+        assertEquals(GameEngine.ShotResult.IGNORED, engine.shoot(0, 0));
+        assertTrue(misses > 0);
+    }
+
+    // test that undo and redo restore the game and tell the listeners
+    @Test
+    public void testUndoRedo() {
+        GameEngine engine = new GameEngine(3L);
+        int[] moves = new int[1];
+        engine.addListener(new GameEngine.Listener() {
+            @Override
+            public void historyMoved(GameEngine e) {
+                moves[0]++;
+            }
+        });
+        String[][] start = engine.getGame().getCopyOfBoard();
+        engine.shoot(4, 4);
+        engine.shoot(5, 5);
+        assertTrue(engine.undo());
+        assertTrue(engine.undo());
+        assertFalse(engine.undo());
+        assertArrayEquals(start, engine.getGame().getCopyOfBoard());
+        assertTrue(engine.redo());
+        assertEquals(3, moves[0]);
+        assertEquals(2, engine.getHistoryLength());
+    }
+
+    // test that cells off the board are refused
+    @Test
+    public void testOffBoardShot() {
+        GameEngine engine = new GameEngine();
+        assertThrows(IllegalArgumentException.class, () -> engine.shoot(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> engine.shoot(0, -1));
+    }
+}
@@ -0,0 +1,116 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameHistoryTest {
+
+    private Battleship model;
+    private GameHistory history;
+
+    @BeforeEach
+    public void setUp() {
+        model = new Battleship(42L);
+        model.setNumShots(100);
+        history = new GameHistory(model);
+    }
+
+    // test that undoing every shot of a finished game gives back the starting board
+    @Test
+    public void testUndoAllRestoresStart() {
+        String[][] start = model.getCopyOfBoard();
+        for (int r = 0; r < 10; r++) {
+            for (int c = 0; c < 10; c++) {
+                history.takeShot(c, r);
+            }
+        }
+        assertTrue(model.didWin());
+        while (history.undo()) {
+            assertFalse(model.didWin());
+        }
+        assertArrayEquals(start, model.getCopyOfBoard());
+        assertEquals(100, model.getNumShots());
+        assertEquals(0, model.getSunkenShips());
+        assertEquals(10, model.getNumShips());
+    }
+
+    // test that redo takes back every undone shot
+    @Test
+    public void testRedoAfterUndo() {
+        for (int i = 0; i < 40; i++) {
+            history.takeShot(i % 10, i / 10);
+        }
+        String[][] after = model.getCopyOfBoard();
+        int sunk = model.getSunkenShips();
+        int taken = history.size();
+        for (int i = 0; i < 15; i++) {
+            assertTrue(history.undo());
+        }
+        assertEquals(taken - 15, history.size());
+        while (history.redo()) {
+            assertTrue(history.size() <= taken);
+        }
+        assertArrayEquals(after, model.getCopyOfBoard());
+        assertEquals(sunk, model.getSunkenShips());
+        assertEquals(100 - taken, model.getNumShots());
+    }
+
+    // test that a new shot drops the shots that could have been redone
+    @Test
+    public void testNewShotClearsRedo() {
+        history.takeShot(0, 0);
+        history.takeShot(1, 0);
+        history.undo();
+        assertTrue(history.canRedo());
+        history.takeShot(5, 5);
+        assertFalse(history.canRedo());
+        assertEquals(2, history.size());
+        assertEquals(55, history.getShot(1));
+    }
+
+    // test that shots which don't change the board aren't recorded
+    @Test
+    public void testRepeatedShotNotRecorded() {
+        assertTrue(history.takeShot(3, 3));
+        assertFalse(history.takeShot(3, 3));
+        assertEquals(1, history.size());
+    }
+
+    // test that seeking to any shot, in any order, shows the board as it was after that shot
+    @Test
+    public void testSeekMatchesPlay() {
+        java.util.List<String[][]> boards = new java.util.ArrayList<>();
+        boards.add(model.getCopyOfBoard());
+        for (int i = 0; i < 100; i++) {
+            if (history.takeShot((i * 7) % 10, i / 10)) {
+                boards.add(model.getCopyOfBoard());
+            }
+        }
+        int[] targets = { 0, history.length(), 17, 16, 3, 40, 39, 55, 1, history.length() };
+        for (int target : targets) {
+            history.seek(target);
+            assertEquals(target, history.size());
+            assertArrayEquals(boards.get(target), model.getCopyOfBoard());
+        }
+    }
+
+    // test that checkpoints from shots dropped by a new shot aren't used by seek
+    @Test
+    public void testSeekAfterBranching() {
+        for (int i = 0; i < 40; i++) {
+            history.takeShot(i % 10, i / 10);
+        }
+        history.seek(10);
+        for (int i = 0; i < 30; i++) {
+            history.takeShot(9 - i % 10, 9 - i / 10);
+        }
+        String[][] end = model.getCopyOfBoard();
+        int length = history.length();
+        history.seek(0);
+        history.seek(length);
+        assertArrayEquals(end, model.getCopyOfBoard());
+        history.seek(length - 3);
+        history.seek(length);
+        assertArrayEquals(end, model.getCopyOfBoard());
+    }
+}
@@ -0,0 +1,63 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class HuntTargetStrategyTest {
+
+    // test that the strategy never shoots a cell twice and sinks every fleet
+    @Test
+    public void testSinksEveryFleet() {
+        SplittableRandom random = new SplittableRandom(8L);
+        Battleship board = new Battleship(random.split());
+        HuntTargetStrategy strategy = new HuntTargetStrategy();
+        for (int g = 0; g < 200; g++) {
+            board.reset();
+            int shots = BatchSimulator.play(board, strategy, random);
+            assertTrue(board.didWin());
+            assertTrue(shots <= 100);
+        }
+    }
+
+    // test that on the same boards it saves shots over random fire, but not as many as the
+    // density strategy
+    @Test
+    public void testSavesShots() {
+        BatchSimulator.Report random = BatchSimulator.run("random", RandomStrategy::new, 2000,
+                4L);
+        BatchSimulator.Report huntTarget = BatchSimulator.run("hunt-target",
+                HuntTargetStrategy::new, 2000, 4L);
+        BatchSimulator.Report density = BatchSimulator.run("density",
+                ProbabilityStrategy::new, 2000, 4L);
+        assertTrue(huntTarget.getMeanShots() + 5 < random.getMeanShots());
+        assertTrue(density.getMeanShots() <= huntTarget.getMeanShots());
+    }
+
+    // test that after two hits in a row it keeps to their line
+    @Test
+    public void testInfersOrientation() {
+        // find a board whose carrier lies horizontally away from the edges
+        GameEngine engine = null;
+        int start = -1;
+        for (long seed = 0; start < 0; seed++) {
+            engine = new GameEngine(seed);
+            for (int cell = 0; cell < 100 && start < 0; cell++) {
+                int col = cell % 10;
+                if (engine.getCell(col, cell / 10).equals("H4") && col > 0
+                        && !engine.getCell(col - 1, cell / 10).equals("H4")) {
+                    start = cell;
+                }
+            }
+        }
+        engine.shoot(start % 10, start / 10);
+        engine.shoot(start % 10 + 1, start / 10);
+        HuntTargetStrategy strategy = new HuntTargetStrategy();
+        strategy.newGame(engine, new SplittableRandom(1L));
+        int next = strategy.nextShot();
+        assertFalse(engine.isShot(next));
+        assertEquals(start / 10, next / 10);
+        assertTrue(next == start - 1 || next == start + 2);
+    }
+}
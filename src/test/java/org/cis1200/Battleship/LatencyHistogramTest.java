@@ -0,0 +1,56 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    // test that every value falls in a bucket that holds it, no wider than 1/16 of it
+    @Test
+    public void testBuckets() {
+        long[] values = { 0, 1, 31, 32, 33, 47, 48, 1000, 16_666_667, 1L << 40,
+            (1L << 40) + 12345, Long.MAX_VALUE };
+        for (long v : values) {
+            int b = LatencyHistogram.bucket(v);
+            assertTrue(b >= 0 && b < LatencyHistogram.BUCKETS, "bucket of " + v);
+            assertTrue(LatencyHistogram.lowestValue(b) <= v, "low of " + v);
+            assertTrue(LatencyHistogram.highestValue(b) >= v, "high of " + v);
+            long width = LatencyHistogram.highestValue(b) - LatencyHistogram.lowestValue(b) + 1;
+            assertTrue(v < LatencyHistogram.SUB_BUCKETS ? width == 1 : width <= v / 16,
+                    "width at " + v);
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+        // buckets follow each other with no gaps
+        for (int b = 1; b < LatencyHistogram.BUCKETS; b++) {
+            assertEquals(LatencyHistogram.highestValue(b - 1) + 1,
+                    LatencyHistogram.lowestValue(b));
+        }
+    }
+
+    // test percentiles on a known distribution: 1 to 10,000 microseconds
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.valueAt(50));
+        for (long us = 1; us <= 10_000; us++) {
+            h.record(us * 1000);
+        }
+        assertEquals(10_000, h.getCount());
+        assertEquals(10_000_000, h.getMax());
+        assertEquals(5_000_500, h.getMean());
+        assertClose(5_000_000, h.valueAt(50));
+        assertClose(9_900_000, h.valueAt(99));
+        assertEquals(10_000_000, h.valueAt(100));
+        assertTrue(h.valueAt(50) >= 5_000_000); // never understated
+        assertClose(1000, h.countBetween(1_000_000, 2_000_000) / 1.0);
+        h.record(-5);
+        assertEquals(0, h.valueAt(0));
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMax());
+    }
+
+    private static void assertClose(double expected, double actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 16, actual + " vs " + expected);
+    }
+}
@@ -0,0 +1,73 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+
+import javax.swing.JPanel;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.awt.Graphics2D;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerformanceHudTest {
+
+    private static MouseEvent click() {
+        return new MouseEvent(new JPanel(), MouseEvent.MOUSE_RELEASED,
+                System.currentTimeMillis(), 0, 10, 10, 1, false);
+    }
+
+    // test that a hidden HUD records nothing, and showing it starts afresh
+    @Test
+    public void testShown() {
+        PerformanceHud hud = new PerformanceHud();
+        hud.painted(0, 1000);
+        assertEquals(0, hud.getPaintTimes().getCount());
+        hud.setShown(true);
+        hud.painted(0, 1000);
+        hud.painted(0, 3000);
+        assertEquals(2, hud.getPaintTimes().getCount());
+        assertEquals(3000, hud.getPaintTimes().getMax());
+        hud.setShown(false);
+        hud.setShown(true);
+        assertEquals(0, hud.getPaintTimes().getCount());
+    }
+
+    // test that a click's latency ends at the next frame, and an ignored click has none
+    @Test
+    public void testClickLatency() {
+        PerformanceHud hud = new PerformanceHud();
+        hud.setShown(true);
+        hud.clicked(click());
+        long now = System.nanoTime();
+        hud.painted(now, now);
+        hud.painted(now, now); // no click since
+        assertEquals(1, hud.getClickLatencies().getCount());
+        assertTrue(hud.getClickLatencies().getMax() < 1_000_000_000L);
+        hud.clicked(click());
+        hud.clickIgnored();
+        hud.painted(now, now);
+        assertEquals(1, hud.getClickLatencies().getCount());
+    }
+
+    // test that samples count up and the overlay draws from them
+    @Test
+    public void testSample() {
+        PerformanceHud hud = new PerformanceHud();
+        hud.setShown(true);
+        hud.watch(Thread.currentThread());
+        hud.painted(0, 2_000_000);
+        hud.sample(System.nanoTime());
+        hud.sample(System.nanoTime() + 1);
+        assertEquals(2, hud.getSamples());
+        BufferedImage image = new BufferedImage(PerformanceHud.WIDTH, PerformanceHud.HEIGHT,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        hud.draw(g, 0, 0);
+        g.dispose();
+        // the one frame, of 2 ms, is a full-height bar in the 2^20 to 2^21 ns column
+        assertNotEquals(0, image.getRGB(6 + 10 * 12 + 5, PerformanceHud.HEIGHT - 10) & 0xFFFFFF);
+        assertEquals(0, image.getRGB(6 + 9 * 12 + 5, PerformanceHud.HEIGHT - 10) & 0xFFFFFF);
+        assertEquals("999us", PerformanceHud.time(999_999));
+        assertEquals("12ms", PerformanceHud.time(12_000_000));
+    }
+}
@@ -0,0 +1,56 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlacementTableTest {
+
+    private final PlacementTable table = PlacementTable.STANDARD;
+
+    // test that every position of every ship length is listed once
+    @Test
+    public void testPositionCounts() {
+        assertEquals(100, table.end(1) - table.first(1));
+        assertEquals(180, table.end(2) - table.first(2));
+        assertEquals(160, table.end(3) - table.first(3));
+        assertEquals(140, table.end(4) - table.first(4));
+        assertEquals(580, table.size());
+    }
+
+    // test that the table agrees with BitBoard about where ships fit
+    @Test
+    public void testFitsMatchesBitBoard() {
+        BitBoard board = new BitBoard();
+        board.place(4, true, 3, 3);
+        board.place(2, false, 8, 6);
+        Battleship model = board.toBattleship();
+        long blockedLo = 0;
+        long blockedHi = 0;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            if (model.getCode(i % 10, i / 10) != Battleship.WATER) {
+                blockedLo |= BitBoard.lo(i);
+                blockedHi |= BitBoard.hi(i);
+            }
+        }
+        for (int p = 0; p < table.size(); p++) {
+            int placement = table.placement(p);
+            assertEquals(board.canPlace(ShipPlacer.length(placement),
+                    ShipPlacer.isVertical(placement), ShipPlacer.row(placement),
+                    ShipPlacer.col(placement)), table.fits(p, blockedLo, blockedHi));
+        }
+    }
+
+    // test that the cover lists hold exactly the positions covering each cell
+    @Test
+    public void testCoverLists() {
+        int total = 0;
+        for (int c = 0; c < BitBoard.CELLS; c++) {
+            for (int k = table.coverFirst(c); k < table.coverEnd(c); k++) {
+                int p = table.covering(k);
+                assertTrue(BitBoard.test(table.footprintLo(p), table.footprintHi(p), c));
+                total++;
+            }
+        }
+        assertEquals(100 * 1 + 180 * 2 + 160 * 3 + 140 * 4, total);
+    }
+}
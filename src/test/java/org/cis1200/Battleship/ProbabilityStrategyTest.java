@@ -0,0 +1,104 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class ProbabilityStrategyTest {
+
+    // test that the strategy never shoots a cell twice and sinks every fleet
+    @Test
+    public void testSinksEveryFleet() {
+        SplittableRandom random = new SplittableRandom(8L);
+        Battleship board = new Battleship(random.split());
+        ProbabilityStrategy strategy = new ProbabilityStrategy();
+        for (int g = 0; g < 200; g++) {
+            board.reset();
+            int shots = BatchSimulator.play(board, strategy, random);
+            assertTrue(board.didWin());
+            assertTrue(shots <= 100);
+        }
+    }
+
+    // test that the strategy beats random fire by a wide margin
+    @Test
+    public void testBeatsRandomFire() {
+        BatchSimulator.Report density = BatchSimulator.run("density",
+                ProbabilityStrategy::new, 2000, 4L);
+        BatchSimulator.Report random = BatchSimulator.run("random", RandomStrategy::new, 2000,
+                4L);
+        assertTrue(density.getMeanShots() + 10 < random.getMeanShots());
+        assertTrue(density.getWinRate() > 0.5);
+    }
+
+    // test that a strategy started mid-game only suggests unshot cells, and finishes a ship
+    // it has hit
+    @Test
+    public void testPicksUpMidGame() {
+        GameEngine engine = new GameEngine(21L);
+        // hit a ship without sinking it
+        int hit = -1;
+        for (int cell = 0; cell < 100 && hit < 0; cell++) {
+            String code = engine.getCell(cell % 10, cell / 10);
+            if (code.length() == 2) {
+                engine.shoot(cell % 10, cell / 10);
+                hit = cell;
+            }
+        }
+        ProbabilityStrategy strategy = new ProbabilityStrategy();
+        strategy.newGame(engine, new SplittableRandom(1L));
+        int next = strategy.nextShot();
+        assertFalse(engine.isShot(next));
+        int dr = Math.abs(next / 10 - hit / 10);
+        int dc = Math.abs(next % 10 - hit % 10);
+        assertEquals(1, dr + dc); // right next to the hit, not diagonal
+    }
+
+    // test that choosing a shot next to a hit allocates nothing once warmed up
+    @Test
+    public void testTargetingAllocatesNothing() {
+        GameEngine engine = new GameEngine(21L);
+        for (int cell = 0; cell < 100; cell++) {
+            if (engine.getCell(cell % 10, cell / 10).length() == 2) {
+                engine.shoot(cell % 10, cell / 10); // a hit that doesn't sink its ship
+                break;
+            }
+        }
+        ProbabilityStrategy strategy = new ProbabilityStrategy();
+        strategy.newGame(engine, new SplittableRandom(1L));
+        for (int i = 0; i < 20_000; i++) {
+            strategy.nextShot();
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory
+                        .getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        // the JIT may not have compiled the allocations away yet, so take the best of a few runs
+        long allocated = Long.MAX_VALUE;
+        for (int run = 0; run < 10 && allocated >= 1000; run++) {
+            long before = threads.getThreadAllocatedBytes(id);
+            for (int i = 0; i < 1000; i++) {
+                strategy.nextShot();
+            }
+            allocated = threads.getThreadAllocatedBytes(id) - before;
+        }
+        assertTrue(allocated < 1000, allocated + " bytes allocated by 1000 moves");
+    }
+
+    // test that choosing a shot takes well under a millisecond
+    @Test
+    public void testMovesAreFast() {
+        SplittableRandom random = new SplittableRandom(2L);
+        Battleship board = new Battleship(random.split());
+        ProbabilityStrategy strategy = new ProbabilityStrategy();
+        long shots = 0;
+        long start = System.nanoTime();
+        for (int g = 0; g < 500; g++) {
+            board.reset();
+            shots += BatchSimulator.play(board, strategy, random);
+        }
+        long perShot = (System.nanoTime() - start) / shots;
+        assertTrue(perShot < 1_000_000, perShot + " ns per shot");
+    }
+}
@@ -0,0 +1,170 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+public class SaveFileTest {
+
+    @TempDir
+    Path dir;
+
+    private Battleship model;
+    private GameHistory history;
+
+    @BeforeEach
+    public void setUp() {
+        model = new Battleship(2024L);
+        history = new GameHistory(model);
+        for (int i = 0; i < 30; i++) {
+            history.takeShot((i * 3) % 10, i / 3);
+        }
+    }
+
+    // test that a saved game loads back with its board, counters and undoable shots
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        Path file = dir.resolve("save.dat");
+        SaveFile.save(file, model, history);
+
+        Battleship loaded = new Battleship();
+        GameHistory loadedHistory = new GameHistory(loaded);
+        SaveFile.load(file, loaded, loadedHistory);
+        assertArrayEquals(model.getCopyOfBoard(), loaded.getCopyOfBoard());
+        assertEquals(model.getNumShots(), loaded.getNumShots());
+        assertEquals(model.getSunkenShips(), loaded.getSunkenShips());
+        assertEquals(model.getSeed(), loaded.getSeed());
+        assertEquals(history.size(), loadedHistory.size());
+
+        history.undo();
+        loadedHistory.undo();
+        assertArrayEquals(model.getCopyOfBoard(), loaded.getCopyOfBoard());
+    }
+
+    // test that a damaged file is rejected without touching the game
+    @Test
+    public void testCorruptFileRejected() throws IOException {
+        Path file = dir.resolve("save.dat");
+        SaveFile.save(file, model, history);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[40] ^= 1;
+        Files.write(file, bytes);
+
+        Battleship other = new Battleship(7L);
+        String[][] before = other.getCopyOfBoard();
+        assertThrows(IOException.class, () -> SaveFile.load(file, other,
+                new GameHistory(other)));
+        assertArrayEquals(before, other.getCopyOfBoard());
+    }
+
+    // test that check accepts a save, rejects a damaged one, and leaves the contents alone
+    @Test
+    public void testCheck() throws IOException {
+        history.takeShot(3, 3);
+        ByteBuffer contents = SaveFile.encode(model, history);
+        SaveFile.check(contents);
+        assertEquals(0, contents.position());
+
+        contents.put(40, (byte) (contents.get(40) ^ 1));
+        assertThrows(IOException.class, () -> SaveFile.check(contents));
+        assertThrows(IOException.class, () -> SaveFile.check(
+                ByteBuffer.wrap("_ _ _\n".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    // test that a board that can't be regenerated from its seed still loads
+    @Test
+    public void testLoadsBoardWithoutReplay() throws IOException {
+        Battleship edited = new Battleship(5L);
+        String[][] board = edited.getCopyOfBoard();
+        board[0][0] = "O";
+        edited.setBoard(board);
+        Path file = dir.resolve("save.dat");
+        SaveFile.save(file, edited, new GameHistory(edited));
+
+        GameHistory loadedHistory = new GameHistory(model);
+        SaveFile.load(file, model, loadedHistory);
+        assertArrayEquals(board, model.getCopyOfBoard());
+        assertEquals(0, loadedHistory.size());
+        assertEquals(10, model.getNumShips());
+    }
+
+    // test that games saved in the old text format can still be imported
+    @Test
+    public void testImportsTextFormat() throws IOException {
+        StringBuilder text = new StringBuilder();
+        String[][] board = model.getCopyOfBoard();
+        for (String[] row : board) {
+            for (String cell : row) {
+                text.append(cell).append(' ');
+            }
+            text.append('\n');
+        }
+        text.append(model.getSunkenShips()).append(' ').append(model.getNumShots());
+        Path file = dir.resolve("file.txt");
+        Files.writeString(file, text);
+
+        Battleship loaded = new Battleship();
+        SaveFile.load(file, loaded, new GameHistory(loaded));
+        assertArrayEquals(board, loaded.getCopyOfBoard());
+        assertEquals(model.getNumShots(), loaded.getNumShots());
+        assertEquals(model.getNumShips(), loaded.getNumShips());
+    }
+
+    // test that a text file that isn't a saved game is rejected
+    @Test
+    public void testBadTextRejected() throws IOException {
+        Path file = dir.resolve("file.txt");
+        Files.writeString(file, "_ _ _\n");
+        assertThrows(IOException.class, () -> SaveFile.load(file, model, history));
+    }
+
+    // test that a board bigger than a short can count saves and loads with its shots
+    @Test
+    public void testBigBoardRoundTrip() throws IOException {
+        GameConfig config = GameConfig.tiled(19); // 190x190
+        Battleship big = new Battleship(config, 3L);
+        GameHistory bigHistory = new GameHistory(big);
+        bigHistory.takeShot(150, 5);
+        bigHistory.takeShot(189, 189);
+        Path file = dir.resolve("big.dat");
+        SaveFile.save(file, big, bigHistory);
+
+        Battleship loaded = new Battleship(config, 1L);
+        GameHistory loadedHistory = new GameHistory(loaded);
+        assertTrue(SaveFile.load(file, loaded, loadedHistory));
+        assertEquals(5 * 190 + 150, loadedHistory.getShot(0));
+        assertEquals(189 * 190 + 189, loadedHistory.getShot(1));
+        assertArrayEquals(big.getCopyOfBoard(), loaded.getCopyOfBoard());
+    }
+
+    // test that a game saved in version 1 of the format still loads
+    @Test
+    public void testLoadsVersion1() throws IOException {
+        ByteBuffer v2 = SaveFile.encode(model, history);
+        int cells = 100;
+        int shots = history.size();
+        ByteBuffer v1 = ByteBuffer.allocate(28 + cells + 2 * shots + 4);
+        v1.putInt(SaveFile.MAGIC).putShort((short) 1).putShort((short) 10);
+        v1.put(v2.duplicate().position(10).limit(30)); // seed and counters
+        v1.put(v2.duplicate().position(30).limit(30 + cells)); // cells
+        for (int i = 0; i < shots; i++) {
+            v1.putShort((short) history.getShot(i));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(v1.duplicate().flip());
+        v1.putInt((int) crc.getValue()).flip();
+
+        Battleship loaded = new Battleship();
+        GameHistory loadedHistory = new GameHistory(loaded);
+        assertTrue(SaveFile.apply(v1, loaded, loadedHistory));
+        assertArrayEquals(model.getCopyOfBoard(), loaded.getCopyOfBoard());
+        assertEquals(shots, loadedHistory.size());
+    }
+}
@@ -0,0 +1,168 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+public class SaveServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private SaveService saves;
+
+    @BeforeEach
+    public void setUp() {
+        saves = new SaveService(dir);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        saves.shutdown();
+    }
+
+    // test that a save written in the background holds the game as it was when save was called
+    @Test
+    public void testSaveSnapshotsGame() throws Exception {
+        Battleship model = new Battleship(99L);
+        GameHistory history = new GameHistory(model);
+        history.takeShot(4, 4);
+        String[][] saved = model.getCopyOfBoard();
+        Path file = dir.resolve("save.dat");
+
+        var done = saves.save(file, model, history);
+        for (int c = 0; c < 10; c++) {
+            history.takeShot(c, 0); // changes after save returned aren't saved
+        }
+        done.get();
+
+        ByteBuffer contents = saves.read(file).get();
+        Battleship loaded = new Battleship();
+        SaveFile.apply(contents, loaded, new GameHistory(loaded));
+        assertArrayEquals(saved, loaded.getCopyOfBoard());
+    }
+
+    // test that replacing a save leaves no temporary files behind
+    @Test
+    public void testSaveReplacesFile() throws Exception {
+        Battleship model = new Battleship(5L);
+        GameHistory history = new GameHistory(model);
+        Path file = dir.resolve("save.dat");
+        saves.save(file, model, history).get();
+        history.takeShot(0, 0);
+        saves.save(file, model, history).get();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+        Battleship loaded = new Battleship();
+        SaveFile.load(file, loaded, new GameHistory(loaded));
+        assertArrayEquals(model.getCopyOfBoard(), loaded.getCopyOfBoard());
+    }
+
+    // test that a missing file fails the future with the IOException behind it
+    @Test
+    public void testReadFailureReported() {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> saves.read(dir.resolve("missing.dat")).get());
+        assertTrue(SaveService.cause(e) instanceof IOException);
+    }
+
+    // test that a game saved in a slot loads back from it
+    @Test
+    public void testSlotRoundTrip() throws Exception {
+        GameEngine engine = new GameEngine(12L);
+        engine.shoot(2, 3);
+        saves.save("first", engine).get();
+
+        GameEngine loaded = new GameEngine();
+        loaded.load(saves.load("first").get());
+        assertArrayEquals(engine.getGame().getCopyOfBoard(), loaded.getGame().getCopyOfBoard());
+        assertEquals(1, loaded.getShotsTaken());
+        assertEquals("first", saves.slots().get().get(0).getName());
+    }
+
+    // test that a game on a board the UI can open saves in a slot however big it is
+    @Test
+    public void testBigSlotRoundTrip() throws Exception {
+        GameEngine engine = new GameEngine(GameConfig.tiled(19), 12L);
+        engine.shoot(150, 5);
+        saves.save("big", engine).get();
+
+        GameEngine loaded = new GameEngine(GameConfig.tiled(19), 1L);
+        loaded.load(saves.load("big").get());
+        assertArrayEquals(engine.getGame().getCopyOfBoard(), loaded.getGame().getCopyOfBoard());
+        assertEquals(1, loaded.getShotsTaken());
+    }
+
+    // test that games saved by the old versions are imported into slots
+    @Test
+    public void testOldSavesImported() throws Exception {
+        Battleship model = new Battleship(3L);
+        SaveFile.save(dir.resolve("save.dat"), model, new GameHistory(model));
+        assertEquals(1, saves.slots().get().size());
+
+        Battleship loaded = new Battleship();
+        SaveFile.apply(saves.load("save.dat").get(), loaded, new GameHistory(loaded));
+        assertArrayEquals(model.getCopyOfBoard(), loaded.getCopyOfBoard());
+    }
+
+    // test that a journaled game is replayed in the background into an engine of its own
+    @Test
+    public void testRecoverJournal() throws Exception {
+        Path file = dir.resolve("journal.dat");
+        GameEngine engine = new GameEngine(GameConfig.STANDARD, 17L);
+        try (ShotJournal journal = new ShotJournal(file)) {
+            engine.addListener(journal);
+            engine.newGame(17L);
+            for (int i = 0; i < 12; i++) {
+                engine.shoot((i * 3) % 10, i % 10);
+            }
+        }
+
+        GameEngine recovered = saves.recover(file).get();
+        assertNotNull(recovered);
+        assertArrayEquals(engine.getGame().getCopyOfBoard(),
+                recovered.getGame().getCopyOfBoard());
+        assertEquals(engine.getShotsTaken(), recovered.getShotsTaken());
+        assertNull(saves.recover(dir.resolve("missing.dat")).get());
+    }
+
+    // test that old files that don't hold a game aren't imported
+    @Test
+    public void testBadOldSavesSkipped() throws Exception {
+        Battleship model = new Battleship(3L);
+        SaveFile.save(dir.resolve("save.dat"), model, new GameHistory(model));
+        byte[] bytes = Files.readAllBytes(dir.resolve("save.dat"));
+        bytes[40] ^= 1;
+        Files.write(dir.resolve("save.dat"), bytes);
+        Files.writeString(dir.resolve("file.txt"), "_ _ _\n");
+        assertEquals(0, saves.slots().get().size());
+    }
+
+    // test that a save asked for just before shutdown is stored by the time it returns
+    @Test
+    public void testShutdownFinishesSaves() throws Exception {
+        GameEngine engine = new GameEngine(GameConfig.STANDARD, 8L);
+        engine.shoot(2, 2);
+        var done = saves.save("last", engine);
+        saves.shutdown();
+        assertTrue(done.isDone());
+
+        SaveService reopened = new SaveService(dir);
+        try {
+            GameEngine loaded = new GameEngine(GameConfig.STANDARD, 1L);
+            loaded.load(reopened.load("last").get());
+            assertEquals(1, loaded.getShotsTaken());
+        } finally {
+            reopened.shutdown();
+        }
+    }
+}
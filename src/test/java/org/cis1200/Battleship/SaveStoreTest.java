@@ -0,0 +1,163 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+public class SaveStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private SaveStore store;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        store = new SaveStore(dir);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        store.close();
+    }
+
+    private static ByteBuffer bytes(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String string(ByteBuffer b) {
+        return StandardCharsets.UTF_8.decode(b).toString();
+    }
+
+    // test that slots keep their own contents and survive reopening the store
+    @Test
+    public void testSlotsPersist() throws IOException {
+        store.save("a", bytes("first game"));
+        store.save("b", bytes("second game"));
+        store.save("a", bytes("first game, later"));
+        store.close();
+
+        store = new SaveStore(dir);
+        assertEquals(2, store.size());
+        assertEquals("first game, later", string(store.load("a")));
+        assertEquals("second game", string(store.load("b")));
+    }
+
+    // test that a deleted slot is gone and the others are unaffected
+    @Test
+    public void testDelete() throws IOException {
+        store.save("a", bytes("1"));
+        store.save("b", bytes("2"));
+        store.save("c", bytes("3"));
+        assertTrue(store.delete("a"));
+        assertFalse(store.delete("a"));
+        assertFalse(store.contains("a"));
+        assertThrows(IOException.class, () -> store.load("a"));
+        assertEquals("2", string(store.load("b")));
+        assertEquals("3", string(store.load("c")));
+        assertEquals(2, store.list().size());
+    }
+
+    // test that hundreds of slots, saved over many times, are kept and compacted
+    @Test
+    public void testManySlotsCompact() throws IOException {
+        byte[] game = new byte[300];
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 300; i++) {
+                game[0] = (byte) round;
+                game[1] = (byte) i;
+                store.save("slot " + i, ByteBuffer.wrap(game));
+            }
+        }
+        store.close();
+        store = new SaveStore(dir);
+        assertEquals(300, store.size());
+        for (int i = 0; i < 300; i++) {
+            ByteBuffer b = store.load("slot " + i);
+            assertEquals(300, b.remaining());
+            assertEquals(2, b.get(0));
+            assertEquals((byte) i, b.get(1));
+        }
+        // compacting replaced the first data file, and only the new one is left
+        assertFalse(Files.exists(dir.resolve("saves.0.dat")));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    // test that a loaded game is a copy, still readable after its slot is saved over and the
+    // store compacted
+    @Test
+    public void testLoadIsACopy() throws IOException {
+        store.save("a", bytes("first game"));
+        ByteBuffer loaded = store.load("a");
+        store.save("a", bytes("other game"));
+        store.compact();
+        assertEquals("first game", string(loaded));
+        assertEquals("other game", string(store.load("a")));
+    }
+
+    // test that a crash after a slot was pointed at a new game, but before the header was
+    // written, doesn't let the next save overwrite that game
+    @Test
+    public void testCrashBeforeHeader() throws IOException {
+        store.save("a", bytes("first game"));
+        store.close();
+        try (FileChannel index = FileChannel.open(dir.resolve(SaveStore.INDEX_FILE),
+                StandardOpenOption.WRITE)) {
+            index.write(ByteBuffer.allocate(8), 12); // the end of the data, as before the save
+        }
+        store = new SaveStore(dir);
+        store.save("b", bytes("second game"));
+        assertEquals("first game", string(store.load("a")));
+        assertEquals("second game", string(store.load("b")));
+    }
+
+    // test that a store of version 1, with the offset and length apart, is upgraded
+    @Test
+    public void testUpgradesVersion1() throws IOException {
+        store.close();
+        ByteBuffer index = ByteBuffer.allocate(3 * SaveStore.ENTRY_BYTES);
+        index.putInt(0, SaveStore.MAGIC).putShort(4, (short) 1)
+                .putShort(6, (short) SaveStore.ENTRY_BYTES).putInt(8, 2).putLong(12, 16)
+                .putInt(20, 0);
+        String[] names = { "a", "b" };
+        for (int entry = 0; entry < 2; entry++) {
+            int at = SaveStore.ENTRY_BYTES * (entry + 1);
+            index.putShort(at, (short) 1).put(at + 2, (byte) names[entry].charAt(0));
+            index.putLong(at + 32, 8 * entry).putInt(at + 40, 8).putLong(at + 44, entry);
+        }
+        Files.write(dir.resolve(SaveStore.INDEX_FILE), index.array());
+        Files.write(dir.resolve("saves.0.dat"),
+                "game onegame two".getBytes(StandardCharsets.UTF_8));
+
+        store = new SaveStore(dir);
+        assertEquals("game one", string(store.load("a")));
+        assertEquals("game two", string(store.load("b")));
+        assertEquals("b", store.list().get(0).getName());
+        assertEquals(8, store.list().get(0).getLength());
+        store.close();
+        store = new SaveStore(dir);
+        assertEquals("game two", string(store.load("b")));
+        ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(dir.resolve(SaveStore.INDEX_FILE)));
+        assertEquals(SaveStore.VERSION, header.getShort(4));
+        assertFalse(Files.exists(dir.resolve("saves.0.dat")));
+    }
+
+    // test that names which don't fit in an index entry are refused
+    @Test
+    public void testBadNames() {
+        assertThrows(IllegalArgumentException.class, () -> store.save("", bytes("x")));
+        assertThrows(IllegalArgumentException.class,
+                () -> store.save("x".repeat(SaveStore.MAX_NAME_BYTES + 1), bytes("x")));
+    }
+}
@@ -0,0 +1,181 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+public class ShotJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private ShotJournal journal;
+    private Battleship model;
+    private GameHistory history;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = dir.resolve("journal.dat");
+        journal = new ShotJournal(file);
+        model = new Battleship(31L);
+        history = new GameHistory(model);
+        journal.begin(model, history);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        journal.close();
+    }
+
+    private void shoot(int col, int row) {
+        if (history.takeShot(col, row)) {
+            journal.shot(model, history);
+        }
+    }
+
+    private void assertRecovers() throws IOException {
+        Battleship recovered = new Battleship(1L);
+        GameHistory recoveredHistory = new GameHistory(recovered);
+        assertTrue(ShotJournal.recover(file, recovered, recoveredHistory));
+        assertArrayEquals(model.getCopyOfBoard(), recovered.getCopyOfBoard());
+        assertEquals(model.getNumShots(), recovered.getNumShots());
+        assertEquals(model.getSunkenShips(), recovered.getSunkenShips());
+        assertEquals(history.size(), recoveredHistory.size());
+        assertEquals(history.length(), recoveredHistory.length());
+    }
+
+    // test that the journaled shots rebuild the game, including undone shots
+    @Test
+    public void testRecoverShotsAndUndo() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            shoot((i * 7) % 10, i / 2);
+        }
+        history.undo();
+        journal.seek(model, history);
+        history.undo();
+        journal.seek(model, history);
+        journal.flush();
+        assertRecovers();
+    }
+
+    // test that a shot taken after undoing drops the undone shots on recovery too
+    @Test
+    public void testRecoverAfterBranch() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            shoot(i, 0);
+        }
+        history.seek(4);
+        journal.seek(model, history);
+        shoot(5, 5);
+        journal.flush();
+        assertRecovers();
+    }
+
+    // test that a record torn by a crash is ignored
+    @Test
+    public void testTornRecordIgnored() throws IOException {
+        shoot(1, 1);
+        shoot(2, 2);
+        journal.flush();
+        Battleship before = new Battleship(model);
+        shoot(3, 3);
+        journal.flush();
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+        Battleship recovered = new Battleship(1L);
+        assertTrue(ShotJournal.recover(file, recovered, new GameHistory(recovered)));
+        assertArrayEquals(before.getCopyOfBoard(), recovered.getCopyOfBoard());
+    }
+
+    // test that there is nothing to recover before the first shot or after clear
+    @Test
+    public void testNothingToRecover() throws IOException {
+        journal.flush();
+        Battleship other = new Battleship(1L);
+        assertFalse(ShotJournal.recover(file, other, new GameHistory(other)));
+        shoot(0, 0);
+        journal.clear();
+        journal.flush();
+        assertFalse(ShotJournal.recover(file, other, new GameHistory(other)));
+        assertFalse(ShotJournal.recover(dir.resolve("missing.dat"), other,
+                new GameHistory(other)));
+    }
+
+    // test that a game begun from a loaded save journals the loaded shots
+    @Test
+    public void testBeginJournalsHistory() throws IOException {
+        for (int i = 0; i < 6; i++) {
+            shoot(9 - i, i);
+        }
+        history.undo();
+        journal.begin(model, history);
+        journal.flush();
+        assertRecovers();
+    }
+
+    // test that a game on a big board journals its config and cells beyond a byte
+    @Test
+    public void testRecoverBigBoard() throws IOException {
+        GameConfig config = GameConfig.tiled(20); // 200x200
+        model = new Battleship(config, 5L);
+        history = new GameHistory(model);
+        journal.begin(model, history);
+        shoot(150, 5);
+        shoot(199, 199);
+        journal.flush();
+        assertEquals(config, ShotJournal.getConfig(file));
+        Battleship recovered = new Battleship(config, 1L);
+        GameHistory recoveredHistory = new GameHistory(recovered);
+        assertTrue(ShotJournal.recover(file, recovered, recoveredHistory));
+        assertEquals(5 * 200 + 150, recoveredHistory.getShot(0));
+        assertEquals(199 * 200 + 199, recoveredHistory.getShot(1));
+        assertArrayEquals(model.getCopyOfBoard(), recovered.getCopyOfBoard());
+    }
+
+    // test that a journal isn't recovered into a game of another config
+    @Test
+    public void testConfigMismatch() throws IOException {
+        model = new Battleship(GameConfig.tiled(5), 5L);
+        history = new GameHistory(model);
+        journal.begin(model, history);
+        shoot(45, 44);
+        journal.flush();
+        Battleship standard = new Battleship(1L);
+        assertThrows(IOException.class,
+                () -> ShotJournal.recover(file, standard, new GameHistory(standard)));
+        assertEquals(GameConfig.tiled(5), ShotJournal.getConfig(file));
+    }
+
+    // test that recovery stops at a shot at a cell that isn't on the board
+    @Test
+    public void testCellOffBoard() throws IOException {
+        shoot(1, 1);
+        journal.flush();
+        Battleship before = new Battleship(model);
+        ByteBuffer record = ByteBuffer.allocate(ShotJournal.RECORD_BYTES);
+        record.putLong(model.getSeed()).putInt(1).putInt(100).putInt(0).putInt(0)
+                .put(ShotJournal.SHOT).put(new byte[3]);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, ShotJournal.RECORD_BYTES - 4);
+        record.putInt((int) crc.getValue()).flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(record);
+        }
+        Battleship recovered = new Battleship(1L);
+        GameHistory recoveredHistory = new GameHistory(recovered);
+        assertTrue(ShotJournal.recover(file, recovered, recoveredHistory));
+        assertEquals(1, recoveredHistory.size());
+        assertArrayEquals(before.getCopyOfBoard(), recovered.getCopyOfBoard());
+    }
+}
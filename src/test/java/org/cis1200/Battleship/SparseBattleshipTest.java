@@ -0,0 +1,161 @@
+package org.cis1200.Battleship;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class SparseBattleshipTest {
+
+    // 1000x1000 with 1000 classic fleets: 10,000 ships on 2% of the board
+    private static final GameConfig MEGA = new GameConfig(1000, 1000,
+            GameConfig.classicFleets(1000), 650_000);
+
+    // test that the map holds what was put in it, through growing and clearing
+    @Test
+    public void testLongIntMap() {
+        LongIntMap map = new LongIntMap(4);
+        for (long k = 0; k < 10_000; k++) {
+            map.put(k * 1_000_003L, (int) k);
+        }
+        assertEquals(10_000, map.size());
+        for (long k = 0; k < 10_000; k++) {
+            assertEquals((int) k, map.get(k * 1_000_003L, -1));
+        }
+        assertEquals(-1, map.get(7, -1));
+        map.put(0, 42);
+        assertEquals(42, map.get(0, -1));
+        assertEquals(10_000, map.size());
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(-1, map.get(1_000_003L, -1));
+        assertThrows(IllegalArgumentException.class, () -> map.put(-1, 0));
+    }
+
+    // test that a sparse board holds the whole fleet, with no ships touching, and plays by
+    // the same rules as Battleship
+    @Test
+    public void testSameRules() {
+        GameConfig config = new GameConfig(30, 30, GameConfig.classicFleets(1), 200);
+        SparseBattleship game = new SparseBattleship(config, 4L);
+        int shipCells = 0;
+        for (int r = 0; r < 30; r++) {
+            for (int c = 0; c < 30; c++) {
+                String cell = game.getCell(c, r);
+                if (cell.equals("_") || cell.equals(".")) {
+                    continue;
+                }
+                shipCells++;
+                for (int dr = -1; dr <= 1; dr += 2) {
+                    for (int dc = -1; dc <= 1; dc += 2) {
+                        if (r + dr >= 0 && r + dr < 30 && c + dc >= 0 && c + dc < 30) {
+                            String next = game.getCell(c + dc, r + dr);
+                            assertTrue(next.equals("_") || next.equals("."));
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(20, shipCells);
+        assertEquals(4, game.getCountShips(1));
+        assertEquals(1, game.getCountShips(4));
+
+        // a miss, a repeated shot, and a sunk submarine's border
+        int water = -1;
+        int sub = -1;
+        for (int cell = 0; cell < 900 && (water < 0 || sub < 0); cell++) {
+            String s = game.getCell(cell % 30, cell / 30);
+            if (s.equals("_") && water < 0) {
+                water = cell;
+            } else if (s.equals("1") && sub < 0) {
+                sub = cell;
+            }
+        }
+        game.takeShot(water % 30, water / 30);
+        game.takeShot(water % 30, water / 30);
+        assertEquals("O", game.getCell(water % 30, water / 30));
+        assertEquals(199, game.getNumShots());
+        game.takeShot(sub % 30, sub / 30);
+        assertEquals("X", game.getCell(sub % 30, sub / 30));
+        assertEquals(1, game.getSunkenShips());
+        assertEquals(9, game.getNumShips());
+        int row = sub / 30;
+        int col = sub % 30;
+        String next = col > 0 ? game.getCell(col - 1, row) : game.getCell(col + 1, row);
+        assertEquals("x", next);
+
+        BatchSimulator.play(game, new HuntTargetStrategy(), new SplittableRandom(3L));
+        assertTrue(game.didWin());
+    }
+
+    // test that the same seed gives the same board
+    @Test
+    public void testSeeded() {
+        GameConfig config = new GameConfig(40, 40, GameConfig.classicFleets(2), 300);
+        SparseBattleship a = new SparseBattleship(config, 9L);
+        SparseBattleship b = new SparseBattleship(config, new SplittableRandom(1L));
+        b.reset(9L);
+        for (int r = 0; r < 40; r++) {
+            for (int c = 0; c < 40; c++) {
+                assertEquals(a.getCell(c, r), b.getCell(c, r));
+            }
+        }
+        assertEquals(9L, b.getSeed());
+    }
+
+    // test that a 1000x1000 board stores only its ships and their borders, and can be sunk
+    @Test
+    public void testHugeBoard() {
+        SparseBattleship game = new SparseBattleship(MEGA, 1L);
+        assertEquals(10_000, game.getNumShips());
+        assertTrue(game.getStoredCells() < 200_000, game.getStoredCells() + " cells stored");
+        assertEquals("O", shootWater(game));
+
+        long start = System.nanoTime();
+        for (int g = 0; g < 10; g++) {
+            game.reset();
+        }
+        long perBoard = (System.nanoTime() - start) / 10;
+        assertTrue(perBoard < 100_000_000, perBoard + " ns per board");
+
+        // sink every ship
+        for (int r = 0; r < 1000; r++) {
+            for (int c = 0; c < 1000; c++) {
+                String cell = game.getCell(c, r);
+                if (!cell.equals("_") && !cell.equals(".") && !cell.equals("x")
+                        && !cell.equals("X")) {
+                    game.takeShot(c, r);
+                }
+            }
+        }
+        assertTrue(game.didWin());
+        assertEquals(0, game.getNumShips());
+        assertEquals(650_000 - 20_000, game.getNumShots());
+    }
+
+    // test that the factory picks the sparse model for huge boards with sparse fleets only
+    @Test
+    public void testCreate() {
+        SplittableRandom random = new SplittableRandom(1L);
+        assertTrue(BoardModel.create(GameConfig.HUGE, random) instanceof Battleship);
+        assertTrue(BoardModel.create(GameConfig.tiled(60), random) instanceof Battleship);
+        assertTrue(BoardModel.create(MEGA, random) instanceof SparseBattleship);
+    }
+
+    // test that a fleet with almost no room is reported rather than searched for forever.
+    // Nine submarines only fit on a 5x5 board one way, which random draws don't find.
+    @Test
+    public void testTooCrowded() {
+        GameConfig crowded = new GameConfig(5, 5, new int[] { 1, 1, 1, 1, 1, 1, 1, 1, 1 }, 25);
+        assertThrows(IllegalStateException.class, () -> new SparseBattleship(crowded, 1L));
+    }
+
+    private static String shootWater(SparseBattleship game) {
+        for (int c = 0;; c++) {
+            if (game.getCell(c, 0).equals("_")) {
+                game.takeShot(c, 0);
+                return game.getCell(c, 0);
+            }
+        }
+    }
+}